@@ -0,0 +1,190 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.math.LongMath;
+
+/**
+ * Non-negative weights of axioms, e.g., the costs of removing them from the
+ * ontology. Axioms are identified by their string representations, so the
+ * weights can be loaded from a file produced independently of the proofs.
+ * The weight of a set of axioms is the sum of the weights of its elements
+ * saturated at {@link Long#MAX_VALUE}. Since the weights are not negative, a
+ * set weighs at least as much as its subsets, so the computations can discard
+ * the candidates that weigh more than a bound.
+ */
+public class AxiomWeights {
+
+	/**
+	 * the weights by the string representations of axioms
+	 */
+	private final Map<String, Long> weights_;
+
+	/**
+	 * the weight of the axioms not in {@link #weights_}
+	 */
+	private final long defaultWeight_;
+
+	private final PriorityComparator<Set<?>, Priority> priorityComparator_ = new PriorityComparator<Set<?>, Priority>() {
+
+		@Override
+		public Priority getPriority(final Set<?> axioms) {
+			return new Priority(getWeight(axioms), axioms.size());
+		}
+
+		@Override
+		public int compare(final Priority first, final Priority second) {
+			final int result = Long.compare(first.weight_, second.weight_);
+			if (result != 0) {
+				return result;
+			}
+			// else
+			return Integer.compare(first.size_, second.size_);
+		}
+
+	};
+
+	/**
+	 * @param weights
+	 *            the weights by the string representations of axioms
+	 * @param defaultWeight
+	 *            the weight of the axioms not in the given map
+	 */
+	public AxiomWeights(final Map<String, Long> weights,
+			final long defaultWeight) {
+		Preconditions.checkArgument(defaultWeight >= 0,
+				"Negative weight: %s", defaultWeight);
+		for (final Map.Entry<String, Long> entry : weights.entrySet()) {
+			Preconditions.checkArgument(entry.getValue() >= 0,
+					"Negative weight of %s: %s", entry.getKey(),
+					entry.getValue());
+		}
+		this.weights_ = new HashMap<String, Long>(weights);
+		this.defaultWeight_ = defaultWeight;
+	}
+
+	/**
+	 * Reads the weights from the given file, in which every line contains the
+	 * weight of an axiom followed by a space and the axiom. Empty lines and
+	 * lines starting with {@code #} are ignored.
+	 * 
+	 * @param file
+	 * @param defaultWeight
+	 *            the weight of the axioms not listed in the file
+	 * @return the weights read from the file
+	 * @throws IOException
+	 */
+	public static AxiomWeights load(final File file, final long defaultWeight)
+			throws IOException {
+		final Map<String, Long> weights = new HashMap<String, Long>();
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new FileReader(file));
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				// else
+				final int pos = line.indexOf(' ');
+				try {
+					if (pos < 0) {
+						throw new NumberFormatException();
+					}
+					// else
+					final long weight = Long
+							.parseLong(line.substring(0, pos));
+					if (weight < 0) {
+						throw new NumberFormatException();
+					}
+					// else
+					weights.put(line.substring(pos + 1), weight);
+				} catch (final NumberFormatException e) {
+					throw new IOException(
+							file + ":" + lineNumber + ": invalid weight");
+				}
+			}
+		} finally {
+			Utils.closeQuietly(reader);
+		}
+		return new AxiomWeights(weights, defaultWeight);
+	}
+
+	public long getWeight(final Object axiom) {
+		final Long result = weights_.get(axiom.toString());
+		return result == null ? defaultWeight_ : result;
+	}
+
+	/**
+	 * @param axioms
+	 * @return the sum of the weights of the axioms saturated at
+	 *         {@link Long#MAX_VALUE}
+	 */
+	public long getWeight(final Collection<?> axioms) {
+		long result = 0;
+		for (final Object axiom : axioms) {
+			result = LongMath.saturatedAdd(result, getWeight(axiom));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the comparator by which the sets of axioms are enumerated in the
+	 *         order of increasing weights, and sets of the same weight in the
+	 *         order of increasing size, so that a set always precedes its
+	 *         proper supersets, even if they contain axioms of zero weight;
+	 *         the same object is returned for the same weights, so that the
+	 *         computations can reuse the results enumerated with it
+	 */
+	public PriorityComparator<Set<?>, ?> getPriorityComparator() {
+		return priorityComparator_;
+	}
+
+	private static class Priority {
+
+		final long weight_;
+
+		final int size_;
+
+		Priority(final long weight, final int size) {
+			this.weight_ = weight;
+			this.size_ = size;
+		}
+
+	}
+
+}
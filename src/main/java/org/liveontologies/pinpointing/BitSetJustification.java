@@ -0,0 +1,377 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A justification represented by a bit set over integer identifiers of axioms.
+ * The identifiers are assigned by an {@link AxiomIndex} that should be shared
+ * by all justifications of the same computation; then unions and subset tests
+ * between such justifications are performed word-wise without hashing the
+ * axioms. The bit set is trimmed so that the last word is never zero, thus
+ * justifications containing only axioms with small identifiers occupy few
+ * words.
+ * 
+ * @param <C>
+ *            the type of the conclusion for which the justification is computed
+ * @param <A>
+ *            the type of axioms in the justification
+ */
+public class BitSetJustification<C, A> extends AbstractSet<A>
+		implements Justification<C, A> {
+
+	private static final long[] EMPTY_ = new long[0];
+
+	private static final short SHIFT_ = 6; // 2^6 = 64 bits in a word
+
+	// = 11..1 SHIFT_ times
+	private static final int MASK_ = (1 << SHIFT_) - 1;
+
+	private final AxiomIndex<A> index_;
+
+	private final C conclusion_;
+
+	/**
+	 * the bits of the identifiers of the axioms; the last word is not zero
+	 */
+	private final long[] words_;
+
+	/**
+	 * cache the size to avoid counting the bits
+	 */
+	private final int size_;
+
+	private BitSetJustification(AxiomIndex<A> index, C conclusion,
+			long[] words, int size) {
+		this.index_ = index;
+		this.conclusion_ = conclusion;
+		this.words_ = words;
+		this.size_ = size;
+	}
+
+	private BitSetJustification(AxiomIndex<A> index, C conclusion,
+			long[] words) {
+		this(index, conclusion, words, bitCount(words));
+	}
+
+	@SafeVarargs
+	public BitSetJustification(AxiomIndex<A> index, C conclusion,
+			Collection<? extends A>... collections) {
+		this(index, conclusion, buildWords(index, collections));
+	}
+
+	@SafeVarargs
+	private static <A> long[] buildWords(AxiomIndex<A> index,
+			Collection<? extends A>... collections) {
+		long[] result = EMPTY_;
+		for (int i = 0; i < collections.length; i++) {
+			for (A axiom : collections[i]) {
+				result = setBit(result, index.getId(axiom));
+			}
+		}
+		return result;
+	}
+
+	private static long[] setBit(long[] words, int id) {
+		int pos = id >>> SHIFT_;
+		if (pos >= words.length) {
+			words = Arrays.copyOf(words, pos + 1);
+		}
+		words[pos] |= 1L << (id & MASK_);
+		return words;
+	}
+
+	private static int bitCount(long[] words) {
+		int result = 0;
+		for (int i = 0; i < words.length; i++) {
+			result += Long.bitCount(words[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @param words
+	 * @return the prefix of the given words without trailing zero words
+	 */
+	private static long[] trim(long[] words) {
+		int length = words.length;
+		while (length > 0 && words[length - 1] == 0) {
+			length--;
+		}
+		if (length == words.length) {
+			return words;
+		}
+		// else
+		return length == 0 ? EMPTY_ : Arrays.copyOf(words, length);
+	}
+
+	@Override
+	public C getConclusion() {
+		return conclusion_;
+	}
+
+	@Override
+	public int size() {
+		return size_;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size_ == 0;
+	}
+
+	/**
+	 * @param other
+	 * @return the bits of the given set if it is a
+	 *         {@link BitSetJustification} with the same {@link AxiomIndex} as
+	 *         this one or {@code null} otherwise
+	 */
+	private long[] getCompatibleWords(Object other) {
+		if (other instanceof BitSetJustification<?, ?>) {
+			BitSetJustification<?, ?> just = (BitSetJustification<?, ?>) other;
+			if (just.index_ == index_) {
+				return just.words_;
+			}
+		}
+		// else
+		return null;
+	}
+
+	@Override
+	public Justification<C, A> copyTo(C conclusion) {
+		return new BitSetJustification<C, A>(index_, conclusion, words_,
+				size_);
+	}
+
+	@Override
+	public Justification<C, A> addElements(Set<? extends A> added) {
+		long[] addedWords = getCompatibleWords(added);
+		if (addedWords == null) {
+			addedWords = buildWords(index_, added);
+		}
+		if (containsAllWords(addedWords)) {
+			return this;
+		}
+		// else
+		long[] result = Arrays.copyOf(words_,
+				Math.max(words_.length, addedWords.length));
+		for (int i = 0; i < addedWords.length; i++) {
+			result[i] |= addedWords[i];
+		}
+		return new BitSetJustification<C, A>(index_, conclusion_, result);
+	}
+
+	@Override
+	public Justification<C, A> removeElements(Set<? extends A> removed) {
+		long[] removedWords = getCompatibleWords(removed);
+		if (removedWords == null) {
+			removedWords = EMPTY_;
+			for (A axiom : removed) {
+				int id = index_.findId(axiom);
+				if (id >= 0) {
+					removedWords = setBit(removedWords, id);
+				}
+			}
+		}
+		int length = Math.min(words_.length, removedWords.length);
+		boolean intersects = false;
+		for (int i = 0; i < length; i++) {
+			if ((words_[i] & removedWords[i]) != 0) {
+				intersects = true;
+				break;
+			}
+		}
+		if (!intersects) {
+			return this;
+		}
+		// else
+		long[] result = Arrays.copyOf(words_, words_.length);
+		for (int i = 0; i < length; i++) {
+			result[i] &= ~removedWords[i];
+		}
+		return new BitSetJustification<C, A>(index_, conclusion_,
+				trim(result));
+	}
+
+	private boolean containsAllWords(long[] other) {
+		if (other.length > words_.length) {
+			// the last word of other is not zero
+			return false;
+		}
+		for (int i = 0; i < other.length; i++) {
+			if ((other[i] & ~words_[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		int id = index_.findId(object);
+		if (id < 0) {
+			return false;
+		}
+		int pos = id >>> SHIFT_;
+		return pos < words_.length
+				&& (words_[pos] & (1L << (id & MASK_))) != 0;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		long[] otherWords = getCompatibleWords(c);
+		if (otherWords != null) {
+			return containsAllWords(otherWords);
+		}
+		// else
+		return super.containsAll(c);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		long[] otherWords = getCompatibleWords(o);
+		if (otherWords != null) {
+			return Arrays.equals(words_, otherWords);
+		}
+		// else
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		// must be consistent with other sets
+		return super.hashCode();
+	}
+
+	@Override
+	public Iterator<A> iterator() {
+		return new Iterator<A>() {
+
+			private int pos_ = 0;
+
+			private long word_ = words_.length == 0 ? 0 : words_[0];
+
+			@Override
+			public boolean hasNext() {
+				while (word_ == 0) {
+					if (++pos_ >= words_.length) {
+						return false;
+					}
+					word_ = words_[pos_];
+				}
+				return true;
+			}
+
+			@Override
+			public A next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int bit = Long.numberOfTrailingZeros(word_);
+				word_ &= word_ - 1; // clear the lowest bit
+				return index_.getAxiom((pos_ << SHIFT_) + bit);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
+	@Override
+	public String toString() {
+		Object[] elements = toArray();
+		Arrays.sort(elements, new Comparator<Object>() {
+			@Override
+			public int compare(Object o1, Object o2) {
+				return String.valueOf(o1).compareTo(String.valueOf(o2));
+			}
+		});
+		return getConclusion() + ": " + Arrays.toString(elements);
+	}
+
+	/**
+	 * Assigns consecutive integer identifiers to axioms starting from 0, so
+	 * that the bit sets of {@link BitSetJustification} remain dense.
+	 * 
+	 * @param <A>
+	 *            the type of axioms
+	 */
+	public static class AxiomIndex<A> {
+
+		private final Map<Object, Integer> ids_ = new HashMap<Object, Integer>();
+
+		private final List<A> axioms_ = new ArrayList<A>();
+
+		/**
+		 * @param axiom
+		 * @return the identifier of the given axiom; a new identifier is
+		 *         assigned if the axiom has not been seen before
+		 */
+		public int getId(A axiom) {
+			Integer result = ids_.get(axiom);
+			if (result == null) {
+				result = axioms_.size();
+				ids_.put(axiom, result);
+				axioms_.add(axiom);
+			}
+			return result;
+		}
+
+		/**
+		 * @param axiom
+		 * @return the identifier of the given axiom or {@code -1} if it has
+		 *         not been assigned
+		 */
+		public int findId(Object axiom) {
+			Integer result = ids_.get(axiom);
+			return result == null ? -1 : result;
+		}
+
+		public A getAxiom(int id) {
+			return axioms_.get(id);
+		}
+
+		/**
+		 * @return the number of axioms that have an identifier
+		 */
+		public int size() {
+			return axioms_.size();
+		}
+
+	}
+
+}
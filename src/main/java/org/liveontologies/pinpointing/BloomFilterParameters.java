@@ -0,0 +1,123 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The parameters of the Bloom filters of {@link BloomSet}s: the number of
+ * hash functions and the bound on the width of filters. The width of the
+ * filter of a set is derived from the size of the set: it is the smallest
+ * power of two of at least 64 bits that gives about {@code 1.44 * k} bits per
+ * element for {@code k} hash functions, but at most the bound. Since the
+ * filter is proportional to the set, it is not bounded by default. The sets
+ * are created with the parameters of the computation that creates them;
+ * the filters of sets created with different parameters are not compared.
+ */
+public class BloomFilterParameters {
+
+	private static final short SHIFT_ = 6; // 2^6 = 64 bits in a word
+
+	/**
+	 * one hash function and filters as wide as required by the size
+	 */
+	public static final BloomFilterParameters DEFAULT = new BloomFilterParameters(
+			1, Integer.MAX_VALUE);
+
+	private final int hashCount_;
+
+	private final int maxWords_;
+
+	private BloomFilterParameters(final int hashCount, final int maxWords) {
+		this.hashCount_ = hashCount;
+		this.maxWords_ = maxWords;
+	}
+
+	/**
+	 * @param hashCount
+	 *            the number of bits set by every element
+	 * @return the parameters with the given number of hash functions and
+	 *         filters as wide as required by the size of the sets
+	 */
+	public static BloomFilterParameters create(final int hashCount) {
+		Preconditions.checkArgument(hashCount > 0,
+				"The number of hash functions must be positive: %s",
+				hashCount);
+		return new BloomFilterParameters(hashCount, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param hashCount
+	 *            the number of bits set by every element
+	 * @param maxWidth
+	 *            the maximal width of filters in bits; must be a power of two
+	 *            of at least 64
+	 * @return the parameters with the given number of hash functions and
+	 *         filters of at most the given width
+	 */
+	public static BloomFilterParameters create(final int hashCount,
+			final int maxWidth) {
+		Preconditions.checkArgument(hashCount > 0,
+				"The number of hash functions must be positive: %s",
+				hashCount);
+		Preconditions.checkArgument(
+				maxWidth >= 1 << SHIFT_ && Integer.bitCount(maxWidth) == 1,
+				"Unsupported filter width: %s", maxWidth);
+		return new BloomFilterParameters(hashCount, maxWidth >> SHIFT_);
+	}
+
+	public int getHashCount() {
+		return hashCount_;
+	}
+
+	/**
+	 * @return the maximal width of filters in bits or
+	 *         {@link Integer#MAX_VALUE} if the width is not bounded
+	 */
+	public int getMaxWidth() {
+		return maxWords_ == Integer.MAX_VALUE ? Integer.MAX_VALUE
+				: maxWords_ << SHIFT_;
+	}
+
+	/**
+	 * @param size
+	 * @return the number of 64 bit words of the filter for a set of the given
+	 *         size
+	 */
+	int getFilterWords(final int size) {
+		final long bits = (long) Math.ceil(1.44 * size * hashCount_);
+		int result = 1;
+		while (result < maxWords_ && ((long) result << SHIFT_) < bits) {
+			result <<= 1;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return hashCount_ + " hash functions, "
+				+ (maxWords_ == Integer.MAX_VALUE ? "unbounded width"
+						: getMaxWidth() + " bits");
+	}
+
+}
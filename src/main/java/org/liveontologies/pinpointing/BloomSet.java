@@ -27,20 +27,29 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Set;
 
-import org.liveontologies.puli.statistics.ResetStats;
-import org.liveontologies.puli.statistics.Stat;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ForwardingSet;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Sets;
 
 /**
- * A set enhanced with a Bloom filter to quickly check set inclusion. The Bloom
- * filter uses just one hash function; containment of elements is not optimized.
- * As it is common with Bloom filters, removal of elements is not supported.
+ * A set enhanced with a Bloom filter to quickly check set inclusion. The
+ * number of hash functions and the width of the filter are determined by the
+ * {@link BloomFilterParameters} given when the set is created, which are
+ * passed to the sets obtained from it; the width depends on the size of the
+ * set. The filters of different widths are compared after folding the wider
+ * filter to the width of the narrower one; since the bit positions are
+ * computed modulo the width, folding gives the filter of the smaller width.
+ * As it is common
+ * with Bloom filters, removal of elements is not supported. The inclusion
+ * tests are counted in the {@link InclusionStatistics} given when the set is
+ * created, which are passed to the sets obtained from it.
+ * The sets of elements are interned in a weak pool, so that equal
+ * justifications of different conclusions share the same set and can be
+ * compared by reference.
  * 
  * @see Set#contains(Object)
  * @see Set#containsAll(Collection)
@@ -55,34 +64,28 @@ import com.google.common.collect.Sets;
 public class BloomSet<C, A> extends ForwardingSet<A>
 		implements Justification<C, A>, Comparable<BloomSet<C, A>> {
 
-	private static final Logger LOGGER_ = LoggerFactory
-			.getLogger(BloomSet.class);
-
-	private static final boolean COLLECT_STATS_ = true;
-
-	private static long STATS_CONTAINS_ALL_COUNT_ = 0,
-			STATS_CONTAINS_ALL_POSITIVE_ = 0, STATS_CONTAINS_ALL_FILTERED_ = 0;
-
-	@Stat
-	public static long containsAllCount() {
-		return STATS_CONTAINS_ALL_COUNT_;
-	}
-
-	@Stat
-	public static long containsAllPositive() {
-		return STATS_CONTAINS_ALL_POSITIVE_;
-	}
-
-	@Stat
-	public static long containsAllFiltered() {
-		return STATS_CONTAINS_ALL_FILTERED_;
-	}
+	/**
+	 * the canonical sets of elements; not referenced sets can be reclaimed
+	 */
+	private static final Interner<ImmutableSet<?>> ELEMENTS_POOL_ = Interners
+			.newWeakInterner();
 
-	private static final short SHIFT_ = 6; // 2^6 = 64 bits is good enough
+	private static final short SHIFT_ = 6; // 2^6 = 64 bits in a word
 
 	// = 11..1 SHIFT_ times
 	private static final int MASK_ = (1 << SHIFT_) - 1;
 
+	/**
+	 * the statistics of the computation in which this set is created
+	 */
+	private final InclusionStatistics stats_;
+
+	/**
+	 * the parameters of the filter of this set; the filters of sets with
+	 * different parameters are not compared
+	 */
+	private final BloomFilterParameters params_;
+
 	private final C conclusion_;
 
 	private final Set<A> elements_;
@@ -99,32 +102,85 @@ public class BloomSet<C, A> extends ForwardingSet<A>
 	private final int priority2_;
 
 	/**
-	 * filter for subset tests of SHIFT_ bits, each elements in the set sets one
-	 * bit to 1
+	 * filter for subset tests of 2^SHIFT_ bits; if {@link #wideFilter_} is
+	 * not {@code null}, this is its folding to 64 bits
 	 */
 	private final long filter_;
 
-	private BloomSet(C conclusion, Set<A> elements, int size, int priority2,
-			long filter) {
+	/**
+	 * the filter wider than 2^SHIFT_ bits or {@code null} if the set is small
+	 */
+	private final long[] wideFilter_;
+
+	private BloomSet(InclusionStatistics stats, BloomFilterParameters params,
+			C conclusion, Set<A> elements, int size, int priority2,
+			long filter, long[] wideFilter) {
+		this.stats_ = stats;
+		this.params_ = params;
 		this.conclusion_ = conclusion;
 		this.elements_ = elements;
 		this.size_ = size;
 		this.priority2_ = priority2;
 		this.filter_ = filter;
+		this.wideFilter_ = wideFilter;
 	}
 
+	/**
+	 * Creates the set that does not count inclusion tests and uses
+	 * {@link BloomFilterParameters#DEFAULT}.
+	 * 
+	 * @param conclusion
+	 * @param collections
+	 *            the collections whose elements are in the set
+	 */
 	@SafeVarargs
 	public BloomSet(C conclusion, Collection<? extends A>... collections) {
+		this(InclusionStatistics.DISABLED, BloomFilterParameters.DEFAULT,
+				conclusion, collections);
+	}
+
+	/**
+	 * @param stats
+	 *            the statistics in which the inclusion tests of this set and
+	 *            of the sets obtained from it are counted
+	 * @param params
+	 *            the parameters of the filters of this set and of the sets
+	 *            obtained from it
+	 * @param conclusion
+	 * @param collections
+	 *            the collections whose elements are in the set
+	 */
+	@SafeVarargs
+	public BloomSet(InclusionStatistics stats, BloomFilterParameters params,
+			C conclusion, Collection<? extends A>... collections) {
 		Builder<A> elementsBuilder = new ImmutableSet.Builder<A>();
+		this.stats_ = stats;
+		this.params_ = Preconditions.checkNotNull(params);
 		this.conclusion_ = conclusion;
 		for (int i = 0; i < collections.length; i++) {
 			elementsBuilder.addAll(collections[i]);
 		}
-		this.elements_ = elementsBuilder.build();
+		this.elements_ = intern(elementsBuilder.build(), stats);
 		this.size_ = elements_.size();
 		// try to group justifications for the same conclusions together
 		this.priority2_ = conclusion.hashCode();
-		this.filter_ = buildFilter();
+		final int words = params_.getFilterWords(size_);
+		if (words == 1) {
+			this.wideFilter_ = null;
+			this.filter_ = buildFilter(elements_, 1, params_.getHashCount())[0];
+		} else {
+			this.wideFilter_ = buildFilter(elements_, words,
+					params_.getHashCount());
+			this.filter_ = fold(wideFilter_, 0, 1);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A> Set<A> intern(final ImmutableSet<A> elements,
+			final InclusionStatistics stats) {
+		final Set<A> result = (Set<A>) ELEMENTS_POOL_.intern(elements);
+		stats.countInterned(result != elements);
+		return result;
 	}
 
 	@Override
@@ -139,8 +195,8 @@ public class BloomSet<C, A> extends ForwardingSet<A>
 
 	@Override
 	public Justification<C, A> copyTo(C conclusion) {
-		return new BloomSet<C, A>(conclusion, elements_, size_,
-				conclusion.hashCode(), filter_);
+		return new BloomSet<C, A>(stats_, params_, conclusion, elements_,
+				size_, conclusion.hashCode(), filter_, wideFilter_);
 	}
 
 	@Override
@@ -149,7 +205,8 @@ public class BloomSet<C, A> extends ForwardingSet<A>
 			return this;
 		}
 		// else
-		return new BloomSet<C, A>(conclusion_, Sets.union(this, added));
+		return new BloomSet<C, A>(stats_, params_, conclusion_,
+				Sets.union(this, added));
 	}
 
 	@Override
@@ -158,23 +215,93 @@ public class BloomSet<C, A> extends ForwardingSet<A>
 			return this;
 		}
 		// else
-		return new BloomSet<C, A>(conclusion_,
+		return new BloomSet<C, A>(stats_, params_, conclusion_,
 				Sets.difference(this, removed));
 	}
 
-	private long buildFilter() {
+	/**
+	 * @param element
+	 * @param i
+	 * @return the value of the hash function with the given index for the
+	 *         given element; the position of the bit is this value modulo the
+	 *         width of the filter
+	 */
+	private static int hash(final Object element, final int i) {
+		final int h = element.hashCode() * 0x9E3779B9;
+		final int h1 = h ^ (h >>> 16);
+		// double hashing with an odd step
+		return h1 + i * ((h >>> 11) | 1);
+	}
+
+	private static long[] buildFilter(final Set<?> elements,
+			final int words, final int hashCount) {
+		final long[] result = new long[words];
+		final int mask = (words << SHIFT_) - 1;
+		for (Object e : elements) {
+			for (int i = 0; i < hashCount; i++) {
+				final int pos = hash(e, i) & mask;
+				result[pos >>> SHIFT_] |= 1L << (pos & MASK_);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param filter
+	 * @param i
+	 * @param words
+	 * @return the word with the given index of the filter of the given number
+	 *         of words obtained by combining the words of the given filter at
+	 *         the same positions modulo this number
+	 */
+	private static long fold(final long[] filter, final int i,
+			final int words) {
 		long result = 0;
-		for (A e : elements_) {
-			result |= 1 << (e.hashCode() & MASK_);
+		for (int j = i; j < filter.length; j += words) {
+			result |= filter[j];
 		}
 		return result;
 	}
-	
+
+	/**
+	 * @param other
+	 * @return {@code true} if the filter of this set has all bits of the
+	 *         filter of the other set at the widest width available for both
+	 */
+	private boolean containsAllBits(final BloomSet<?, ?> other) {
+		if ((filter_ & other.filter_) != other.filter_) {
+			return false;
+		}
+		// else
+		if (wideFilter_ == null || other.wideFilter_ == null) {
+			return true;
+		}
+		// else
+		final int words = Math.min(wideFilter_.length,
+				other.wideFilter_.length);
+		for (int i = 0; i < words; i++) {
+			final long word = fold(wideFilter_, i, words);
+			final long otherWord = fold(other.wideFilter_, i, words);
+			if ((word & otherWord) != otherWord) {
+				stats_.countContainsAllFilteredWide();
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public boolean contains(Object object) {
-		int mask = 1 << object.hashCode() & MASK_;
-		if ((filter_ & mask) != mask) {
-			return false;
+		final int words = wideFilter_ == null ? 1 : wideFilter_.length;
+		final int mask = (words << SHIFT_) - 1;
+		final int hashCount = params_.getHashCount();
+		for (int i = 0; i < hashCount; i++) {
+			final int pos = hash(object, i) & mask;
+			final long word = words == 1 ? filter_
+					: wideFilter_[pos >>> SHIFT_];
+			if ((word & (1L << (pos & MASK_))) == 0) {
+				return false;
+			}
 		}
 		// else
 		return super.contains(object);
@@ -182,28 +309,42 @@ public class BloomSet<C, A> extends ForwardingSet<A>
 
 	@Override
 	public boolean containsAll(Collection<?> c) {
-		if (COLLECT_STATS_) {
-			STATS_CONTAINS_ALL_COUNT_++;
-		}
+		stats_.countContainsAll();
 		if (c instanceof BloomSet<?, ?>) {
 			BloomSet<?, ?> other = (BloomSet<?, ?>) c;
-			if ((filter_ & other.filter_) != other.filter_) {
-				if (COLLECT_STATS_) {
-					STATS_CONTAINS_ALL_FILTERED_++;
-				}
+			if (elements_ == other.elements_) {
+				stats_.countContainsAllPositive();
+				return true;
+			}
+			if (params_ == other.params_ && !containsAllBits(other)) {
+				stats_.countContainsAllFiltered();
 				return false;
 			}
 		}
 		if (super.containsAll(c)) {
-			if (COLLECT_STATS_) {
-				STATS_CONTAINS_ALL_POSITIVE_++;
-			}
+			stats_.countContainsAllPositive();
 			return true;
 		}
 		// else
 		return false;
 	}
 
+	@Override
+	public boolean equals(Object object) {
+		if (object instanceof BloomSet<?, ?>) {
+			BloomSet<?, ?> other = (BloomSet<?, ?>) object;
+			// the sets of elements are interned
+			return elements_ == other.elements_;
+		}
+		// else
+		return super.equals(object);
+	}
+
+	@Override
+	public int hashCode() {
+		return elements_.hashCode();
+	}
+
 	@Override
 	public String toString() {
 		Object[] elements = toArray();
@@ -229,35 +370,6 @@ public class BloomSet<C, A> extends ForwardingSet<A>
 		return priority2_ - o.priority2_;
 	}
 
-	public static void logStatistics() {
-
-		if (LOGGER_.isDebugEnabled()) {
-			if (STATS_CONTAINS_ALL_COUNT_ != 0) {
-				long negativeTests = STATS_CONTAINS_ALL_COUNT_
-						- STATS_CONTAINS_ALL_POSITIVE_;
-				if (negativeTests > 0) {
-					float negativeSuccessRatio = (float) STATS_CONTAINS_ALL_FILTERED_
-							/ negativeTests;
-					LOGGER_.debug(
-							"{} containsAll tests, {} negative, {} ({}%) filtered",
-							STATS_CONTAINS_ALL_COUNT_, negativeTests,
-							STATS_CONTAINS_ALL_FILTERED_,
-							String.format("%.2f", negativeSuccessRatio * 100));
-				} else {
-					LOGGER_.debug("{} containsAll tests, all positive",
-							STATS_CONTAINS_ALL_COUNT_);
-				}
-			}
-		}
-	}
-
-	@ResetStats
-	public static void resetStatistics() {
-		STATS_CONTAINS_ALL_COUNT_ = 0;
-		STATS_CONTAINS_ALL_FILTERED_ = 0;
-		STATS_CONTAINS_ALL_POSITIVE_ = 0;
-	}
-
 	@Override
 	protected Set<A> delegate() {
 		return elements_;
@@ -0,0 +1,337 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A list of sets indexed for subset and superset queries. Every set is
+ * summarized by a 64 bit Bloom filter in which every element sets one bit, and
+ * the sets are stored in a set-trie over the positions of the bits of their
+ * filters. A set can only be a subset of another set if the bits of its filter
+ * are among the bits of the other filter, so queries only visit the branches of
+ * the trie that agree with the filter of the queried set; the candidates found
+ * in these branches are verified using {@link Set#containsAll}. The order in
+ * which the sets are added is preserved by the list.
+ * 
+ * @param <E>
+ *            the type of sets in the list
+ */
+public class BloomTrieList<E extends Set<?>> extends AbstractList<E> {
+
+	/**
+	 * counts the queries of this list
+	 */
+	private final IndexStatistics stats_;
+
+	private final List<E> elements_ = new ArrayList<E>();
+
+	private final Node<E> root_ = new Node<E>(-1);
+
+	/**
+	 * Creates the list that does not count queries.
+	 */
+	public BloomTrieList() {
+		this(IndexStatistics.DISABLED);
+	}
+
+	/**
+	 * @param stats
+	 *            the statistics in which the queries of this list are counted
+	 */
+	public BloomTrieList(final IndexStatistics stats) {
+		this.stats_ = stats;
+	}
+
+	@Override
+	public E get(int index) {
+		return elements_.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements_.size();
+	}
+
+	@Override
+	public boolean add(E element) {
+		Node<E> node = root_;
+		long filter = filter(element);
+		while (filter != 0) {
+			int bit = Long.numberOfTrailingZeros(filter);
+			filter &= filter - 1;
+			node = node.getOrCreateChild(bit);
+		}
+		node.addEntry(element);
+		elements_.add(element);
+		return true;
+	}
+
+	@Override
+	public E remove(int index) {
+		E removed = elements_.remove(index);
+		findNode(removed).removeEntry(removed);
+		return removed;
+	}
+
+	@Override
+	public void clear() {
+		elements_.clear();
+		root_.clear();
+	}
+
+	/**
+	 * @param set
+	 * @return {@code true} if there is no set in this list which is a subset
+	 *         of the given set (including the given set itself)
+	 */
+	public boolean isMinimal(Set<?> set) {
+		final boolean result = elements_.isEmpty()
+				|| !hasSubset(root_, filter(set), set);
+		stats_.countSubsetQuery(!result);
+		return result;
+	}
+
+	/**
+	 * Removes all sets in this list that are supersets of the given set
+	 * (including the sets equal to the given set).
+	 * 
+	 * @param set
+	 * @return {@code true} if this list has changed as a result of this
+	 *         operation
+	 */
+	public boolean removeSupersets(Set<?> set) {
+		if (elements_.isEmpty()) {
+			stats_.countSupersetQuery(false);
+			return false;
+		}
+		// else
+		List<E> removed = new ArrayList<E>();
+		collectSupersets(root_, filter(set), set, removed);
+		stats_.countSupersetQuery(!removed.isEmpty());
+		if (removed.isEmpty()) {
+			return false;
+		}
+		// else
+		IdentityHashMap<E, Boolean> toRemove = new IdentityHashMap<E, Boolean>(
+				removed.size());
+		for (E element : removed) {
+			toRemove.put(element, true);
+			findNode(element).removeEntry(element);
+		}
+		Iterator<E> iter = elements_.iterator();
+		while (iter.hasNext()) {
+			if (toRemove.containsKey(iter.next())) {
+				iter.remove();
+			}
+		}
+		return true;
+	}
+
+	private boolean hasSubset(Node<?> node, long filter, Set<?> set) {
+		for (int i = 0; i < node.entryCount_; i++) {
+			if (isSubset(node.entries_[i], set)) {
+				return true;
+			}
+		}
+		for (int i = 0; i < node.childCount_; i++) {
+			Node<?> child = node.children_[i];
+			if ((filter & (1L << child.bit_)) != 0
+					&& hasSubset(child, filter, set)) {
+				return true;
+			}
+		}
+		// else
+		return false;
+	}
+
+	/**
+	 * collects the entries of the given node and its descendants which are
+	 * supersets of the given set, provided the bits of the given filter are
+	 * yet to be matched
+	 */
+	private void collectSupersets(Node<E> node, long filter, Set<?> set,
+			List<E> result) {
+		if (filter == 0) {
+			for (int i = 0; i < node.entryCount_; i++) {
+				E entry = node.getEntry(i);
+				if (isSubset(set, entry)) {
+					result.add(entry);
+				}
+			}
+		}
+		int nextBit = filter == 0 ? Integer.MAX_VALUE
+				: Long.numberOfTrailingZeros(filter);
+		for (int i = 0; i < node.childCount_; i++) {
+			Node<E> child = node.getChild(i);
+			if (child.bit_ < nextBit) {
+				collectSupersets(child, filter, set, result);
+			} else if (child.bit_ == nextBit) {
+				collectSupersets(child, filter & (filter - 1), set, result);
+			} else {
+				// children are sorted by bits
+				break;
+			}
+		}
+	}
+
+	private boolean isSubset(Object candidate, Set<?> set) {
+		final boolean result = set.containsAll((Set<?>) candidate);
+		stats_.countCandidate(!result);
+		return result;
+	}
+
+	private Node<E> findNode(E element) {
+		Node<E> node = root_;
+		long filter = filter(element);
+		while (filter != 0) {
+			int bit = Long.numberOfTrailingZeros(filter);
+			filter &= filter - 1;
+			node = node.findChild(bit);
+		}
+		return node;
+	}
+
+	/**
+	 * @param set
+	 * @return the Bloom filter of the given set in which every element sets
+	 *         one of the 64 bits determined by the upper bits of its spread
+	 *         hash code
+	 */
+	private static long filter(Set<?> set) {
+		long result = 0;
+		for (Object element : set) {
+			result |= 1L << ((element.hashCode() * 0x9E3779B9) >>> 26);
+		}
+		return result;
+	}
+
+	/**
+	 * A node of the trie; the path from the root to the node determines the
+	 * bits of the filters of the sets stored in the node.
+	 * 
+	 * @param <E>
+	 *            the type of the stored sets
+	 */
+	private static class Node<E> {
+
+		private static final Object[] NO_OBJECTS_ = new Object[0];
+
+		private static final Node<?>[] NO_NODES_ = new Node<?>[0];
+
+		/**
+		 * the position of the bit with which this node is labeled
+		 */
+		private final int bit_;
+
+		/**
+		 * the children of this node sorted by {@link #bit_}
+		 */
+		private Node<?>[] children_ = NO_NODES_;
+
+		private int childCount_ = 0;
+
+		private Object[] entries_ = NO_OBJECTS_;
+
+		private int entryCount_ = 0;
+
+		Node(int bit) {
+			this.bit_ = bit;
+		}
+
+		@SuppressWarnings("unchecked")
+		Node<E> getChild(int i) {
+			return (Node<E>) children_[i];
+		}
+
+		@SuppressWarnings("unchecked")
+		E getEntry(int i) {
+			return (E) entries_[i];
+		}
+
+		Node<E> findChild(int bit) {
+			for (int i = 0; i < childCount_; i++) {
+				if (children_[i].bit_ == bit) {
+					return getChild(i);
+				}
+			}
+			// else
+			return null;
+		}
+
+		Node<E> getOrCreateChild(int bit) {
+			int pos = 0;
+			while (pos < childCount_ && children_[pos].bit_ < bit) {
+				pos++;
+			}
+			if (pos < childCount_ && children_[pos].bit_ == bit) {
+				return getChild(pos);
+			}
+			// else insert a new child at pos
+			if (childCount_ == children_.length) {
+				children_ = Arrays.copyOf(children_,
+						Math.max(2, childCount_ * 2));
+			}
+			System.arraycopy(children_, pos, children_, pos + 1,
+					childCount_ - pos);
+			Node<E> child = new Node<E>(bit);
+			children_[pos] = child;
+			childCount_++;
+			return child;
+		}
+
+		void addEntry(E entry) {
+			if (entryCount_ == entries_.length) {
+				entries_ = Arrays.copyOf(entries_,
+						Math.max(2, entryCount_ * 2));
+			}
+			entries_[entryCount_++] = entry;
+		}
+
+		void removeEntry(E entry) {
+			for (int i = 0; i < entryCount_; i++) {
+				if (entries_[i] == entry) {
+					System.arraycopy(entries_, i + 1, entries_, i,
+							entryCount_ - i - 1);
+					entries_[--entryCount_] = null;
+					return;
+				}
+			}
+		}
+
+		void clear() {
+			children_ = NO_NODES_;
+			childCount_ = 0;
+			entries_ = NO_OBJECTS_;
+			entryCount_ = 0;
+		}
+
+	}
+
+}
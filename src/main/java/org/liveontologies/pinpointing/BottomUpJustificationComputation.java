@@ -22,15 +22,22 @@ package org.liveontologies.pinpointing;
  * #L%
  */
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 
+import org.liveontologies.proofs.InferenceGraph;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.InferenceJustifier;
 import org.liveontologies.puli.Proof;
@@ -39,6 +46,7 @@ import org.liveontologies.puli.pinpointing.InterruptMonitor;
 import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
 import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
 import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.pinpointing.PriorityComparators;
 import org.liveontologies.puli.statistics.NestedStats;
 import org.liveontologies.puli.statistics.ResetStats;
 import org.liveontologies.puli.statistics.Stat;
@@ -48,7 +56,6 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimap;
 
 public class BottomUpJustificationComputation<C, I extends Inference<? extends C>, A>
 		extends MinimalSubsetsFromProofs<C, I, A> {
@@ -56,7 +63,17 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 	private static final Logger LOGGER_ = LoggerFactory
 			.getLogger(BottomUpJustificationComputation.class);
 
-	private static final BottomUpJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>();
+	/**
+	 * the value of {@link #maxResidentSize_} for computations that do not
+	 * evict justifications
+	 */
+	private static final int UNBOUNDED_ = Integer.MAX_VALUE;
+
+	private static final BottomUpJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			false, null, UNBOUNDED_, BloomFilterParameters.DEFAULT);
+
+	private static final BottomUpJustificationComputation.Factory<?, ?, ?> BIT_SET_FACTORY_ = new Factory<>(
+			true, null, UNBOUNDED_, BloomFilterParameters.DEFAULT);
 
 	/**
 	 * conclusions for which computation of justifications has been initialized
@@ -64,10 +81,9 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 	private final Set<C> initialized_ = new HashSet<>();
 
 	/**
-	 * a map from conclusions to their justifications
+	 * a map from conclusions to their justifications indexed for subset queries
 	 */
-	private final ListMultimap<C, Justification<C, A>> justifications_ = ArrayListMultimap
-			.create();
+	private final Map<C, BloomTrieList<Justification<C, A>>> justifications_ = new HashMap<>();
 
 	/**
 	 * justifications blocked from propagation because they are not needed for
@@ -77,26 +93,308 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 			.create();
 
 	/**
-	 * a map from premises to inferences for relevant conclusions
+	 * assigns identifiers to axioms if justifications are represented by
+	 * {@link BitSetJustification}s; {@code null} if they are represented by
+	 * {@link BloomSet}s
+	 */
+	private final BitSetJustification.AxiomIndex<A> axiomIndex_;
+
+	/**
+	 * the persistent store from which justifications of conclusions are taken
+	 * instead of computing them and where the complete justifications are
+	 * saved; {@code null} if not used
+	 */
+	private final JustificationCache cache_;
+
+	/**
+	 * conclusions whose justifications were taken from {@link #cache_}; their
+	 * inferences are not processed
+	 */
+	private final Set<C> cached_ = new HashSet<>();
+
+	/**
+	 * axioms of the proof by their identifiers in {@link #cache_}
+	 */
+	private final Map<Integer, A> cachedAxioms_ = new HashMap<>();
+
+	/**
+	 * conclusions whose inferences were traversed to fill
+	 * {@link #cachedAxioms_}
+	 */
+	private final Set<C> axiomsCollected_ = new HashSet<>();
+
+	/**
+	 * if the resident size exceeds this value, the justifications of
+	 * conclusions that are not relevant for the current goal conclusion are
+	 * evicted
+	 */
+	private final int maxResidentSize_;
+
+	/**
+	 * the number of stored and blocked justifications plus the number of
+	 * axioms in them plus the size of {@link #graph_}
+	 */
+	private int residentSize_ = 0;
+
+	/**
+	 * the resident size at which the eviction is attempted; can be larger than
+	 * {@link #maxResidentSize_} if not enough justifications can be evicted
+	 */
+	private int evictionThreshold_;
+
+	/**
+	 * the initialized conclusions in the order in which they were relevant for
+	 * the goal conclusions, from the least recent; maintained only if
+	 * {@link #maxResidentSize_} is bounded
+	 */
+	private final Map<C, Boolean> lastUsed_ = new LinkedHashMap<>(16, 0.75f,
+			true);
+
+	/**
+	 * the inferences used for deriving the goal conclusions of the
+	 * enumerations, so that the justifications are propagated to all
+	 * conclusions for which they are computed; created when the justifications
+	 * of a conclusion that are not taken from {@link #cache_} are computed for
+	 * the first time; recreated for the current goal conclusion when the
+	 * justifications of the conclusions not relevant for it are evicted
+	 */
+	private InferenceGraph<C, I> graph_ = null;
+
+	/**
+	 * the goal conclusions from which {@link #graph_} is created; all
+	 * initialized conclusions are in the graph created from them
+	 */
+	private final List<C> graphGoals_ = new ArrayList<>();
+
+	/**
+	 * creates the jobs for propagation of justifications in the order of the
+	 * priorities of the last enumeration; the stored justifications are
+	 * computed in this order; {@code null} if nothing is computed yet
+	 */
+	private JobFactory<C, A, ?> jobFactory_ = null;
+
+	/**
+	 * candidates larger than this are discarded; the stored justifications
+	 * are complete only up to this size
+	 */
+	private int sizeLimit_ = Integer.MAX_VALUE;
+
+	/**
+	 * if not {@code null}, candidates heavier than {@link #weightLimit_} are
+	 * discarded; the stored justifications are complete only up to this
+	 * weight
+	 */
+	private AxiomWeights weights_ = null;
+
+	private long weightLimit_ = Long.MAX_VALUE;
+
+	/**
+	 * newly computed justifications to be propagated; the justifications that
+	 * are left when an enumeration stops early are propagated by the following
+	 * enumerations, so the stored justifications can be reused
+	 */
+	private PriorityQueue<JobFactory<C, A, ?>.Job> toDoJustifications_ = null;
+
+	/**
+	 * counts the inclusion tests of the created {@link BloomSet}s
 	 */
-	private final Multimap<C, I> inferencesByPremises_ = ArrayListMultimap
+	private final InclusionStatistics inclusionStats_ = InclusionStatistics
 			.create();
 
+	/**
+	 * counts the queries of the created {@link BloomTrieList}s
+	 */
+	private final IndexStatistics indexStats_ = IndexStatistics.create();
+
+	/**
+	 * counts the unions computed by the joins of justifications
+	 */
+	private final JoinStatistics joinStats_ = JoinStatistics.create();
+
+	/**
+	 * the parameters of the Bloom filters of the created {@link BloomSet}s
+	 */
+	private final BloomFilterParameters bloomParams_;
+
 	// Statistics
 
 	private int countInferences_ = 0, countConclusions_ = 0,
-			countJustificationCandidates_ = 0;
+			countJustificationCandidates_ = 0, countCachedConclusions_ = 0,
+			countEvictedConclusions_ = 0, countDiscardedCandidates_ = 0;
 
 	private BottomUpJustificationComputation(final Proof<? extends I> proof,
 			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
-			final InterruptMonitor monitor) {
+			final InterruptMonitor monitor, final boolean useBitSets,
+			final JustificationCache cache, final int maxResidentSize,
+			final BloomFilterParameters bloomParams) {
 		super(proof, justifier, monitor);
+		this.axiomIndex_ = useBitSets
+				? new BitSetJustification.AxiomIndex<A>()
+				: null;
+		this.cache_ = cache;
+		this.maxResidentSize_ = maxResidentSize;
+		this.evictionThreshold_ = maxResidentSize;
+		this.bloomParams_ = bloomParams;
+	}
+
+	/**
+	 * @param priorityComparator
+	 * @param sizeLimit
+	 * @param weights
+	 * @param weightLimit
+	 * @return {@code true} if the stored justifications were computed in the
+	 *         order of the given priorities and are complete for the given
+	 *         limits
+	 */
+	private boolean canReuse(
+			final PriorityComparator<? super Set<A>, ?> priorityComparator,
+			final int sizeLimit, final AxiomWeights weights,
+			final long weightLimit) {
+		return jobFactory_ != null
+				&& Utils.isSameOrder(jobFactory_.priorityComparator_,
+						priorityComparator)
+				&& sizeLimit <= sizeLimit_
+				&& (weights_ == null
+						|| weights_ == weights && weightLimit <= weightLimit_);
+	}
+
+	/**
+	 * @param goal
+	 * @return the graph containing the inferences used for deriving the given
+	 *         conclusion and the goal conclusions of the previous enumerations
+	 */
+	private InferenceGraph<C, I> getGraph(final C goal) {
+		if (graph_ == null || graph_.getId(goal) < 0) {
+			graphGoals_.add(goal);
+			dropGraph();
+			graph_ = InferenceGraph.create(getProof(), graphGoals_);
+			residentSize_ += getResidentSize(graph_);
+		}
+		return graph_;
+	}
+
+	private void dropGraph() {
+		if (graph_ != null) {
+			residentSize_ -= getResidentSize(graph_);
+			graph_ = null;
+		}
 	}
 
 	private void reset() {
 		initialized_.clear();
 		justifications_.clear();
 		blockedJustifications_.clear();
+		cached_.clear();
+		lastUsed_.clear();
+		graph_ = null;
+		graphGoals_.clear();
+		residentSize_ = 0;
+	}
+
+	private static int getResidentSize(final InferenceGraph<?, ?> graph) {
+		return graph.size() + graph.getInferenceCount()
+				+ graph.getSlotCount();
+	}
+
+	private static int getResidentSize(
+			final Collection<? extends Set<?>> justifications) {
+		int result = justifications.size();
+		for (final Set<?> just : justifications) {
+			result += just.size();
+		}
+		return result;
+	}
+
+	/**
+	 * Evicts the justifications of the least recently used conclusions that
+	 * are not relevant for the current goal conclusion until the resident size
+	 * drops below three quarters of {@link #maxResidentSize_}. If this is not
+	 * enough, {@link #graph_} is recreated for the current goal conclusion.
+	 * 
+	 * @param goal
+	 *            the current goal conclusion
+	 * @param relevant
+	 *            the conclusions that cannot be evicted
+	 */
+	private void evict(final C goal, final Set<C> relevant) {
+		final int target = maxResidentSize_ / 4 * 3;
+		final Iterator<C> iter = lastUsed_.keySet().iterator();
+		while (residentSize_ > target && iter.hasNext()) {
+			final C conclusion = iter.next();
+			if (relevant.contains(conclusion)) {
+				continue;
+			}
+			// else
+			iter.remove();
+			evict(conclusion);
+		}
+		if (residentSize_ > target && graphGoals_.size() > 1) {
+			// only the relevant conclusions are initialized, and they are in
+			// the graph for the goal conclusion
+			graphGoals_.clear();
+			dropGraph();
+			getGraph(goal);
+		}
+		if (residentSize_ > maxResidentSize_) {
+			// try again after some growth
+			evictionThreshold_ = residentSize_ + maxResidentSize_ / 4;
+		} else {
+			evictionThreshold_ = maxResidentSize_;
+		}
+	}
+
+	/**
+	 * Removes all justifications of the given conclusion and its inferences,
+	 * so that its justifications are computed again when it becomes relevant.
+	 * 
+	 * @param conclusion
+	 */
+	private void evict(final C conclusion) {
+		LOGGER_.trace("{}: evicted", conclusion);
+		countEvictedConclusions_++;
+		final List<Justification<C, A>> justs = justifications_
+				.remove(conclusion);
+		if (justs != null) {
+			residentSize_ -= getResidentSize(justs);
+		}
+		residentSize_ -= getResidentSize(
+				blockedJustifications_.removeAll(conclusion));
+		cached_.remove(conclusion);
+		initialized_.remove(conclusion);
+	}
+
+	/**
+	 * @param conclusion
+	 * @return {@code true} if new justifications of the given conclusion can
+	 *         be obtained by propagation over its inferences, i.e., the
+	 *         computation for this conclusion is initialized, its
+	 *         justifications are not taken from {@link #cache_}, and it does
+	 *         not have the empty justification
+	 */
+	private boolean isOpen(final C conclusion) {
+		if (!initialized_.contains(conclusion) || cached_.contains(conclusion)) {
+			return false;
+		}
+		// else
+		final BloomTrieList<Justification<C, A>> justs = justifications_
+				.get(conclusion);
+		return justs == null || justs.isMinimal(Collections.emptySet());
+	}
+
+	/**
+	 * @param justification
+	 * @return {@code true} if the justification is larger or heavier than
+	 *         allowed, and so are all justifications derived from it
+	 */
+	private boolean exceedsLimits(final Set<?> justification) {
+		return justification.size() > sizeLimit_ || weights_ != null
+				&& weights_.getWeight(justification) > weightLimit_;
+	}
+
+	private void block(final Justification<C, A> just) {
+		blockedJustifications_.put(just.getConclusion(), just);
+		residentSize_ += just.size() + 1;
+		LOGGER_.trace("blocked {}", just);
 	}
 
 	@Override
@@ -121,7 +419,12 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 
 	@Stat
 	public int nJustificationsOfAllConclusions() {
-		return justifications_.size();
+		int result = 0;
+		for (final List<Justification<C, A>> justs : justifications_
+				.values()) {
+			result += justs.size();
+		}
+		return result;
 	}
 
 	@Stat
@@ -132,9 +435,8 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 	@Stat
 	public int maxNJustificationsOfAConclusion() {
 		int max = 0;
-		for (final C conclusion : justifications_.keySet()) {
-			final List<Justification<C, A>> justs = justifications_
-					.get(conclusion);
+		for (final List<Justification<C, A>> justs : justifications_
+				.values()) {
 			if (justs.size() > max) {
 				max = justs.size();
 			}
@@ -142,16 +444,68 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 		return max;
 	}
 
+	@Stat
+	public int nIndexedAxioms() {
+		return axiomIndex_ == null ? 0 : axiomIndex_.size();
+	}
+
+	/**
+	 * @return the number of candidates that were not propagated because they
+	 *         exceed the size limit of the enumeration
+	 */
+	@Stat
+	public int nDiscardedJustificationCandidates() {
+		return countDiscardedCandidates_;
+	}
+
+	@Stat
+	public int nCachedConclusions() {
+		return countCachedConclusions_;
+	}
+
+	@Stat
+	public int nEvictedConclusions() {
+		return countEvictedConclusions_;
+	}
+
+	/**
+	 * @return the number of stored and blocked justifications plus the number
+	 *         of axioms in them plus the number of conclusions, inferences,
+	 *         and premise slots of the inference graph
+	 */
+	@Stat
+	public int residentSize() {
+		return residentSize_;
+	}
+
 	@ResetStats
 	public void resetStats() {
 		countInferences_ = 0;
 		countConclusions_ = 0;
 		countJustificationCandidates_ = 0;
+		countCachedConclusions_ = 0;
+		countEvictedConclusions_ = 0;
+		countDiscardedCandidates_ = 0;
+	}
+
+	@NestedStats(name = "cache")
+	public JustificationCache getCache() {
+		return cache_;
 	}
 
 	@NestedStats
-	public static Class<?> getNestedStats() {
-		return BloomSet.class;
+	public InclusionStatistics getNestedStats() {
+		return inclusionStats_;
+	}
+
+	@NestedStats(name = "index")
+	public IndexStatistics getIndexStats() {
+		return indexStats_;
+	}
+
+	@NestedStats(name = "join")
+	public JoinStatistics getJoinStats() {
+		return joinStats_;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -159,10 +513,215 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 		return (Factory<C, I, A>) FACTORY_;
 	}
 
+	/**
+	 * @return the factory for computations that represent justifications by
+	 *         {@link BitSetJustification}s over axioms indexed once per
+	 *         computation
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getBitSetFactory() {
+		return (Factory<C, I, A>) BIT_SET_FACTORY_;
+	}
+
+	/**
+	 * @param cache
+	 * @return the factory for computations that take justifications of
+	 *         conclusions from the given cache when available and save there
+	 *         the justifications of conclusions that are computed completely
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final JustificationCache cache) {
+		return getFactory(cache, BloomFilterParameters.DEFAULT);
+	}
+
+	/**
+	 * @param maxResidentSize
+	 *            the bound on the number of stored justifications plus the
+	 *            number of axioms in them plus the number of conclusions,
+	 *            inferences, and premise slots of the inference graph used
+	 *            for propagating them
+	 * @return the factory for computations that, when the bound is exceeded,
+	 *         evict the justifications of the least recently used conclusions
+	 *         that are not needed for the current goal conclusion, e.g., those
+	 *         kept from the enumerations for other goal conclusions; evicted
+	 *         justifications are computed again when needed
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final int maxResidentSize) {
+		return getFactory(maxResidentSize, BloomFilterParameters.DEFAULT);
+	}
+
+	/**
+	 * @param cache
+	 * @param maxResidentSize
+	 * @return the factory for computations that use the given cache as
+	 *         {@link #getFactory(JustificationCache)} and bound the resident
+	 *         size as {@link #getFactory(int)}
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final JustificationCache cache, final int maxResidentSize) {
+		return getFactory(cache, maxResidentSize,
+				BloomFilterParameters.DEFAULT);
+	}
+
+	/**
+	 * @param bloomParams
+	 * @return the factory for computations that use the given parameters for
+	 *         the Bloom filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(false, null, UNBOUNDED_, bloomParams);
+	}
+
+	/**
+	 * @param cache
+	 * @param bloomParams
+	 * @return the factory for computations that use the given cache as
+	 *         {@link #getFactory(JustificationCache)} and the given parameters
+	 *         for the Bloom filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final JustificationCache cache,
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkNotNull(cache);
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(false, cache, UNBOUNDED_, bloomParams);
+	}
+
+	/**
+	 * @param maxResidentSize
+	 * @param bloomParams
+	 * @return the factory for computations that bound the resident size as
+	 *         {@link #getFactory(int)} and use the given parameters for the
+	 *         Bloom filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final int maxResidentSize,
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkArgument(maxResidentSize > 0);
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(false, null, maxResidentSize, bloomParams);
+	}
+
+	/**
+	 * @param cache
+	 * @param maxResidentSize
+	 * @param bloomParams
+	 * @return the factory for computations that use the given cache as
+	 *         {@link #getFactory(JustificationCache)}, bound the resident size
+	 *         as {@link #getFactory(int)}, and use the given parameters for
+	 *         the Bloom filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final JustificationCache cache, final int maxResidentSize,
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkNotNull(cache);
+		Preconditions.checkArgument(maxResidentSize > 0);
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(false, cache, maxResidentSize, bloomParams);
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the list of justifications of the given conclusion, which is
+	 *         created if it does not exist
+	 */
+	private BloomTrieList<Justification<C, A>> getJustifications(
+			final C conclusion) {
+		BloomTrieList<Justification<C, A>> result = justifications_
+				.get(conclusion);
+		if (result == null) {
+			result = new BloomTrieList<>(indexStats_);
+			justifications_.put(conclusion, result);
+		}
+		return result;
+	}
+
 	@SafeVarargs
-	private static <C, A> Justification<C, A> createJustification(C conclusion,
+	private final Justification<C, A> createJustification(C conclusion,
 			Collection<? extends A>... collections) {
-		return new BloomSet<C, A>(conclusion, collections);
+		if (axiomIndex_ == null) {
+			return new BloomSet<C, A>(inclusionStats_, bloomParams_,
+					conclusion, collections);
+		}
+		// else
+		return new BitSetJustification<C, A>(axiomIndex_, conclusion,
+				collections);
+	}
+
+	/**
+	 * Traverses the inferences used to derive the given conclusion to find the
+	 * axioms with identifiers in {@link #cache_}.
+	 * 
+	 * @param conclusion
+	 */
+	private void collectCachedAxioms(final C conclusion) {
+		final Queue<C> toDo = new LinkedList<>();
+		if (axiomsCollected_.add(conclusion)) {
+			toDo.add(conclusion);
+		}
+		C next;
+		while ((next = toDo.poll()) != null) {
+			for (final I inf : getInferences(next)) {
+				for (final A axiom : getJustification(inf)) {
+					final int id = cache_.findAxiomId(axiom);
+					if (id >= 0) {
+						cachedAxioms_.put(id, axiom);
+					}
+				}
+				for (final C premise : inf.getPremises()) {
+					if (axiomsCollected_.add(premise)) {
+						toDo.add(premise);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the justifications of the given conclusion stored in
+	 *         {@link #cache_} or {@code null} if they are not stored or some of
+	 *         their axioms do not occur in the proof
+	 */
+	private List<Justification<C, A>> getCachedJustifications(
+			final C conclusion) {
+		if (cache_ == null) {
+			return null;
+		}
+		// else
+		final int[][] cachedJusts = cache_.get(conclusion);
+		if (cachedJusts == null) {
+			return null;
+		}
+		// else
+		final List<Justification<C, A>> result = new ArrayList<>(
+				cachedJusts.length);
+		for (final int[] ids : cachedJusts) {
+			final List<A> axioms = new ArrayList<>(ids.length);
+			for (final int id : ids) {
+				A axiom = cachedAxioms_.get(id);
+				if (axiom == null) {
+					collectCachedAxioms(conclusion);
+					axiom = cachedAxioms_.get(id);
+				}
+				if (axiom == null) {
+					LOGGER_.warn("{}: cached axiom {} not found in the proof",
+							conclusion, id);
+					return null;
+				}
+				// else
+				if (cache_.findAxiomId(axiom) != id) {
+					// another axiom with the same representation was found
+					return null;
+				}
+				axioms.add(axiom);
+			}
+			result.add(createJustification(conclusion, axioms));
+		}
+		return result;
 	}
 
 	/**
@@ -172,7 +731,8 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 	 * @author Yevgeny Kazakov
 	 */
 	private class JustificationEnumerator
-			extends AbstractMinimalSubsetEnumerator<A> {
+			extends AbstractMinimalSubsetEnumerator<A>
+			implements BoundedMinimalSubsetEnumerator<A> {
 
 		private final C conclusion_;
 
@@ -188,56 +748,100 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 		 */
 		private final Queue<C> toDo_ = new LinkedList<>();
 
-		/**
-		 * newly computed justifications to be propagated
-		 */
-		private PriorityQueue<JobFactory<C, A, ?>.Job> toDoJustifications_;
-
 		/**
 		 * the justifications will be returned here, they come in increasing
 		 * size order
 		 */
-		private final List<? extends Set<A>> result_;
+		private BloomTrieList<Justification<C, A>> result_;
 
 		private Listener<A> listener_ = null;
 
-		private JobFactory<C, A, ?> jobFactory_;
+		/**
+		 * the enumeration stops when this many justifications are reported
+		 */
+		private int countLimit_ = Integer.MAX_VALUE;
+
+		private int countReported_;
 
 		JustificationEnumerator(C conclusion) {
 			this.conclusion_ = conclusion;
-			this.result_ = justifications_.get(conclusion);
 		}
 
 		@Override
 		public void enumerate(final Listener<A> listener,
 				final PriorityComparator<? super Set<A>, ?> priorityComparator) {
+			enumerate(listener, priorityComparator, Integer.MAX_VALUE,
+					Integer.MAX_VALUE);
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator,
+				final int sizeLimit, final int countLimit) {
+			enumerate(listener, priorityComparator, sizeLimit, null,
+					Long.MAX_VALUE, countLimit);
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final AxiomWeights weights, final long weightLimit,
+				final int countLimit) {
+			Preconditions.checkNotNull(weights);
+			enumerate(listener, weights.getPriorityComparator(),
+					Integer.MAX_VALUE, weights, weightLimit, countLimit);
+		}
+
+		private void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator,
+				final int sizeLimit, final AxiomWeights weights,
+				final long weightLimit, final int countLimit) {
 			Preconditions.checkNotNull(listener);
 			this.listener_ = listener;
 			if (priorityComparator == null) {
-				enumerate(listener);
+				enumerate(listener, PriorityComparators.<A> cardinality(),
+						sizeLimit, weights, weightLimit, countLimit);
 				return;
 			}
 			// else
+			this.countLimit_ = countLimit;
+			this.countReported_ = 0;
 
-			if (jobFactory_ != null && jobFactory_.priorityComparator_
-					.equals(priorityComparator)) {
-				// Visit already computed justifications. They should be in the
-				// correct order.
-				for (final Justification<?, A> just : justifications_
-						.get(conclusion_)) {
-					listener.newMinimalSubset(just);
-				}
-			} else {
+			if (!canReuse(priorityComparator, sizeLimit, weights,
+					weightLimit)) {
 				// Reset everything.
-				this.jobFactory_ = JobFactory.create(priorityComparator);
+				jobFactory_ = JobFactory.create(priorityComparator);
+				toDoJustifications_ = new PriorityQueue<JobFactory<C, A, ?>.Job>();
 				reset();
 			}
-
-			this.toDoJustifications_ = new PriorityQueue<JobFactory<C, A, ?>.Job>();
+			// the stored justifications are complete for smaller limits
+			sizeLimit_ = sizeLimit;
+			weights_ = weights;
+			weightLimit_ = weightLimit;
+
+			// the justifications computed before, possibly for other goal
+			// conclusions, are reported together with the new ones in the
+			// order of their priorities
+			final List<Justification<C, A>> computed = justifications_
+					.remove(conclusion_);
+			if (computed != null) {
+				residentSize_ -= getResidentSize(computed);
+				for (final Justification<C, A> just : computed) {
+					toDoJustifications_.add(jobFactory_.newJob(just));
+				}
+			}
+			this.result_ = getJustifications(conclusion_);
+			// the relevant conclusions could be evicted since the last
+			// enumeration and other conclusions could block justifications
+			relevant_.clear();
+			evictionThreshold_ = maxResidentSize_;
 
 			toDo(conclusion_);
 			initialize();
-			process();
+			final boolean complete = process();
+			if (cache_ != null && complete
+					&& sizeLimit_ == Integer.MAX_VALUE && weights_ == null) {
+				saveInCache();
+			}
 
 			this.listener_ = null;
 		}
@@ -252,7 +856,31 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 			C conclusion;
 			while ((conclusion = toDo_.poll()) != null) {
 
-				final Collection<? extends I> infs = getInferences(conclusion);
+				if (cached_.contains(conclusion)) {
+					unblock(conclusion);
+					continue;
+				}
+				// else
+				if (!initialized_.contains(conclusion)) {
+					final List<Justification<C, A>> cachedJusts = getCachedJustifications(
+							conclusion);
+					if (cachedJusts != null) {
+						LOGGER_.trace("{}: justifications taken from cache",
+								conclusion);
+						initialized_.add(conclusion);
+						cached_.add(conclusion);
+						countCachedConclusions_++;
+						for (final Justification<C, A> just : cachedJusts) {
+							produce(just);
+						}
+						continue;
+					}
+				}
+				// else
+
+				final InferenceGraph<C, I> graph = getGraph(conclusion_);
+				final List<I> infs = graph
+						.getInferencesById(graph.getId(conclusion));
 				if (infs.isEmpty()) {
 					LOGGER_.warn("{}: lemma not derived!", conclusion);
 				}
@@ -261,7 +889,6 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 					LOGGER_.trace("{}: new inference", inf);
 					countInferences_++;
 					for (final C premise : inf.getPremises()) {
-						inferencesByPremises_.put(premise, inf);
 						toDo(premise);
 					}
 				}
@@ -272,113 +899,200 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 							conclusion);
 					// propagate existing justifications for premises
 					for (final I inf : infs) {
-						List<Justification<C, A>> conclusionJusts = new ArrayList<>();
-						conclusionJusts.add(
-								createJustification((C) inf.getConclusion(),
-										getJustification(inf)));
+						final List<BloomTrieList<Justification<C, A>>> premiseJusts = new ArrayList<>(
+								inf.getPremises().size());
 						for (final C premise : inf.getPremises()) {
-							conclusionJusts = Utils.join(conclusionJusts,
-									justifications_.get(premise));
+							premiseJusts.add(getJustifications(premise));
 						}
-						for (final Justification<C, A> just : conclusionJusts) {
+						for (final Justification<C, A> just : Utils.join(
+								createJustification((C) inf.getConclusion(),
+										getJustification(inf)),
+								premiseJusts, getJustifications(conclusion),
+								sizeLimit_, joinStats_)) {
 							produce(just);
 						}
 					}
 				} else {
 					// conclusion has already been initialized.
-					final List<Justification<C, A>> blocked = blockedJustifications_
-							.get(conclusion);
-					for (final Justification<C, A> just : blocked) {
-						LOGGER_.trace("unblocked {}", just);
-						// Don't produce, blocked justs were already produced.
-						toDoJustifications_.add(jobFactory_.newJob(just));
-					}
-					blocked.clear();
+					unblock(conclusion);
 				}
 
 			}
 
 		}
 
+		private void unblock(final C conclusion) {
+			final List<Justification<C, A>> blocked = blockedJustifications_
+					.get(conclusion);
+			for (final Justification<C, A> just : blocked) {
+				LOGGER_.trace("unblocked {}", just);
+				if (exceedsLimits(just)) {
+					countDiscardedCandidates_++;
+					continue;
+				}
+				// Don't produce, blocked justs were already produced.
+				toDoJustifications_.add(jobFactory_.newJob(just));
+			}
+			residentSize_ -= getResidentSize(blocked);
+			blocked.clear();
+		}
+
+		/**
+		 * Saves in {@link #cache_} the justifications of the relevant
+		 * conclusions that are computed completely, i.e., those that do not
+		 * have blocked justifications and cannot be derived from conclusions
+		 * that have blocked justifications. All justifications of the goal
+		 * conclusion are computed.
+		 */
+		private void saveInCache() {
+			if (graph_ == null) {
+				// all justifications are taken from the cache
+				return;
+			}
+			// else
+			final Set<C> incomplete = new HashSet<>();
+			final Queue<C> toDo = new LinkedList<>();
+			for (final C conclusion : relevant_) {
+				if (!blockedJustifications_.get(conclusion).isEmpty()) {
+					incomplete.add(conclusion);
+					toDo.add(conclusion);
+				}
+			}
+			C next;
+			while ((next = toDo.poll()) != null) {
+				for (final I inf : graph_.getInferencesByPremise(next)) {
+					final C conclusion = inf.getConclusion();
+					if (relevant_.contains(conclusion) && isOpen(conclusion)
+							&& incomplete.add(conclusion)) {
+						toDo.add(conclusion);
+					}
+				}
+			}
+			final Map<C, List<Justification<C, A>>> complete = new HashMap<>();
+			for (final C conclusion : relevant_) {
+				if (cached_.contains(conclusion)
+						|| (incomplete.contains(conclusion)
+								&& !conclusion_.equals(conclusion))) {
+					continue;
+				}
+				// else
+				complete.put(conclusion, getJustifications(conclusion));
+			}
+			try {
+				cache_.putAll(complete);
+			} catch (final IOException e) {
+				LOGGER_.error(e.getMessage(), e);
+			}
+		}
+
 		private void toDo(C conclusion) {
 			if (relevant_.add(conclusion)) {
 				countConclusions_++;
 				toDo_.add(conclusion);
+				if (maxResidentSize_ != UNBOUNDED_) {
+					lastUsed_.put(conclusion, true);
+				}
 			}
 		}
 
 		/**
-		 * process new justifications until the fixpoint
+		 * process new justifications until the fixpoint or until the
+		 * enumeration should stop; the remaining justifications stay in the
+		 * queue
+		 * 
+		 * @return {@code true} if the fixpoint is reached
 		 */
-		private void process() {
-			JobFactory<C, A, ?>.Job job;
-			while ((job = toDoJustifications_.poll()) != null) {
-				final Justification<C, A> just = job.justification;
-				if (isInterrupted()) {
-					return;
+		private boolean process() {
+			while (!toDoJustifications_.isEmpty()) {
+				if (countReported_ >= countLimit_ || isInterrupted()) {
+					return false;
 				}
+				// else
+				final Justification<C, A> just = toDoJustifications_
+						.poll().justification;
 
+				if (residentSize_ > evictionThreshold_) {
+					evict(conclusion_, relevant_);
+				}
 				C conclusion = just.getConclusion();
+				if (!initialized_.contains(conclusion)) {
+					// evicted after the justification was produced
+					continue;
+				}
 				if (!relevant_.contains(conclusion)) {
-					blockedJustifications_.put(conclusion, just);
-					LOGGER_.trace("blocked {}", just);
+					block(just);
 					continue;
 				}
-				List<Justification<C, A>> justs = justifications_
-						.get(conclusion);
-				if (!Utils.isMinimal(just, justs)) {
+				final BloomTrieList<Justification<C, A>> justs = getJustifications(
+						conclusion);
+				if (!justs.isMinimal(just)) {
 					continue;
 				}
-				if (!Utils.isMinimal(just, result_)) {
-					blockedJustifications_.put(conclusion, just);
-					LOGGER_.trace("blocked {}", just);
+				if (!result_.isMinimal(just)) {
+					block(just);
 					continue;
 				}
 				// else
 				justs.add(just);
+				residentSize_ += just.size() + 1;
 				LOGGER_.trace("new {}", just);
-				if (conclusion_.equals(conclusion) && listener_ != null) {
+				if (conclusion_.equals(conclusion) && listener_ != null
+						&& !exceedsLimits(just)) {
 					listener_.newMinimalSubset(just);
+					countReported_++;
 				}
 
-				if (just.isEmpty()) {
-					// all justifications are computed,
-					// the inferences are not needed anymore
-					for (final I inf : getInferences(conclusion)) {
-						for (C premise : inf.getPremises()) {
-							inferencesByPremises_.remove(premise, inf);
-						}
-					}
+				if (graph_ == null) {
+					// all justifications are taken from the cache
+					continue;
 				}
-
 				/*
 				 * propagating justification over inferences
 				 */
-				for (final I inf : inferencesByPremises_.get(conclusion)) {
-
-					Collection<Justification<C, A>> conclusionJusts = new ArrayList<>();
-					Justification<C, A> conclusionJust = just
+				for (final I inf : graph_.getInferencesByPremise(conclusion)) {
+					if (!isOpen(inf.getConclusion())) {
+						// all justifications are computed or will be computed
+						// when the conclusion is initialized
+						continue;
+					}
+					// else
+					final Justification<C, A> conclusionJust = just
 							.copyTo(inf.getConclusion())
 							.addElements(getJustification(inf));
-					conclusionJusts.add(conclusionJust);
+					if (exceedsLimits(conclusionJust)) {
+						// the joins can only be larger
+						countDiscardedCandidates_++;
+						continue;
+					}
+					final List<BloomTrieList<Justification<C, A>>> premiseJusts = new ArrayList<>(
+							inf.getPremises().size());
 					for (final C premise : inf.getPremises()) {
 						if (!premise.equals(conclusion)) {
-							conclusionJusts = Utils.join(conclusionJusts,
-									justifications_.get(premise));
+							premiseJusts.add(getJustifications(premise));
 						}
 					}
 
-					for (Justification<C, A> conclJust : conclusionJusts) {
+					for (final Justification<C, A> conclJust : Utils.join(
+							conclusionJust, premiseJusts,
+							getJustifications(inf.getConclusion()),
+							sizeLimit_, joinStats_)) {
 						produce(conclJust);
 					}
 
 				}
 
 			}
+			return true;
 
 		}
 
 		private void produce(final Justification<C, A> justification) {
+			if (exceedsLimits(justification)) {
+				// all justifications derived from it are larger
+				countDiscardedCandidates_++;
+				return;
+			}
+			// else
 			countJustificationCandidates_++;
 			toDoJustifications_.add(jobFactory_.newJob(justification));
 		}
@@ -445,13 +1159,31 @@ public class BottomUpJustificationComputation<C, I extends Inference<? extends C
 	private static class Factory<C, I extends Inference<? extends C>, A>
 			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
 
+		private final boolean useBitSets_;
+
+		private final JustificationCache cache_;
+
+		private final int maxResidentSize_;
+
+		private final BloomFilterParameters bloomParams_;
+
+		Factory(final boolean useBitSets, final JustificationCache cache,
+				final int maxResidentSize,
+				final BloomFilterParameters bloomParams) {
+			this.useBitSets_ = useBitSets;
+			this.cache_ = cache;
+			this.maxResidentSize_ = maxResidentSize;
+			this.bloomParams_ = bloomParams;
+		}
+
 		@Override
 		public MinimalSubsetEnumerator.Factory<C, A> create(
 				final Proof<? extends I> proof,
 				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
 				final InterruptMonitor monitor) {
 			return new BottomUpJustificationComputation<>(proof, justifier,
-					monitor);
+					monitor, useBitSets_, cache_, maxResidentSize_,
+					bloomParams_);
 		}
 
 	}
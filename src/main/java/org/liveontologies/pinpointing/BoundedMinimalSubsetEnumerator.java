@@ -0,0 +1,76 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Set;
+
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+
+/**
+ * A {@link MinimalSubsetEnumerator} that can restrict the enumeration to small
+ * or light minimal subsets without computing the large or heavy ones.
+ * 
+ * @param <A>
+ *            the type of elements of the minimal subsets
+ */
+public interface BoundedMinimalSubsetEnumerator<A>
+		extends MinimalSubsetEnumerator<A> {
+
+	/**
+	 * Notifies the listener about the minimal subsets that have at most the
+	 * given number of elements; stops after the given number of subsets has
+	 * been reported. The subsets are reported in the order of the given
+	 * comparator unless the enumerator does not respect priorities, in which
+	 * case the reported subsets need not be the smallest ones.
+	 * 
+	 * @param listener
+	 * @param priorityComparator
+	 * @param sizeLimit
+	 *            the maximal size of the reported subsets
+	 * @param countLimit
+	 *            the maximal number of the reported subsets
+	 */
+	void enumerate(Listener<A> listener,
+			PriorityComparator<? super Set<A>, ?> priorityComparator,
+			int sizeLimit, int countLimit);
+
+	/**
+	 * Notifies the listener about the minimal subsets whose weight is at most
+	 * the given bound; stops after the given number of subsets has been
+	 * reported. The subsets are reported in the order of increasing weights
+	 * unless the enumerator does not respect priorities, in which case the
+	 * reported subsets need not be the lightest ones.
+	 * 
+	 * @param listener
+	 * @param weights
+	 *            the weights of the elements
+	 * @param weightLimit
+	 *            the maximal weight of the reported subsets
+	 * @param countLimit
+	 *            the maximal number of the reported subsets
+	 */
+	void enumerate(Listener<A> listener, AxiomWeights weights,
+			long weightLimit, int countLimit);
+
+}
@@ -0,0 +1,711 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.pinpointing.AbstractMinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.pinpointing.PriorityComparators;
+import org.liveontologies.puli.statistics.NestedStats;
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Computes justifications of all conclusions used for deriving the query over
+ * the condensation of the proof, i.e., the acyclic graph of its strongly
+ * connected components, processing the components after the components of
+ * the premises of their inferences. The justifications of a conclusion that
+ * is not on a cycle are obtained by joining the justifications of the
+ * premises of its inferences once, without any queue. Within a component
+ * with cycles, the justifications are computed by a fixpoint: every new
+ * justification of a conclusion is joined with the current justifications of
+ * the other premises of the inferences of the component that use it. The
+ * components whose predecessors are processed are computed in parallel; only
+ * the calling thread accesses the proof and the justifier. The justifications
+ * of the query are reported at the end in the order of the priority
+ * comparator.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class ComponentJustificationComputation<C, I extends Inference<? extends C>, A>
+		extends MinimalSubsetsFromProofs<C, I, A> {
+
+	private static final ComponentJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			Runtime.getRuntime().availableProcessors(),
+			BloomFilterParameters.DEFAULT);
+
+	/**
+	 * used for processing components in parallel or {@code null} if they are
+	 * processed by the calling thread
+	 */
+	private final ExecutorService executor_;
+
+	/**
+	 * counts the inclusion tests of the created {@link BloomSet}s
+	 */
+	private final InclusionStatistics inclusionStats_ = InclusionStatistics
+			.create();
+
+	/**
+	 * counts the queries of the created {@link BloomTrieList}s
+	 */
+	private final IndexStatistics indexStats_ = IndexStatistics.create();
+
+	/**
+	 * counts the unions computed by the joins of justifications
+	 */
+	private final JoinStatistics joinStats_ = JoinStatistics.create();
+
+	/**
+	 * the parameters of the Bloom filters of the created {@link BloomSet}s
+	 */
+	private final BloomFilterParameters bloomParams_;
+
+	// Statistics
+
+	private int componentsCount_ = 0, cyclicComponentsCount_ = 0,
+			maxComponentSize_ = 0;
+
+	private final StripedCounter justificationCandidatesCount_ = new StripedCounter();
+
+	private ComponentJustificationComputation(final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final InterruptMonitor monitor, final ExecutorService executor,
+			final BloomFilterParameters bloomParams) {
+		super(proof, justifier, monitor);
+		this.executor_ = executor;
+		this.bloomParams_ = bloomParams;
+	}
+
+	/**
+	 * @return the factory for computations that use as many threads as there
+	 *         are available processors
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory() {
+		return (Factory<C, I, A>) FACTORY_;
+	}
+
+	/**
+	 * @param nThreads
+	 *            the number of threads used by the computations; if
+	 *            {@code 1}, the components are processed by the calling thread
+	 * @return the factory for computations that use the given number of
+	 *         threads; the threads are shared by all computations created by
+	 *         this factory
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final int nThreads) {
+		Preconditions.checkArgument(nThreads > 0);
+		return new Factory<>(nThreads, BloomFilterParameters.DEFAULT);
+	}
+
+	/**
+	 * @param bloomParams
+	 * @return the factory for computations that use as many threads as there
+	 *         are available processors and the given parameters for the Bloom
+	 *         filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(Runtime.getRuntime().availableProcessors(),
+				bloomParams);
+	}
+
+	@Override
+	public MinimalSubsetEnumerator<A> newEnumerator(final C query) {
+		return new JustificationEnumerator(query);
+	}
+
+	@SafeVarargs
+	private final Justification<C, A> createJustification(C conclusion,
+			Collection<? extends A>... collections) {
+		return new BloomSet<C, A>(inclusionStats_, bloomParams_, conclusion,
+				collections);
+	}
+
+	private class JustificationEnumerator
+			extends AbstractMinimalSubsetEnumerator<A> {
+
+		private final C query_;
+
+		private InferenceGraph<C, I> graph_ = null;
+
+		/**
+		 * the numbers of conclusions in the components listed so that the
+		 * premises of inferences are in the same or earlier components than
+		 * their conclusions
+		 */
+		private int[][] components_;
+
+		/**
+		 * the index in {@link #components_} of the component of each
+		 * conclusion
+		 */
+		private int[] componentIds_;
+
+		/**
+		 * whether the conclusions of the component are derived from each
+		 * other
+		 */
+		private boolean[] cyclic_;
+
+		/**
+		 * the indexes of the components using the conclusions of each
+		 * component as premises
+		 */
+		private int[][] successors_;
+
+		/**
+		 * the number of different components of premises of inferences of
+		 * each component
+		 */
+		private int[] predecessorCounts_;
+
+		/**
+		 * the justifications of the inferences of {@link #graph_} by their
+		 * numbers, obtained by the calling thread, so that the components
+		 * computed in parallel do not access the justifier
+		 */
+		private List<Set<? extends A>> inferenceJustifications_;
+
+		/**
+		 * the justifications of each conclusion
+		 */
+		private List<BloomTrieList<Justification<C, A>>> justifications_;
+
+		/**
+		 * whether the justifications of the conclusions in each component
+		 * are computed; the justifications of a component whose computation
+		 * was interrupted are computed again from scratch, since the
+		 * justifications found so far are not propagated within the
+		 * component
+		 */
+		private boolean[] computed_;
+
+		/**
+		 * whether all justifications are computed
+		 */
+		private boolean completed_ = false;
+
+		/**
+		 * set when the computation is interrupted, so that the remaining
+		 * components are skipped
+		 */
+		private volatile boolean interrupted_ = false;
+
+		JustificationEnumerator(final C query) {
+			this.query_ = query;
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator) {
+			Preconditions.checkNotNull(listener);
+			if (!completed_) {
+				if (graph_ == null) {
+					init();
+				}
+				interrupted_ = false;
+				if (executor_ == null || components_.length == 1) {
+					for (int k = 0; k < components_.length; k++) {
+						compute(k);
+					}
+				} else {
+					computeInParallel();
+				}
+				if (interrupted_) {
+					return;
+				}
+				// else
+				completed_ = true;
+			}
+			if (priorityComparator == null) {
+				report(listener, PriorityComparators.<A> cardinality());
+			} else {
+				report(listener, priorityComparator);
+			}
+		}
+
+		private void init() {
+			graph_ = InferenceGraph.create(getProof(), query_);
+			final List<List<C>> components = StronglyConnectedComponentsComputation
+					.computeComponents(graph_, query_).getComponents();
+			final int nComponents = components.size();
+			components_ = new int[nComponents][];
+			componentIds_ = new int[graph_.size()];
+			for (int k = 0; k < nComponents; k++) {
+				final List<C> component = components.get(k);
+				final int[] ids = new int[component.size()];
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = graph_.getId(component.get(i));
+					componentIds_[ids[i]] = k;
+				}
+				components_[k] = ids;
+			}
+			cyclic_ = new boolean[nComponents];
+			predecessorCounts_ = new int[nComponents];
+			final List<List<Integer>> successors = new ArrayList<>(
+					nComponents);
+			// the last component for which the component was seen as a
+			// predecessor, to count every predecessor once
+			final int[] lastSeen = new int[nComponents];
+			for (int k = 0; k < nComponents; k++) {
+				successors.add(new ArrayList<Integer>());
+				lastSeen[k] = -1;
+			}
+			for (int k = 0; k < nComponents; k++) {
+				componentsCount_++;
+				maxComponentSize_ = Math.max(maxComponentSize_,
+						components_[k].length);
+				for (final int id : components_[k]) {
+					final int infTo = graph_.getInferenceIdsTo(id);
+					for (int infId = graph_
+							.getInferenceIdsFrom(id); infId < infTo; infId++) {
+						final int slotsTo = graph_.getSlotsTo(infId);
+						for (int slot = graph_
+								.getSlotsFrom(infId); slot < slotsTo; slot++) {
+							final int predecessor = componentIds_[graph_
+									.getSlotPremiseId(slot)];
+							if (predecessor == k) {
+								cyclic_[k] = true;
+							} else if (lastSeen[predecessor] != k) {
+								lastSeen[predecessor] = k;
+								predecessorCounts_[k]++;
+								successors.get(predecessor).add(k);
+							}
+						}
+					}
+				}
+				if (cyclic_[k]) {
+					cyclicComponentsCount_++;
+				}
+			}
+			successors_ = new int[nComponents][];
+			for (int k = 0; k < nComponents; k++) {
+				final List<Integer> list = successors.get(k);
+				successors_[k] = new int[list.size()];
+				for (int i = 0; i < successors_[k].length; i++) {
+					successors_[k][i] = list.get(i);
+				}
+			}
+			computed_ = new boolean[nComponents];
+			inferenceJustifications_ = new ArrayList<>(
+					graph_.getInferenceCount());
+			for (int infId = 0; infId < graph_.getInferenceCount(); infId++) {
+				inferenceJustifications_
+						.add(getJustification(graph_.getInference(infId)));
+			}
+			justifications_ = new ArrayList<>(graph_.size());
+			for (int id = 0; id < graph_.size(); id++) {
+				justifications_.add(new BloomTrieList<Justification<C, A>>(
+						indexStats_));
+			}
+		}
+
+		/**
+		 * Computes the justifications of the conclusions in the component
+		 * with the given index, assuming that the justifications of the
+		 * conclusions in the preceding components are computed.
+		 * 
+		 * @param k
+		 */
+		private void compute(final int k) {
+			if (computed_[k]) {
+				return;
+			}
+			// else
+			if (interrupted_ || isInterrupted()) {
+				interrupted_ = true;
+				return;
+			}
+			// else
+			for (final int id : components_[k]) {
+				justifications_.get(id).clear();
+			}
+			if (!cyclic_[k]) {
+				final int id = components_[k][0];
+				final C conclusion = graph_.getConclusion(id);
+				final int infTo = graph_.getInferenceIdsTo(id);
+				for (int infId = graph_
+						.getInferenceIdsFrom(id); infId < infTo; infId++) {
+					// the premises are in the preceding components, so the
+					// unions can be added while joining
+					for (final Justification<C, A> just : join(infId,
+							createJustification(conclusion,
+									inferenceJustifications_.get(infId)),
+							-1)) {
+						add(id, just);
+					}
+				}
+				computed_[k] = true;
+				return;
+			}
+			// else compute the fixpoint within the component
+			final Queue<Justification<C, A>> toDo = new ArrayDeque<>();
+			for (final int id : components_[k]) {
+				final C conclusion = graph_.getConclusion(id);
+				final int infTo = graph_.getInferenceIdsTo(id);
+				for (int infId = graph_
+						.getInferenceIdsFrom(id); infId < infTo; infId++) {
+					if (hasPremiseIn(infId, k)) {
+						// applied when the premises get justifications
+						continue;
+					}
+					// else
+					for (final Justification<C, A> just : join(infId,
+							createJustification(conclusion,
+									inferenceJustifications_.get(infId)),
+							-1)) {
+						if (add(id, just)) {
+							toDo.add(just);
+						}
+					}
+				}
+			}
+			for (;;) {
+				final Justification<C, A> just = toDo.poll();
+				if (just == null) {
+					computed_[k] = true;
+					return;
+				}
+				// else
+				if (isInterrupted()) {
+					interrupted_ = true;
+					return;
+				}
+				// else
+				final int usesTo = graph_
+						.getUsesTo(graph_.getId(just.getConclusion()));
+				for (int use = graph_.getUsesFrom(
+						graph_.getId(just.getConclusion())); use < usesTo; use++) {
+					final int slot = graph_.getUseSlot(use);
+					final int infId = graph_.getSlotInferenceId(slot);
+					final int id = graph_.getConclusionId(infId);
+					if (componentIds_[id] != k) {
+						continue;
+					}
+					// else the joined justifications may change while
+					// adding the unions, so they are added afterwards
+					final List<Justification<C, A>> unions = new ArrayList<>();
+					for (final Justification<C, A> union : join(infId,
+							createJustification(graph_.getConclusion(id), just,
+									inferenceJustifications_.get(infId)),
+							slot)) {
+						unions.add(union);
+					}
+					for (final Justification<C, A> union : unions) {
+						if (add(id, union)) {
+							toDo.add(union);
+						}
+					}
+				}
+			}
+		}
+
+		private boolean hasPremiseIn(final int infId, final int k) {
+			final int slotsTo = graph_.getSlotsTo(infId);
+			for (int slot = graph_
+					.getSlotsFrom(infId); slot < slotsTo; slot++) {
+				if (componentIds_[graph_.getSlotPremiseId(slot)] == k) {
+					return true;
+				}
+			}
+			// else
+			return false;
+		}
+
+		/**
+		 * @param infId
+		 * @param first
+		 * @param skippedSlot
+		 *            the premise slot whose justifications are not joined
+		 * @return the unions of the first justification with the
+		 *         justifications of the premises of the inference with the
+		 *         given number that are minimal for its conclusion
+		 */
+		private Iterable<Justification<C, A>> join(final int infId,
+				final Justification<C, A> first, final int skippedSlot) {
+			final int slotsFrom = graph_.getSlotsFrom(infId);
+			final int slotsTo = graph_.getSlotsTo(infId);
+			final List<BloomTrieList<Justification<C, A>>> factors = new ArrayList<>(
+					slotsTo - slotsFrom);
+			for (int slot = slotsFrom; slot < slotsTo; slot++) {
+				if (slot != skippedSlot) {
+					factors.add(justifications_
+							.get(graph_.getSlotPremiseId(slot)));
+				}
+			}
+			return Utils.join(first, factors,
+					justifications_.get(graph_.getConclusionId(infId)),
+					Integer.MAX_VALUE, joinStats_);
+		}
+
+		/**
+		 * @param id
+		 * @param just
+		 * @return {@code true} if the given justification is added to the
+		 *         justifications of the conclusion with the given number,
+		 *         i.e., it is minimal with respect to them
+		 */
+		private boolean add(final int id, final Justification<C, A> just) {
+			justificationCandidatesCount_.increment();
+			final BloomTrieList<Justification<C, A>> justs = justifications_
+					.get(id);
+			if (!justs.isMinimal(just)) {
+				return false;
+			}
+			// else
+			justs.removeSupersets(just);
+			justs.add(just);
+			return true;
+		}
+
+		/**
+		 * Computes the components using {@link #executor_}: a component is
+		 * submitted when all its predecessors are computed; a thread that
+		 * computed a component continues with one of the successors that
+		 * became ready.
+		 */
+		private void computeInParallel() {
+			final AtomicIntegerArray pendingPredecessors = new AtomicIntegerArray(
+					predecessorCounts_);
+			final CountDownLatch done = new CountDownLatch(components_.length);
+			final AtomicReference<Throwable> failure = new AtomicReference<>();
+			for (int k = 0; k < components_.length; k++) {
+				if (predecessorCounts_[k] == 0) {
+					executor_.execute(new ComponentTask(k, pendingPredecessors,
+							done, failure));
+				}
+			}
+			try {
+				done.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			if (failure.get() != null) {
+				throw new RuntimeException(failure.get());
+			}
+		}
+
+		private <P> void report(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, P> priorityComparator) {
+			final List<Justification<C, A>> result = new ArrayList<>(
+					justifications_.get(graph_.getId(query_)));
+			Collections.sort(result, new Comparator<Justification<C, A>>() {
+
+				@Override
+				public int compare(final Justification<C, A> first,
+						final Justification<C, A> second) {
+					return priorityComparator.compare(
+							priorityComparator.getPriority(first),
+							priorityComparator.getPriority(second));
+				}
+
+			});
+			for (final Justification<C, A> just : result) {
+				listener.newMinimalSubset(just);
+			}
+		}
+
+		private class ComponentTask implements Runnable {
+
+			private final int component_;
+
+			private final AtomicIntegerArray pendingPredecessors_;
+
+			private final CountDownLatch done_;
+
+			private final AtomicReference<Throwable> failure_;
+
+			ComponentTask(final int component,
+					final AtomicIntegerArray pendingPredecessors,
+					final CountDownLatch done,
+					final AtomicReference<Throwable> failure) {
+				this.component_ = component;
+				this.pendingPredecessors_ = pendingPredecessors;
+				this.done_ = done;
+				this.failure_ = failure;
+			}
+
+			@Override
+			public void run() {
+				int k = component_;
+				try {
+					while (k >= 0) {
+						compute(k);
+						done_.countDown();
+						int next = -1;
+						for (final int successor : successors_[k]) {
+							if (pendingPredecessors_
+									.decrementAndGet(successor) == 0) {
+								if (next < 0) {
+									next = successor;
+								} else {
+									executor_.execute(new ComponentTask(
+											successor, pendingPredecessors_,
+											done_, failure_));
+								}
+							}
+						}
+						k = next;
+					}
+				} catch (final Throwable e) {
+					failure_.compareAndSet(null, e);
+					// release the waiting thread
+					while (done_.getCount() > 0) {
+						done_.countDown();
+					}
+				}
+			}
+
+		}
+
+	}
+
+	@Stat
+	public int nComponents() {
+		return componentsCount_;
+	}
+
+	/**
+	 * @return the number of components in which some conclusions are used
+	 *         for deriving themselves
+	 */
+	@Stat
+	public int nCyclicComponents() {
+		return cyclicComponentsCount_;
+	}
+
+	@Stat
+	public int maxComponentSize() {
+		return maxComponentSize_;
+	}
+
+	@Stat
+	public long nJustificationCandidates() {
+		return justificationCandidatesCount_.sum();
+	}
+
+	@ResetStats
+	public void resetStats() {
+		componentsCount_ = 0;
+		cyclicComponentsCount_ = 0;
+		maxComponentSize_ = 0;
+		justificationCandidatesCount_.reset();
+	}
+
+	@NestedStats
+	public InclusionStatistics getNestedStats() {
+		return inclusionStats_;
+	}
+
+	@NestedStats(name = "index")
+	public IndexStatistics getIndexStats() {
+		return indexStats_;
+	}
+
+	@NestedStats(name = "join")
+	public JoinStatistics getJoinStats() {
+		return joinStats_;
+	}
+
+	/**
+	 * The factory for creating a {@link ComponentJustificationComputation};
+	 * the computations share the threads of the factory, which terminate when
+	 * they are idle.
+	 * 
+	 * @param <C>
+	 *            the type of conclusion and premises used by the inferences
+	 * @param <I>
+	 *            the type of inferences used in the proof
+	 * @param <A>
+	 *            the type of axioms used by the inferences
+	 */
+	private static class Factory<C, I extends Inference<? extends C>, A>
+			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
+
+		private final ExecutorService executor_;
+
+		private final BloomFilterParameters bloomParams_;
+
+		Factory(final int nThreads, final BloomFilterParameters bloomParams) {
+			this.bloomParams_ = bloomParams;
+			if (nThreads == 1) {
+				this.executor_ = null;
+				return;
+			}
+			// else
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					nThreads, nThreads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactoryBuilder().setDaemon(true)
+							.setNameFormat("component-worker-%d").build());
+			executor.allowCoreThreadTimeOut(true);
+			this.executor_ = executor;
+		}
+
+		@Override
+		public MinimalSubsetEnumerator.Factory<C, A> create(
+				final Proof<? extends I> proof,
+				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+				final InterruptMonitor monitor) {
+			return new ComponentJustificationComputation<>(proof, justifier,
+					monitor, executor_, bloomParams_);
+		}
+
+	}
+
+}
@@ -0,0 +1,265 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.Proof;
+
+import com.google.common.math.LongMath;
+
+/**
+ * The built-in {@link ConclusionSelectionStrategy}s.
+ */
+public enum ConclusionSelectionStrategies
+		implements ConclusionSelectionStrategy {
+
+	/**
+	 * the cost is the number of inferences deriving the conclusion, i.e., the
+	 * number of jobs obtained by expanding it
+	 */
+	INFERENCES {
+		@Override
+		public <C> Costs<C> getCosts(
+				final Proof<? extends Inference<? extends C>> proof) {
+			return new Costs<C>() {
+
+				@Override
+				public long getCost(final C conclusion) {
+					return proof.getInferences(conclusion).size();
+				}
+
+			};
+		}
+	},
+
+	/**
+	 * the cost is the total number of premises of the inferences deriving the
+	 * conclusion, i.e., the number of premises added to the jobs obtained by
+	 * expanding it
+	 */
+	FAN_IN {
+		@Override
+		public <C> Costs<C> getCosts(
+				final Proof<? extends Inference<? extends C>> proof) {
+			return new Costs<C>() {
+
+				@Override
+				public long getCost(final C conclusion) {
+					long result = 0;
+					for (final Inference<? extends C> inf : proof
+							.getInferences(conclusion)) {
+						result += inf.getPremises().size();
+					}
+					return result;
+				}
+
+			};
+		}
+	},
+
+	/**
+	 * the cost is the depth of the shortest derivation of the conclusion, so
+	 * the conclusions that are closer to the axioms are expanded first; the
+	 * conclusions that cannot be derived have cost {@code 0}, since the jobs
+	 * containing them cannot be completed
+	 */
+	DEPTH {
+		@Override
+		public <C> Costs<C> getCosts(
+				final Proof<? extends Inference<? extends C>> proof) {
+			final ConclusionDepthComputation<C, Inference<? extends C>> depths = new ConclusionDepthComputation<>(
+					new Proof<Inference<? extends C>>() {
+
+						@Override
+						public Collection<? extends Inference<? extends C>> getInferences(
+								final Object conclusion) {
+							return proof.getInferences(conclusion);
+						}
+
+					});
+			return new Costs<C>() {
+
+				@Override
+				public long getCost(final C conclusion) {
+					final Integer depth = depths.getDepth(conclusion);
+					return depth == null ? 0 : depth;
+				}
+
+			};
+		}
+	},
+
+	/**
+	 * the cost is an estimate of the number of justifications of the
+	 * conclusion: the number of its derivations that do not use cycles
+	 */
+	JUSTIFICATIONS {
+		@Override
+		public <C> Costs<C> getCosts(
+				final Proof<? extends Inference<? extends C>> proof) {
+			return new JustificationCounts<>(proof);
+		}
+	};
+
+	/**
+	 * Counts the derivations of conclusions in which no conclusion is used to
+	 * derive itself. The counts are saturated at {@link Long#MAX_VALUE}. The
+	 * derivations are traversed depth-first, and a conclusion is used with
+	 * count {@code 0} in its own derivations; the counts of the conclusions
+	 * traversed on the way are stored, so they can be smaller than the exact
+	 * ones if they are on a cycle.
+	 * 
+	 * @param <C>
+	 *            the type of conclusions
+	 */
+	private static class JustificationCounts<C> implements Costs<C> {
+
+		private final Proof<? extends Inference<? extends C>> proof_;
+
+		private final Map<Object, Long> counts_ = new HashMap<>();
+
+		JustificationCounts(
+				final Proof<? extends Inference<? extends C>> proof) {
+			this.proof_ = proof;
+		}
+
+		@Override
+		public long getCost(final C conclusion) {
+			final Long result = counts_.get(conclusion);
+			if (result != null) {
+				return result;
+			}
+			// else
+			final Set<Object> onStack = new HashSet<>();
+			final Deque<Frame<C>> stack = new ArrayDeque<>();
+			onStack.add(conclusion);
+			stack.push(new Frame<C>(conclusion,
+					proof_.getInferences(conclusion).iterator()));
+			while (!stack.isEmpty()) {
+				final Frame<C> frame = stack.peek();
+				if (frame.premises_ == null) {
+					if (frame.inferences_.hasNext()) {
+						frame.premises_ = frame.inferences_.next()
+								.getPremises();
+						frame.premiseIndex_ = 0;
+						frame.product_ = 1;
+						continue;
+					}
+					// else all inferences are counted
+					stack.pop();
+					onStack.remove(frame.conclusion_);
+					counts_.put(frame.conclusion_, frame.sum_);
+					final Frame<C> parent = stack.peek();
+					if (parent != null) {
+						parent.multiply(frame.sum_);
+					}
+					continue;
+				}
+				// else
+				if (frame.premiseIndex_ == frame.premises_.size()) {
+					frame.sum_ = LongMath.saturatedAdd(frame.sum_,
+							frame.product_);
+					frame.premises_ = null;
+					continue;
+				}
+				// else
+				final C premise = frame.premises_.get(frame.premiseIndex_);
+				final Long count = counts_.get(premise);
+				if (count != null) {
+					frame.multiply(count);
+				} else if (onStack.contains(premise)) {
+					frame.multiply(0);
+				} else {
+					onStack.add(premise);
+					stack.push(new Frame<C>(premise,
+							proof_.getInferences(premise).iterator()));
+				}
+			}
+			return counts_.get(conclusion);
+		}
+
+	}
+
+	/**
+	 * The state of counting derivations of a conclusion.
+	 * 
+	 * @param <C>
+	 *            the type of conclusions
+	 */
+	private static class Frame<C> {
+
+		private final C conclusion_;
+
+		private final Iterator<? extends Inference<? extends C>> inferences_;
+
+		/**
+		 * the premises of the inference being counted or {@code null}
+		 */
+		private List<? extends C> premises_ = null;
+
+		/**
+		 * the position of the next premise in {@link #premises_}
+		 */
+		private int premiseIndex_;
+
+		/**
+		 * the product of the counts of the premises before
+		 * {@link #premiseIndex_}
+		 */
+		private long product_;
+
+		/**
+		 * the sum of the counts of the inferences counted so far
+		 */
+		private long sum_ = 0;
+
+		Frame(final C conclusion,
+				final Iterator<? extends Inference<? extends C>> inferences) {
+			this.conclusion_ = conclusion;
+			this.inferences_ = inferences;
+		}
+
+		/**
+		 * Multiplies the count of the current inference by the count of the
+		 * current premise and moves to the next premise.
+		 * 
+		 * @param count
+		 */
+		void multiply(final long count) {
+			product_ = LongMath.saturatedMultiply(product_, count);
+			premiseIndex_++;
+		}
+
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.Proof;
+
+/**
+ * Determines which premise of a job is expanded next by top-down computations
+ * of justifications: the premise with the smallest cost is expanded first.
+ * The costs should not change during the computation, so that they can be
+ * cached.
+ * 
+ * @see ConclusionSelectionStrategies
+ */
+public interface ConclusionSelectionStrategy {
+
+	/**
+	 * @param proof
+	 * @return the costs of the conclusions of the given proof
+	 */
+	<C> Costs<C> getCosts(Proof<? extends Inference<? extends C>> proof);
+
+	/**
+	 * Assigns costs to conclusions.
+	 * 
+	 * @param <C>
+	 *            the type of conclusions
+	 */
+	interface Costs<C> {
+
+		/**
+		 * @param conclusion
+		 * @return the cost of expanding the given conclusion
+		 */
+		long getCost(C conclusion);
+
+	}
+
+}
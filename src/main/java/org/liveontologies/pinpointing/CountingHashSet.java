@@ -22,16 +22,16 @@ package org.liveontologies.pinpointing;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 /**
  * A set with optimized implementation of inclusion of a collection, in case the
- * collection is of the same type.
+ * collection is of the same type. The inclusion tests are counted in the given
+ * {@link InclusionStatistics}.
  * 
  * @see Set#containsAll(Collection)
  * 
@@ -44,30 +44,42 @@ class CountingHashSet<E> extends HashSet<E> {
 
 	private static final long serialVersionUID = -2805422564617676450L;
 
-	private static final Logger LOGGER_ = LoggerFactory
-			.getLogger(CountingHashSet.class);
-
-	private static final boolean COLLECT_STATS_ = true;
-
-	private static int STATS_CONTAINS_ALL_COUNT_ = 0,
-			STATS_CONTAINS_ALL_FILTERED_ = 0;
-
 	private static final short SHIFT_ = 3;
 
 	private static final int MASK_ = (1 << SHIFT_) - 1;
 
 	private final int[] counts_ = new int[MASK_ + 1];
 
+	/**
+	 * not serialized; the deserialized sets do not count the inclusion tests
+	 */
+	private transient InclusionStatistics stats_;
+
 	public CountingHashSet() {
+		this(InclusionStatistics.DISABLED);
+	}
+
+	public CountingHashSet(InclusionStatistics stats) {
 		super();
+		this.stats_ = stats;
 	}
 
 	public CountingHashSet(int initialCapacity) {
+		this(InclusionStatistics.DISABLED, initialCapacity);
+	}
+
+	public CountingHashSet(InclusionStatistics stats, int initialCapacity) {
 		super(initialCapacity);
+		this.stats_ = stats;
 	}
 
 	public CountingHashSet(Collection<? extends E> c) {
-		this(c.size());
+		this(InclusionStatistics.DISABLED, c);
+	}
+
+	public CountingHashSet(InclusionStatistics stats,
+			Collection<? extends E> c) {
+		this(stats, c.size());
 		addAll(c);
 	}
 
@@ -97,40 +109,30 @@ class CountingHashSet<E> extends HashSet<E> {
 		}
 	}
 
+	private void readObject(ObjectInputStream in)
+			throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.stats_ = InclusionStatistics.DISABLED;
+	}
+
 	@Override
 	public boolean containsAll(Collection<?> other) {
-		if (COLLECT_STATS_) {
-			STATS_CONTAINS_ALL_COUNT_++;
-		}
+		stats_.countContainsAll();
 		if (other instanceof CountingHashSet<?>) {
 			int[] otherCounts = ((CountingHashSet<?>) other).counts_;
 			for (int i = 0; i < counts_.length; i++) {
 				if (counts_[i] < otherCounts[i]) {
-					if (COLLECT_STATS_) {
-						STATS_CONTAINS_ALL_FILTERED_++;
-					}
+					stats_.countContainsAllFiltered();
 					return false;
 				}
 			}
 		}
-		return super.containsAll(other);
-	}
-
-	public static void logStatistics() {
-		if (LOGGER_.isDebugEnabled()) {
-			float containsAllSuccessRatio = STATS_CONTAINS_ALL_COUNT_ == 0 ? 0f
-					: (float) STATS_CONTAINS_ALL_FILTERED_
-							/ STATS_CONTAINS_ALL_COUNT_;
-			LOGGER_.debug(
-					"{} out of {} ({}%) containsAll(Collection) tests filtered",
-					STATS_CONTAINS_ALL_FILTERED_, STATS_CONTAINS_ALL_COUNT_,
-					String.format("%.2f", containsAllSuccessRatio * 100));
+		if (super.containsAll(other)) {
+			stats_.countContainsAllPositive();
+			return true;
 		}
-	}
-
-	public static void resetStatistics() {
-		STATS_CONTAINS_ALL_COUNT_ = 0;
-		STATS_CONTAINS_ALL_FILTERED_ = 0;
+		// else
+		return false;
 	}
 
 }
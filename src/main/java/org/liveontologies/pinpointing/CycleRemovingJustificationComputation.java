@@ -0,0 +1,99 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Set;
+
+import org.liveontologies.proofs.adapters.Proofs;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+
+/**
+ * Provided justification computation applied to the proof without cycles
+ * that is computed for each query using
+ * {@link Proofs#eliminateCycles(Proof, Object)}. Since the inferences that
+ * are removed cannot be used in derivations that correspond to minimal
+ * justifications, the justifications are the same as for the input proof.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in proofs
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class CycleRemovingJustificationComputation<C, I extends Inference<? extends C>, A>
+		extends MinimalSubsetsFromProofs<C, I, A> {
+
+	private final MinimalSubsetsFromProofs.Factory<C, I, A> mainFactory_;
+
+	private final InterruptMonitor monitor_;
+
+	CycleRemovingJustificationComputation(
+			final MinimalSubsetsFromProofs.Factory<C, I, A> mainFactory,
+			final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final InterruptMonitor monitor) {
+		super(proof, justifier, monitor);
+		this.mainFactory_ = mainFactory;
+		this.monitor_ = monitor;
+	}
+
+	@Override
+	public MinimalSubsetEnumerator<A> newEnumerator(final C query) {
+		return mainFactory_
+				.create(Proofs.<I> eliminateCycles(getProof(), query),
+						getInferenceJustifier(), monitor_)
+				.newEnumerator(query);
+	}
+
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final MinimalSubsetsFromProofs.Factory<C, I, A> mainFactory) {
+		return new Factory<C, I, A>(mainFactory);
+	}
+
+	private static class Factory<C, I extends Inference<? extends C>, A>
+			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
+
+		private final MinimalSubsetsFromProofs.Factory<C, I, A> mainFactory_;
+
+		Factory(final MinimalSubsetsFromProofs.Factory<C, I, A> mainFactory) {
+			this.mainFactory_ = mainFactory;
+		}
+
+		@Override
+		public MinimalSubsetEnumerator.Factory<C, A> create(
+				final Proof<? extends I> proof,
+				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+				final InterruptMonitor monitor) {
+			return new CycleRemovingJustificationComputation<C, I, A>(
+					mainFactory_, proof, justifier, monitor);
+		}
+
+	}
+
+}
@@ -0,0 +1,175 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+/**
+ * Counts the set inclusion tests of {@link BloomSet}s and
+ * {@link CountingHashSet}s and the interning of the element sets of
+ * {@link BloomSet}s. Every computation uses its own statistics, which are
+ * shared by the sets it creates and can be updated by several threads. The
+ * statistics {@link #DISABLED} do not count anything.
+ * <p>
+ * The statistics of computations, also {@link IndexStatistics} and
+ * {@link JoinStatistics}, are disabled by setting the system property
+ * {@value #COLLECT_STATS_PROPERTY} to {@code false}.
+ */
+public class InclusionStatistics {
+
+	public static final String COLLECT_STATS_PROPERTY = "org.liveontologies.pinpointing.stats";
+
+	/**
+	 * if {@code false}, {@link #create()} returns {@link #DISABLED}
+	 */
+	private static final boolean COLLECT_STATS_ = !"false"
+			.equalsIgnoreCase(System.getProperty(COLLECT_STATS_PROPERTY));
+
+	public static final InclusionStatistics DISABLED = new InclusionStatistics(
+			false);
+
+	/**
+	 * {@code null} if disabled
+	 */
+	private final StripedCounter containsAllCount_, containsAllPositive_,
+			containsAllFiltered_, containsAllFilteredWide_, interned_, shared_;
+
+	private InclusionStatistics(final boolean enabled) {
+		this.containsAllCount_ = enabled ? new StripedCounter() : null;
+		this.containsAllPositive_ = enabled ? new StripedCounter() : null;
+		this.containsAllFiltered_ = enabled ? new StripedCounter() : null;
+		this.containsAllFilteredWide_ = enabled ? new StripedCounter() : null;
+		this.interned_ = enabled ? new StripedCounter() : null;
+		this.shared_ = enabled ? new StripedCounter() : null;
+	}
+
+	/**
+	 * @return new statistics for a computation
+	 */
+	public static InclusionStatistics create() {
+		return COLLECT_STATS_ ? new InclusionStatistics(true) : DISABLED;
+	}
+
+	/**
+	 * @return {@code false} if the statistics of computations are disabled by
+	 *         {@value #COLLECT_STATS_PROPERTY}
+	 */
+	static boolean isCollected() {
+		return COLLECT_STATS_;
+	}
+
+	public boolean isEnabled() {
+		return containsAllCount_ != null;
+	}
+
+	void countContainsAll() {
+		if (containsAllCount_ != null) {
+			containsAllCount_.increment();
+		}
+	}
+
+	void countContainsAllPositive() {
+		if (containsAllPositive_ != null) {
+			containsAllPositive_.increment();
+		}
+	}
+
+	void countContainsAllFiltered() {
+		if (containsAllFiltered_ != null) {
+			containsAllFiltered_.increment();
+		}
+	}
+
+	void countContainsAllFilteredWide() {
+		if (containsAllFilteredWide_ != null) {
+			containsAllFilteredWide_.increment();
+		}
+	}
+
+	void countInterned(final boolean shared) {
+		if (interned_ != null) {
+			interned_.increment();
+			if (shared) {
+				shared_.increment();
+			}
+		}
+	}
+
+	private static long sum(final StripedCounter counter) {
+		return counter == null ? 0 : counter.sum();
+	}
+
+	@Stat
+	public long containsAllCount() {
+		return sum(containsAllCount_);
+	}
+
+	@Stat
+	public long containsAllPositive() {
+		return sum(containsAllPositive_);
+	}
+
+	@Stat
+	public long containsAllFiltered() {
+		return sum(containsAllFiltered_);
+	}
+
+	/**
+	 * @return how many of {@link #containsAllFiltered()} were filtered only
+	 *         by the Bloom filters wider than 64 bits
+	 */
+	@Stat
+	public long containsAllFilteredWide() {
+		return sum(containsAllFilteredWide_);
+	}
+
+	@Stat
+	public long internedSets() {
+		return sum(interned_);
+	}
+
+	/**
+	 * @return how many of {@link #internedSets()} were replaced by an equal
+	 *         set from the pool
+	 */
+	@Stat
+	public long sharedSets() {
+		return sum(shared_);
+	}
+
+	@ResetStats
+	public void resetStats() {
+		if (!isEnabled()) {
+			return;
+		}
+		// else
+		containsAllCount_.reset();
+		containsAllPositive_.reset();
+		containsAllFiltered_.reset();
+		containsAllFilteredWide_.reset();
+		interned_.reset();
+		shared_.reset();
+	}
+
+}
@@ -0,0 +1,159 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+/**
+ * Counts the subset and superset queries of {@link BloomTrieList}s. Every
+ * computation uses its own statistics, which are shared by the lists it
+ * creates and can be updated by several threads. The statistics
+ * {@link #DISABLED} do not count anything.
+ */
+public class IndexStatistics {
+
+	public static final IndexStatistics DISABLED = new IndexStatistics(false);
+
+	/**
+	 * {@code null} if disabled
+	 */
+	private final StripedCounter subsetQueries_, subsetHits_,
+			supersetQueries_, supersetHits_, candidates_, falseCandidates_;
+
+	private IndexStatistics(final boolean enabled) {
+		this.subsetQueries_ = enabled ? new StripedCounter() : null;
+		this.subsetHits_ = enabled ? new StripedCounter() : null;
+		this.supersetQueries_ = enabled ? new StripedCounter() : null;
+		this.supersetHits_ = enabled ? new StripedCounter() : null;
+		this.candidates_ = enabled ? new StripedCounter() : null;
+		this.falseCandidates_ = enabled ? new StripedCounter() : null;
+	}
+
+	/**
+	 * @return new statistics for a computation, or {@link #DISABLED} if the
+	 *         statistics are disabled, see {@link InclusionStatistics}
+	 */
+	public static IndexStatistics create() {
+		return InclusionStatistics.isCollected() ? new IndexStatistics(true)
+				: DISABLED;
+	}
+
+	public boolean isEnabled() {
+		return subsetQueries_ != null;
+	}
+
+	void countSubsetQuery(final boolean hit) {
+		if (subsetQueries_ != null) {
+			subsetQueries_.increment();
+			if (hit) {
+				subsetHits_.increment();
+			}
+		}
+	}
+
+	void countSupersetQuery(final boolean hit) {
+		if (supersetQueries_ != null) {
+			supersetQueries_.increment();
+			if (hit) {
+				supersetHits_.increment();
+			}
+		}
+	}
+
+	void countCandidate(final boolean isFalse) {
+		if (candidates_ != null) {
+			candidates_.increment();
+			if (isFalse) {
+				falseCandidates_.increment();
+			}
+		}
+	}
+
+	private static long sum(final StripedCounter counter) {
+		return counter == null ? 0 : counter.sum();
+	}
+
+	@Stat
+	public long subsetQueries() {
+		return sum(subsetQueries_);
+	}
+
+	@Stat
+	public long subsetHits() {
+		return sum(subsetHits_);
+	}
+
+	@Stat
+	public long subsetMisses() {
+		return subsetQueries() - subsetHits();
+	}
+
+	@Stat
+	public long supersetQueries() {
+		return sum(supersetQueries_);
+	}
+
+	@Stat
+	public long supersetHits() {
+		return sum(supersetHits_);
+	}
+
+	@Stat
+	public long supersetMisses() {
+		return supersetQueries() - supersetHits();
+	}
+
+	/**
+	 * @return how many stored sets passed the filter test and were compared
+	 *         using {@link java.util.Set#containsAll}
+	 */
+	@Stat
+	public long candidatesChecked() {
+		return sum(candidates_);
+	}
+
+	/**
+	 * @return how many of {@link #candidatesChecked()} did not pass the
+	 *         comparison
+	 */
+	@Stat
+	public long falseCandidates() {
+		return sum(falseCandidates_);
+	}
+
+	@ResetStats
+	public void resetStats() {
+		if (!isEnabled()) {
+			return;
+		}
+		// else
+		subsetQueries_.reset();
+		subsetHits_.reset();
+		supersetQueries_.reset();
+		supersetHits_.reset();
+		candidates_.reset();
+		falseCandidates_.reset();
+	}
+
+}
@@ -0,0 +1,126 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+/**
+ * Counts the unions computed by {@link JustificationJoin}s. Every computation
+ * uses its own statistics, which can be updated by several threads. The
+ * statistics {@link #DISABLED} do not count anything.
+ */
+public class JoinStatistics {
+
+	public static final JoinStatistics DISABLED = new JoinStatistics(false);
+
+	/**
+	 * {@code null} if disabled
+	 */
+	private final StripedCounter joins_, unions_, prunedUnions_, results_;
+
+	private JoinStatistics(final boolean enabled) {
+		this.joins_ = enabled ? new StripedCounter() : null;
+		this.unions_ = enabled ? new StripedCounter() : null;
+		this.prunedUnions_ = enabled ? new StripedCounter() : null;
+		this.results_ = enabled ? new StripedCounter() : null;
+	}
+
+	/**
+	 * @return new statistics for a computation, or {@link #DISABLED} if the
+	 *         statistics are disabled, see {@link InclusionStatistics}
+	 */
+	public static JoinStatistics create() {
+		return InclusionStatistics.isCollected() ? new JoinStatistics(true)
+				: DISABLED;
+	}
+
+	public boolean isEnabled() {
+		return joins_ != null;
+	}
+
+	void countJoin() {
+		if (joins_ != null) {
+			joins_.increment();
+		}
+	}
+
+	void countUnion(final boolean pruned) {
+		if (unions_ != null) {
+			unions_.increment();
+			if (pruned) {
+				prunedUnions_.increment();
+			}
+		}
+	}
+
+	void countResult() {
+		if (results_ != null) {
+			results_.increment();
+		}
+	}
+
+	private static long sum(final StripedCounter counter) {
+		return counter == null ? 0 : counter.sum();
+	}
+
+	@Stat
+	public long nJoins() {
+		return sum(joins_);
+	}
+
+	/**
+	 * @return the number of partial and complete unions computed by the joins
+	 */
+	@Stat
+	public long nUnions() {
+		return sum(unions_);
+	}
+
+	/**
+	 * @return how many of {@link #nUnions()} were discarded together with
+	 *         their extensions
+	 */
+	@Stat
+	public long nPrunedUnions() {
+		return sum(prunedUnions_);
+	}
+
+	@Stat
+	public long nResults() {
+		return sum(results_);
+	}
+
+	@ResetStats
+	public void resetStats() {
+		if (!isEnabled()) {
+			return;
+		}
+		// else
+		joins_.reset();
+		unions_.reset();
+		prunedUnions_.reset();
+		results_.reset();
+	}
+
+}
@@ -0,0 +1,528 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A persistent store of complete lists of justifications of conclusions. The
+ * store is kept in a sub-directory named by the fingerprint of the ontology
+ * from which the proofs are obtained and of the description of how the proofs
+ * are obtained, so justifications computed for different ontologies or proof
+ * pipelines are not mixed. Conclusions and axioms are identified by the names
+ * of their classes followed by their string representations. If different
+ * objects with the same representation are encountered, the cache is not used
+ * for them. The directory contains two files to which the entries are
+ * appended:
+ * <ul>
+ * <li>{@value #AXIOMS_FILE_NAME}, in which every line contains an integer
+ * identifier of an axiom followed by a space and the representation of the
+ * axiom,
+ * <li>{@value #JUSTIFICATIONS_FILE_NAME}, in which every line contains the
+ * representation of a conclusion followed by its justifications separated by
+ * spaces, each given by the comma separated identifiers of its axioms, or by
+ * {@code -} if it is empty.
+ * </ul>
+ * Backslashes, spaces, and line breaks in the representations are escaped.
+ * The store is read into memory when the cache is created. The stored
+ * justifications are valid for any proofs of the ontology that are complete
+ * for justifications, e.g., for the proofs of different queries.
+ */
+public class JustificationCache {
+
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(JustificationCache.class);
+
+	public static final String AXIOMS_FILE_NAME = "axioms";
+
+	public static final String JUSTIFICATIONS_FILE_NAME = "justifications";
+
+	/**
+	 * included in the fingerprint, so that the stores written in a different
+	 * format are not read
+	 */
+	private static final String FORMAT_VERSION_ = "2";
+
+	private static final String EMPTY_JUSTIFICATION_ = "-";
+
+	private final File axiomsFile_, justificationsFile_;
+
+	/**
+	 * the representations of axioms indexed by their identifiers
+	 */
+	private final List<String> axioms_ = new ArrayList<String>();
+
+	private final Map<String, Integer> axiomIds_ = new HashMap<String, Integer>();
+
+	/**
+	 * the identifiers of axioms of the stored justifications indexed by the
+	 * representations of conclusions
+	 */
+	private final Map<String, int[][]> justifications_ = new HashMap<String, int[][]>();
+
+	/**
+	 * the conclusions and axioms passed to this cache by their representations
+	 */
+	private final Map<String, Object> encountered_ = new HashMap<String, Object>();
+
+	/**
+	 * the representations shared by different objects
+	 */
+	private final Set<String> ambiguous_ = new HashSet<String>();
+
+	// Statistics
+
+	private int countHits_ = 0, countMisses_ = 0, countStored_ = 0;
+
+	/**
+	 * Creates the cache for the given ontology in the given directory.
+	 * 
+	 * @param dir
+	 * @param ontologyFile
+	 * @param pipeline
+	 *            the description of the proofs and the justifier and of the
+	 *            adapters applied to the proofs, in the order of application
+	 * @return the cache with the fingerprint computed from the content of the
+	 *         ontology file and the pipeline
+	 * @throws IOException
+	 */
+	public static JustificationCache open(final File dir,
+			final File ontologyFile, final List<String> pipeline)
+			throws IOException {
+		return new JustificationCache(dir, fingerprint(ontologyFile, pipeline));
+	}
+
+	public JustificationCache(final File dir, final String fingerprint)
+			throws IOException {
+		Preconditions.checkNotNull(fingerprint);
+		final File storeDir = new File(dir, fingerprint);
+		if (!storeDir.isDirectory() && !storeDir.mkdirs()) {
+			throw new IOException("Cannot create directory: " + storeDir);
+		}
+		this.axiomsFile_ = new File(storeDir, AXIOMS_FILE_NAME);
+		this.justificationsFile_ = new File(storeDir,
+				JUSTIFICATIONS_FILE_NAME);
+		load();
+	}
+
+	/**
+	 * @param file
+	 * @param pipeline
+	 * @return the SHA-1 hash of the content of the file, the strings of the
+	 *         pipeline, and the version of the format of the store in
+	 *         hexadecimal
+	 * @throws IOException
+	 */
+	public static String fingerprint(final File file,
+			final List<String> pipeline) throws IOException {
+		InputStream in = null;
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA-1");
+			in = new FileInputStream(file);
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				md.update(buffer, 0, read);
+			}
+			// length-prefixed, so that the strings cannot be shifted
+			for (final String element : pipeline) {
+				final byte[] bytes = element.getBytes("UTF-8");
+				md.update(Integer.toString(bytes.length).getBytes("UTF-8"));
+				md.update((byte) ':');
+				md.update(bytes);
+			}
+			md.update(FORMAT_VERSION_.getBytes("UTF-8"));
+			final byte[] b = md.digest();
+			final StringBuilder result = new StringBuilder();
+			for (int i = 0; i < b.length; i++) {
+				result.append(Integer.toString((b[i] & 0xff) + 0x100, 16)
+						.substring(1));
+			}
+			return result.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		} finally {
+			Utils.closeQuietly(in);
+		}
+	}
+
+	private static String getKey(final Object object) {
+		return object.getClass().getName() + ' ' + object;
+	}
+
+	static String escape(final String string) {
+		final StringBuilder result = new StringBuilder(string.length());
+		for (int i = 0; i < string.length(); i++) {
+			final char c = string.charAt(i);
+			switch (c) {
+			case '\\':
+				result.append("\\\\");
+				break;
+			case ' ':
+				result.append("\\s");
+				break;
+			case '\n':
+				result.append("\\n");
+				break;
+			case '\r':
+				result.append("\\r");
+				break;
+			default:
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	static String unescape(final String string) throws IOException {
+		final StringBuilder result = new StringBuilder(string.length());
+		for (int i = 0; i < string.length(); i++) {
+			final char c = string.charAt(i);
+			if (c != '\\') {
+				result.append(c);
+				continue;
+			}
+			// else
+			if (++i >= string.length()) {
+				throw new IOException("Incomplete escape: " + string);
+			}
+			switch (string.charAt(i)) {
+			case '\\':
+				result.append('\\');
+				break;
+			case 's':
+				result.append(' ');
+				break;
+			case 'n':
+				result.append('\n');
+				break;
+			case 'r':
+				result.append('\r');
+				break;
+			default:
+				throw new IOException("Unknown escape: " + string);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Records that the given object has the given representation.
+	 * 
+	 * @param key
+	 *            the representation of the object
+	 * @param object
+	 * @return {@code false} if a different object with the same
+	 *         representation was recorded, so the representation cannot be
+	 *         used to identify the object
+	 */
+	private boolean register(final String key, final Object object) {
+		if (ambiguous_.contains(key)) {
+			return false;
+		}
+		// else
+		final Object previous = encountered_.get(key);
+		if (previous == null) {
+			encountered_.put(key, object);
+			return true;
+		}
+		// else
+		if (previous.equals(object)) {
+			return true;
+		}
+		// else
+		LOGGER_.warn("{}: different objects with the same representation",
+				key);
+		ambiguous_.add(key);
+		encountered_.remove(key);
+		return false;
+	}
+
+	private void load() throws IOException {
+		if (axiomsFile_.exists()) {
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new FileReader(axiomsFile_));
+				String line;
+				while ((line = reader.readLine()) != null) {
+					final int pos = line.indexOf(' ');
+					if (pos < 0) {
+						continue;
+					}
+					// identifiers are consecutive
+					final int id = Integer.parseInt(line.substring(0, pos));
+					if (id != axioms_.size()) {
+						throw new IOException(
+								"Corrupted axiom index: " + axiomsFile_);
+					}
+					final String axiom = unescape(line.substring(pos + 1));
+					axioms_.add(axiom);
+					axiomIds_.put(axiom, id);
+				}
+			} finally {
+				Utils.closeQuietly(reader);
+			}
+		}
+		if (justificationsFile_.exists()) {
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(
+						new FileReader(justificationsFile_));
+				String line;
+				while ((line = reader.readLine()) != null) {
+					final String[] fields = line.split(" ");
+					if (fields.length < 1 || fields[0].isEmpty()) {
+						continue;
+					}
+					final int[][] justs = new int[fields.length - 1][];
+					for (int i = 1; i < fields.length; i++) {
+						justs[i - 1] = parseJustification(fields[i]);
+					}
+					justifications_.put(unescape(fields[0]), justs);
+				}
+			} finally {
+				Utils.closeQuietly(reader);
+			}
+		}
+		LOGGER_.info("{} justification lists over {} axioms loaded",
+				justifications_.size(), axioms_.size());
+	}
+
+	private int[] parseJustification(final String field) throws IOException {
+		if (EMPTY_JUSTIFICATION_.equals(field)) {
+			return new int[0];
+		}
+		// else
+		final String[] ids = field.split(",");
+		final int[] result = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			result[i] = Integer.parseInt(ids[i]);
+			if (result[i] < 0 || result[i] >= axioms_.size()) {
+				throw new IOException("Unknown axiom identifier " + result[i]
+						+ " in " + justificationsFile_);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the identifiers of axioms of the justifications of the given
+	 *         conclusion stored in the cache or {@code null} if the cache does
+	 *         not have these justifications
+	 */
+	public synchronized int[][] get(final Object conclusion) {
+		final String key = getKey(conclusion);
+		final int[][] result = register(key, conclusion)
+				? justifications_.get(key)
+				: null;
+		if (result == null) {
+			countMisses_++;
+		} else {
+			countHits_++;
+		}
+		return result;
+	}
+
+	/**
+	 * @param conclusion
+	 * @return {@code true} if the cache has justifications of the given
+	 *         conclusion
+	 */
+	public synchronized boolean contains(final Object conclusion) {
+		final String key = getKey(conclusion);
+		return register(key, conclusion) && justifications_.containsKey(key);
+	}
+
+	/**
+	 * @param axiom
+	 * @return the identifier of the given axiom used in the stored
+	 *         justifications or {@code -1} if the axiom is not used or cannot
+	 *         be identified
+	 */
+	public synchronized int findAxiomId(final Object axiom) {
+		final String key = getKey(axiom);
+		if (!register(key, axiom)) {
+			return -1;
+		}
+		// else
+		final Integer result = axiomIds_.get(key);
+		return result == null ? -1 : result;
+	}
+
+	/**
+	 * Stores the given justification lists, each of which should contain all
+	 * justifications of its conclusion. Conclusions that are already stored
+	 * or that cannot be identified, or whose justifications contain axioms
+	 * that cannot be identified, are skipped.
+	 * 
+	 * @param justifications
+	 *            a map from conclusions to their justifications
+	 * @throws IOException
+	 */
+	public synchronized void putAll(
+			final Map<?, ? extends Collection<? extends Set<?>>> justifications)
+			throws IOException {
+		PrintWriter axiomsWriter = null;
+		PrintWriter justsWriter = null;
+		try {
+			axiomsWriter = new PrintWriter(new FileWriter(axiomsFile_, true));
+			justsWriter = new PrintWriter(
+					new FileWriter(justificationsFile_, true));
+			for (final Map.Entry<?, ? extends Collection<? extends Set<?>>> entry : justifications
+					.entrySet()) {
+				final String key = getKey(entry.getKey());
+				if (!register(key, entry.getKey())
+						|| justifications_.containsKey(key)) {
+					continue;
+				}
+				// else
+				final List<String[]> axiomKeys = getAxiomKeys(entry.getValue());
+				if (axiomKeys == null) {
+					continue;
+				}
+				// else
+				final int[][] justs = new int[axiomKeys.size()][];
+				int i = 0;
+				for (final String[] keys : axiomKeys) {
+					final int[] ids = new int[keys.length];
+					for (int j = 0; j < keys.length; j++) {
+						ids[j] = getAxiomId(keys[j], axiomsWriter);
+					}
+					justs[i++] = ids;
+				}
+				justifications_.put(key, justs);
+				countStored_++;
+				justsWriter.print(escape(key));
+				for (final int[] ids : justs) {
+					justsWriter.print(' ');
+					if (ids.length == 0) {
+						justsWriter.print(EMPTY_JUSTIFICATION_);
+						continue;
+					}
+					// else
+					for (int k = 0; k < ids.length; k++) {
+						if (k > 0) {
+							justsWriter.print(',');
+						}
+						justsWriter.print(ids[k]);
+					}
+				}
+				justsWriter.println();
+			}
+			// the axioms should be stored before the justifications using them
+			axiomsWriter.flush();
+		} finally {
+			Utils.closeQuietly(axiomsWriter);
+			Utils.closeQuietly(justsWriter);
+		}
+	}
+
+	/**
+	 * @param justifications
+	 * @return the representations of the axioms of the given justifications
+	 *         or {@code null} if some of the axioms cannot be identified
+	 */
+	private List<String[]> getAxiomKeys(
+			final Collection<? extends Set<?>> justifications) {
+		final List<String[]> result = new ArrayList<String[]>(
+				justifications.size());
+		for (final Set<?> just : justifications) {
+			final String[] keys = new String[just.size()];
+			int i = 0;
+			for (final Object axiom : just) {
+				keys[i] = getKey(axiom);
+				if (!register(keys[i], axiom)) {
+					return null;
+				}
+				i++;
+			}
+			result.add(keys);
+		}
+		return result;
+	}
+
+	private int getAxiomId(final String key, final PrintWriter axiomsWriter) {
+		Integer result = axiomIds_.get(key);
+		if (result == null) {
+			result = axioms_.size();
+			axioms_.add(key);
+			axiomIds_.put(key, result);
+			axiomsWriter.print(result);
+			axiomsWriter.print(' ');
+			axiomsWriter.println(escape(key));
+		}
+		return result;
+	}
+
+	@Stat
+	public int nStoredConclusions() {
+		return justifications_.size();
+	}
+
+	@Stat
+	public int nHits() {
+		return countHits_;
+	}
+
+	@Stat
+	public int nMisses() {
+		return countMisses_;
+	}
+
+	@Stat
+	public int nNewlyStoredConclusions() {
+		return countStored_;
+	}
+
+	@ResetStats
+	public void resetStats() {
+		countHits_ = 0;
+		countMisses_ = 0;
+		countStored_ = 0;
+	}
+
+}
@@ -0,0 +1,336 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.math.LongMath;
+
+/**
+ * Estimates the number of justifications of a conclusion without computing
+ * all of them. Justifications are sampled by removing the axioms that can be
+ * used in derivations of the conclusion in a random order, keeping the
+ * axioms without which the conclusion cannot be derived. Every justification
+ * can be sampled this way, though not with the same probability. The number
+ * of justifications is then estimated from the frequencies of the sampled
+ * ones using the bias-corrected Chao1 estimator, which tends to underestimate
+ * if some justifications are sampled rarely.
+ * <p>
+ * The number of sampled justifications is a lower bound. The upper bound is
+ * the number of antichains of the axioms that can be used in derivations of
+ * the conclusion, i.e., the largest binomial coefficient, and, if the
+ * inferences that can be used in these derivations are acyclic, the number
+ * of derivations, since every justification has a different derivation.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class JustificationCountEstimator<C, I extends Inference<? extends C>, A> {
+
+	private static final long NANOS_IN_MILLIS_ = 1000000;
+
+	private final Proof<? extends I> proof_;
+
+	private final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier_;
+
+	private final Random random_;
+
+	public JustificationCountEstimator(final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final Random random) {
+		this.proof_ = proof;
+		this.justifier_ = justifier;
+		this.random_ = random;
+	}
+
+	/**
+	 * Samples justifications of the query until either the given number of
+	 * them is sampled, or the time budget is exceeded, or the number of
+	 * different sampled justifications reaches the upper bound. The sample
+	 * during which the budget is exceeded is discarded; if no justification
+	 * is sampled within the budget, only the bounds are known and the
+	 * estimate is the lower bound.
+	 * 
+	 * @param query
+	 * @param maxSamples
+	 *            the maximal number of sampled justifications
+	 * @param budgetMillis
+	 *            the time in milliseconds after which the sampling stops
+	 * @return the estimate of the number of justifications of the query
+	 */
+	public Estimate estimate(final C query, final int maxSamples,
+			final long budgetMillis) {
+		final long stopTimeNanos = System.nanoTime()
+				+ budgetMillis * NANOS_IN_MILLIS_;
+		final InferenceGraph<C, I> graph = InferenceGraph.create(proof_,
+				query);
+		final int[] derivation = graph.derive(Predicates.<I> alwaysTrue(), -1);
+		if (derivation[0] < 0) {
+			return new Estimate(0, 0, 0, 0);
+		}
+		// else
+		final boolean[] usable = graph.getUsableInferences(0, derivation);
+		final Set<A> usableAxioms = new HashSet<>();
+		for (int infId = 0; infId < usable.length; infId++) {
+			if (usable[infId]) {
+				usableAxioms.addAll(
+						justifier_.getJustification(graph.getInference(infId)));
+			}
+		}
+		long upper = LongMath.binomial(usableAxioms.size(),
+				usableAxioms.size() / 2);
+		final long derivationCount = countDerivations(graph, usable);
+		if (derivationCount >= 0 && derivationCount < upper) {
+			upper = derivationCount;
+		}
+
+		final List<A> axioms = new ArrayList<>(usableAxioms);
+		final Map<Set<A>, Integer> frequencies = new HashMap<>();
+		int sampleCount = 0;
+		while (sampleCount < maxSamples && frequencies.size() < upper) {
+			final Set<A> sample = sample(graph, axioms, stopTimeNanos);
+			if (sample == null) {
+				break;
+			}
+			// else
+			final Integer frequency = frequencies.get(sample);
+			frequencies.put(sample, frequency == null ? 1 : frequency + 1);
+			sampleCount++;
+		}
+		if (sampleCount == 0) {
+			// the query is derivable, so it has a justification
+			return new Estimate(1, 1, upper, 0);
+		}
+		// else
+
+		int f1 = 0, f2 = 0;
+		for (final int frequency : frequencies.values()) {
+			if (frequency == 1) {
+				f1++;
+			} else if (frequency == 2) {
+				f2++;
+			}
+		}
+		final long lower = frequencies.size();
+		final double chao1 = lower + (sampleCount - 1.0) / sampleCount * f1
+				* (f1 - 1) / (2.0 * (f2 + 1));
+		final long value = Math.min(upper, Math.max(lower, Math.round(chao1)));
+		return new Estimate(lower, value, upper, sampleCount);
+	}
+
+	/**
+	 * @param graph
+	 * @param axioms
+	 *            the axioms that can be used in derivations of the goal
+	 *            conclusion of the graph; their order is changed
+	 * @param stopTimeNanos
+	 *            the value of {@link System#nanoTime()} after which the
+	 *            sampling stops
+	 * @return a justification of the goal conclusion of the graph obtained by
+	 *         removing the axioms in a random order, or {@code null} if the
+	 *         sampling was stopped
+	 */
+	private Set<A> sample(final InferenceGraph<C, I> graph,
+			final List<A> axioms, final long stopTimeNanos) {
+		Collections.shuffle(axioms, random_);
+		final Set<A> removed = new HashSet<>();
+		final Predicate<I> condition = new Predicate<I>() {
+
+			@Override
+			public boolean apply(final I inference) {
+				for (final A axiom : justifier_
+						.getJustification(inference)) {
+					if (removed.contains(axiom)) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+		};
+		final Set<A> result = new HashSet<>();
+		for (final A axiom : axioms) {
+			if (System.nanoTime() >= stopTimeNanos) {
+				return null;
+			}
+			// else
+			removed.add(axiom);
+			if (!graph.isDerivable(0, condition)) {
+				removed.remove(axiom);
+				result.add(axiom);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the derivations of the goal conclusion of the graph by the given
+	 * inferences. The counts are saturated at {@link Long#MAX_VALUE}.
+	 * 
+	 * @param graph
+	 * @param usable
+	 *            the result of
+	 *            {@link InferenceGraph#getUsableInferences(int, int[])} for
+	 *            the goal conclusion
+	 * @return the number of derivations of the goal conclusion, or
+	 *         {@code -1} if the usable inferences are cyclic
+	 */
+	private static long countDerivations(final InferenceGraph<?, ?> graph,
+			final boolean[] usable) {
+		final int size = graph.size();
+		// 0 if not visited, 1 if on the stack, 2 if counted
+		final byte[] states = new byte[size];
+		final long[] counts = new long[size];
+		// the state of counting of the conclusions on the stack
+		final int[] inferences = new int[size];
+		final int[] slots = new int[size];
+		final long[] products = new long[size];
+		final int[] stack = new int[size];
+		int stackSize = 0;
+		states[0] = 1;
+		inferences[0] = graph.getInferenceIdsFrom(0);
+		slots[0] = -1;
+		stack[stackSize++] = 0;
+		while (stackSize > 0) {
+			final int id = stack[stackSize - 1];
+			final int infId = inferences[id];
+			if (slots[id] < 0) {
+				// find the next usable inference
+				final int infTo = graph.getInferenceIdsTo(id);
+				int next = infId;
+				while (next < infTo && !usable[next]) {
+					next++;
+				}
+				inferences[id] = next;
+				if (next == infTo) {
+					// all inferences are counted
+					stackSize--;
+					states[id] = 2;
+					if (stackSize > 0) {
+						final int parent = stack[stackSize - 1];
+						products[parent] = LongMath
+								.saturatedMultiply(products[parent], counts[id]);
+						slots[parent]++;
+					}
+					continue;
+				}
+				// else
+				slots[id] = graph.getSlotsFrom(next);
+				products[id] = 1;
+				continue;
+			}
+			// else
+			if (slots[id] == graph.getSlotsTo(infId)) {
+				counts[id] = LongMath.saturatedAdd(counts[id], products[id]);
+				inferences[id]++;
+				slots[id] = -1;
+				continue;
+			}
+			// else
+			final int premiseId = graph.getSlotPremiseId(slots[id]);
+			switch (states[premiseId]) {
+			case 2:
+				products[id] = LongMath.saturatedMultiply(products[id],
+						counts[premiseId]);
+				slots[id]++;
+				break;
+			case 1:
+				return -1;
+			default:
+				states[premiseId] = 1;
+				inferences[premiseId] = graph.getInferenceIdsFrom(premiseId);
+				slots[premiseId] = -1;
+				stack[stackSize++] = premiseId;
+			}
+		}
+		return counts[0];
+	}
+
+	/**
+	 * An estimate of the number of justifications with bounds.
+	 */
+	public static class Estimate {
+
+		private final long lowerBound_, value_, upperBound_;
+
+		private final int sampleCount_;
+
+		Estimate(final long lowerBound, final long value,
+				final long upperBound, final int sampleCount) {
+			this.lowerBound_ = lowerBound;
+			this.value_ = value;
+			this.upperBound_ = upperBound;
+			this.sampleCount_ = sampleCount;
+		}
+
+		/**
+		 * @return the number of different sampled justifications, or
+		 *         {@code 1} if the conclusion is derivable but no
+		 *         justification was sampled within the time budget
+		 */
+		public long getLowerBound() {
+			return lowerBound_;
+		}
+
+		public long getValue() {
+			return value_;
+		}
+
+		/**
+		 * @return an upper bound on the number of justifications; saturated
+		 *         at {@link Long#MAX_VALUE}
+		 */
+		public long getUpperBound() {
+			return upperBound_;
+		}
+
+		public int getSampleCount() {
+			return sampleCount_;
+		}
+
+		@Override
+		public String toString() {
+			return value_ + " [" + lowerBound_ + ", " + upperBound_ + "]";
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the unions of a given justification with one justification
+ * from each of the given collections. The unions are built incrementally by a
+ * depth-first search over the collections sorted by size, so the smaller
+ * collections are branched on first. A partial union is discarded together
+ * with all its extensions if it exceeds the size limit or is a superset of a
+ * justification of the target conclusion, since then all its extensions are
+ * also not minimal. The returned unions are not minimized with respect to
+ * each other.
+ * 
+ * @param <C>
+ *            the type of conclusions
+ * @param <A>
+ *            the type of axioms
+ */
+public class JustificationJoin<C, A> implements Iterator<Justification<C, A>> {
+
+	private static final Comparator<Collection<?>> SIZE_COMPARATOR_ = new Comparator<Collection<?>>() {
+
+		@Override
+		public int compare(final Collection<?> first,
+				final Collection<?> second) {
+			return Integer.compare(first.size(), second.size());
+		}
+
+	};
+
+	/**
+	 * the collections to join sorted by size
+	 */
+	private final Collection<?>[] factors_;
+
+	/**
+	 * the iterators over {@link #factors_} on the current search path
+	 */
+	private final Iterator<?>[] iterators_;
+
+	/**
+	 * {@code partials_[i]} is the union of the given justification with the
+	 * justifications chosen from the first {@code i} factors
+	 */
+	private final Justification<?, ?>[] partials_;
+
+	private final BloomTrieList<?> target_;
+
+	private final int sizeLimit_;
+
+	private final JoinStatistics stats_;
+
+	/**
+	 * the number of factors on the current search path; {@code -1} if the
+	 * search is finished
+	 */
+	private int depth_;
+
+	private Justification<C, A> next_ = null;
+
+	JustificationJoin(final Justification<C, A> first,
+			final List<? extends Collection<? extends Justification<C, A>>> factors,
+			final BloomTrieList<?> target, final int sizeLimit,
+			final JoinStatistics stats) {
+		this.factors_ = factors.toArray(new Collection<?>[factors.size()]);
+		Arrays.sort(factors_, SIZE_COMPARATOR_);
+		this.iterators_ = new Iterator<?>[factors_.length];
+		this.partials_ = new Justification<?, ?>[factors_.length + 1];
+		this.target_ = target;
+		this.sizeLimit_ = sizeLimit;
+		this.stats_ = stats;
+		stats.countJoin();
+		if (isPruned(first)) {
+			this.depth_ = -1;
+			return;
+		}
+		// else
+		this.partials_[0] = first;
+		this.depth_ = 0;
+		if (factors_.length > 0) {
+			this.iterators_[0] = factors_[0].iterator();
+		}
+	}
+
+	private boolean isPruned(final Justification<?, ?> union) {
+		final boolean result = union.size() > sizeLimit_
+				|| !target_.isMinimal(union);
+		stats_.countUnion(result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Justification<C, A> computeNext() {
+		for (;;) {
+			if (depth_ < 0) {
+				return null;
+			}
+			// else
+			if (depth_ == factors_.length) {
+				// backtrack after returning the complete union
+				depth_--;
+				stats_.countResult();
+				return (Justification<C, A>) partials_[factors_.length];
+			}
+			// else
+			final Iterator<?> iterator = iterators_[depth_];
+			if (!iterator.hasNext()) {
+				depth_--;
+				continue;
+			}
+			// else
+			final Justification<C, A> union = ((Justification<C, A>) partials_[depth_])
+					.addElements((Justification<C, A>) iterator.next());
+			if (isPruned(union)) {
+				continue;
+			}
+			// else
+			depth_++;
+			partials_[depth_] = union;
+			if (depth_ < factors_.length) {
+				iterators_[depth_] = factors_[depth_].iterator();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next_ == null) {
+			next_ = computeNext();
+		}
+		return next_ != null;
+	}
+
+	@Override
+	public Justification<C, A> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		// else
+		final Justification<C, A> result = next_;
+		next_ = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+}
@@ -0,0 +1,139 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive {@code long} values stored in an open addressing hash
+ * table with linear probing, so that the values are not boxed. Only addition
+ * of values is supported.
+ */
+class LongHashSet {
+
+	private static final int MIN_CAPACITY_ = 16;
+
+	/**
+	 * marks the free positions of {@link #table_}; whether this value is in
+	 * the set is stored in {@link #containsFree_}
+	 */
+	private static final long FREE_ = 0;
+
+	private long[] table_ = new long[MIN_CAPACITY_];
+
+	private boolean containsFree_ = false;
+
+	/**
+	 * the number of values in {@link #table_}
+	 */
+	private int size_ = 0;
+
+	/**
+	 * @param value
+	 * @return {@code true} if the value was not in the set
+	 */
+	boolean add(final long value) {
+		if (value == FREE_) {
+			if (containsFree_) {
+				return false;
+			}
+			// else
+			containsFree_ = true;
+			return true;
+		}
+		// else
+		final int mask = table_.length - 1;
+		int pos = hash(value) & mask;
+		for (;;) {
+			final long stored = table_[pos];
+			if (stored == value) {
+				return false;
+			}
+			if (stored == FREE_) {
+				break;
+			}
+			pos = (pos + 1) & mask;
+		}
+		table_[pos] = value;
+		if (++size_ * 2 > table_.length) {
+			rehash(table_.length * 2);
+		}
+		return true;
+	}
+
+	boolean contains(final long value) {
+		if (value == FREE_) {
+			return containsFree_;
+		}
+		// else
+		final int mask = table_.length - 1;
+		int pos = hash(value) & mask;
+		for (;;) {
+			final long stored = table_[pos];
+			if (stored == value) {
+				return true;
+			}
+			if (stored == FREE_) {
+				return false;
+			}
+			pos = (pos + 1) & mask;
+		}
+	}
+
+	int size() {
+		return containsFree_ ? size_ + 1 : size_;
+	}
+
+	void clear() {
+		if (table_.length > MIN_CAPACITY_) {
+			table_ = new long[MIN_CAPACITY_];
+		} else {
+			Arrays.fill(table_, FREE_);
+		}
+		containsFree_ = false;
+		size_ = 0;
+	}
+
+	private void rehash(final int capacity) {
+		final long[] old = table_;
+		table_ = new long[capacity];
+		final int mask = capacity - 1;
+		for (final long value : old) {
+			if (value == FREE_) {
+				continue;
+			}
+			// else
+			int pos = hash(value) & mask;
+			while (table_[pos] != FREE_) {
+				pos = (pos + 1) & mask;
+			}
+			table_[pos] = value;
+		}
+	}
+
+	private static int hash(final long value) {
+		final long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+}
@@ -24,14 +24,13 @@ package org.liveontologies.pinpointing;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.Queue;
 import java.util.Set;
 
+import org.liveontologies.proofs.InferenceGraph;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.InferenceJustifier;
 import org.liveontologies.puli.Proof;
@@ -40,17 +39,14 @@ import org.liveontologies.puli.pinpointing.InterruptMonitor;
 import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
 import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
 import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.pinpointing.PriorityComparators;
 import org.liveontologies.puli.statistics.NestedStats;
 import org.liveontologies.puli.statistics.ResetStats;
 import org.liveontologies.puli.statistics.Stat;
-import org.semanticweb.elk.util.collections.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimap;
 
 /**
  * Resets the whole context, does not cache anything!
@@ -67,42 +63,57 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 	private static final Logger LOGGER_ = LoggerFactory
 			.getLogger(MinPremisesBottomUp.class);
 
-	private static final MinPremisesBottomUp.Factory<?, ?, ?> FACTORY_ = new Factory<>();
+	private static final MinPremisesBottomUp.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			BloomFilterParameters.DEFAULT);
 
 	/**
-	 * a map from conclusions to their justifications
+	 * a map from conclusions to their justifications indexed for subset queries
 	 */
-	private final ListMultimap<C, Justification<C, A>> justifications_ = ArrayListMultimap
-			.create();
+	private final Map<C, BloomTrieList<Justification<C, A>>> justifications_ = new HashMap<>();
 
 	/**
-	 * a map from premises to inferences for relevant conclusions
+	 * the enumerator that computed {@link #justifications_}; only this
+	 * enumerator can reuse them
 	 */
-	private final Multimap<C, I> inferencesByPremises_ = ArrayListMultimap
-			.create();
+	private JustificationEnumerator owner_ = null;
 
 	/**
-	 * a map from premises and inferences for which they are used to their
-	 * justifications
+	 * counts the inclusion tests of the created {@link BloomSet}s
 	 */
-	private final Multimap<Pair<I, C>, Justification<C, A>> premiseJustifications_ = ArrayListMultimap
+	private final InclusionStatistics inclusionStats_ = InclusionStatistics
 			.create();
 
+	/**
+	 * counts the queries of the created {@link BloomTrieList}s
+	 */
+	private final IndexStatistics indexStats_ = IndexStatistics.create();
+
+	/**
+	 * counts the unions computed by the joins of justifications
+	 */
+	private final JoinStatistics joinStats_ = JoinStatistics.create();
+
+	/**
+	 * the parameters of the Bloom filters of the created {@link BloomSet}s
+	 */
+	private final BloomFilterParameters bloomParams_;
+
 	// Statistics
 
 	private int countInferences_ = 0, countConclusions_ = 0,
-			countJustificationCandidates_ = 0, countBlocked_ = 0;
+			countJustificationCandidates_ = 0, countBlocked_ = 0,
+			countDiscardedCandidates_ = 0;
 
 	private MinPremisesBottomUp(final Proof<? extends I> proof,
 			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
-			final InterruptMonitor monitor) {
+			final InterruptMonitor monitor,
+			final BloomFilterParameters bloomParams) {
 		super(proof, justifier, monitor);
+		this.bloomParams_ = bloomParams;
 	}
 
 	private void reset() {
 		justifications_.clear();
-		inferencesByPremises_.clear();
-		premiseJustifications_.clear();
 	}
 
 	@Override
@@ -127,7 +138,12 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 
 	@Stat
 	public int nJustificationsOfAllConclusions() {
-		return justifications_.size();
+		int result = 0;
+		for (final List<Justification<C, A>> justs : justifications_
+				.values()) {
+			result += justs.size();
+		}
+		return result;
 	}
 
 	@Stat
@@ -135,12 +151,20 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 		return countBlocked_;
 	}
 
+	/**
+	 * @return the number of candidates that were not propagated because they
+	 *         exceed the size limit of the enumeration
+	 */
+	@Stat
+	public int nDiscardedJustificationCandidates() {
+		return countDiscardedCandidates_;
+	}
+
 	@Stat
 	public int maxNJustificationsOfAConclusion() {
 		int max = 0;
-		for (final C conclusion : justifications_.keySet()) {
-			final List<Justification<C, A>> justs = justifications_
-					.get(conclusion);
+		for (final List<Justification<C, A>> justs : justifications_
+				.values()) {
 			if (justs.size() > max) {
 				max = justs.size();
 			}
@@ -154,11 +178,22 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 		countConclusions_ = 0;
 		countJustificationCandidates_ = 0;
 		countBlocked_ = 0;
+		countDiscardedCandidates_ = 0;
 	}
 
 	@NestedStats
-	public static Class<?> getNestedStats() {
-		return BloomSet.class;
+	public InclusionStatistics getNestedStats() {
+		return inclusionStats_;
+	}
+
+	@NestedStats(name = "index")
+	public IndexStatistics getIndexStats() {
+		return indexStats_;
+	}
+
+	@NestedStats(name = "join")
+	public JoinStatistics getJoinStats() {
+		return joinStats_;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -166,10 +201,38 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 		return (Factory<C, I, A>) FACTORY_;
 	}
 
+	/**
+	 * @param bloomParams
+	 * @return the factory for computations that use the given parameters for
+	 *         the Bloom filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(bloomParams);
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the list of justifications of the given conclusion, which is
+	 *         created if it does not exist
+	 */
+	private BloomTrieList<Justification<C, A>> getJustifications(
+			final C conclusion) {
+		BloomTrieList<Justification<C, A>> result = justifications_
+				.get(conclusion);
+		if (result == null) {
+			result = new BloomTrieList<>(indexStats_);
+			justifications_.put(conclusion, result);
+		}
+		return result;
+	}
+
 	@SafeVarargs
-	private static <C, A> Justification<C, A> createJustification(C conclusion,
+	private final Justification<C, A> createJustification(C conclusion,
 			Collection<? extends A>... collections) {
-		return new BloomSet<C, A>(conclusion, collections);
+		return new BloomSet<C, A>(inclusionStats_, bloomParams_, conclusion,
+				collections);
 	}
 
 	/**
@@ -179,24 +242,28 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 	 * @author Yevgeny Kazakov
 	 */
 	private class JustificationEnumerator
-			extends AbstractMinimalSubsetEnumerator<A> {
+			extends AbstractMinimalSubsetEnumerator<A>
+			implements BoundedMinimalSubsetEnumerator<A> {
 
 		private final C conclusion_;
 
 		/**
-		 * the conclusions that are relevant for the computation of the
-		 * justifications, i.e., those from which the conclusion for which the
-		 * justifications are computed can be derived
+		 * the inferences used for deriving {@link #conclusion_}; its
+		 * conclusions are those that are relevant for the computation of the
+		 * justifications
 		 */
-		private final Set<C> relevant_ = new HashSet<C>();
+		private InferenceGraph<C, I> graph_;
 
 		/**
-		 * temporary queue to compute {@link #relevant_}
+		 * the justifications of premises of inferences indexed by the premise
+		 * slots of {@link #graph_}; the lists are created when needed
 		 */
-		private final Queue<C> toInitialize_ = new LinkedList<C>();
+		private BloomTrieList<Justification<C, A>>[] premiseJustifications_;
 
 		/**
-		 * newly computed justifications to be propagated
+		 * newly computed justifications to be propagated; the justifications
+		 * that are left when an enumeration stops early are propagated by the
+		 * following enumerations
 		 */
 		private PriorityQueue<JobFactory<C, A, ?>.Job> toDoJustifications_ = null;
 
@@ -208,113 +275,197 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 		 * the justifications will be returned here, they come in increasing
 		 * size order
 		 */
-		private final List<? extends Set<A>> result_;
+		private BloomTrieList<Justification<C, A>> result_;
+
+		/**
+		 * candidates larger than this are discarded; the computed
+		 * justifications are complete only up to this size
+		 */
+		private int sizeLimit_ = Integer.MAX_VALUE;
+
+		/**
+		 * if not {@code null}, candidates heavier than
+		 * {@link #weightLimit_} are discarded; the computed justifications
+		 * are complete only up to this weight
+		 */
+		private AxiomWeights weights_ = null;
+
+		private long weightLimit_ = Long.MAX_VALUE;
+
+		/**
+		 * the enumeration stops when this many justifications are reported
+		 */
+		private int countLimit_ = Integer.MAX_VALUE;
+
+		private int countReported_;
 
 		JustificationEnumerator(C conclusion) {
 			this.conclusion_ = conclusion;
-			this.result_ = justifications_.get(conclusion);
 		}
 
 		@Override
 		public void enumerate(final Listener<A> listener,
 				final PriorityComparator<? super Set<A>, ?> priorityComparator) {
+			enumerate(listener, priorityComparator, Integer.MAX_VALUE,
+					Integer.MAX_VALUE);
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator,
+				final int sizeLimit, final int countLimit) {
+			enumerate(listener, priorityComparator, sizeLimit, null,
+					Long.MAX_VALUE, countLimit);
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final AxiomWeights weights, final long weightLimit,
+				final int countLimit) {
+			Preconditions.checkNotNull(weights);
+			enumerate(listener, weights.getPriorityComparator(),
+					Integer.MAX_VALUE, weights, weightLimit, countLimit);
+		}
+
+		private void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator,
+				final int sizeLimit, final AxiomWeights weights,
+				final long weightLimit, final int countLimit) {
 			Preconditions.checkNotNull(listener);
 			this.listener_ = listener;
 			if (priorityComparator == null) {
-				enumerate(listener);
+				enumerate(listener, PriorityComparators.<A> cardinality(),
+						sizeLimit, weights, weightLimit, countLimit);
 				return;
 			}
 			// else
-
-			if (jobFactory_ != null && jobFactory_.priorityComparator_
-					.equals(priorityComparator)) {
+			this.countLimit_ = countLimit;
+			this.countReported_ = 0;
+
+			final boolean reuse = owner_ == this && jobFactory_ != null
+					&& Utils.isSameOrder(jobFactory_.priorityComparator_,
+							priorityComparator)
+					&& sizeLimit <= sizeLimit_
+					&& (weights_ == null || weights_ == weights
+							&& weightLimit <= weightLimit_);
+			if (reuse) {
 				// Visit already computed justifications. They should be in the
 				// correct order.
-				for (final Justification<C, A> just : justifications_
-						.get(conclusion_)) {
-					listener.newMinimalSubset(just);
+				for (final Justification<C, A> just : getJustifications(
+						conclusion_)) {
+					if (countReported_ >= countLimit) {
+						return;
+					}
+					if (just.size() <= sizeLimit && (weights == null
+							|| weights.getWeight(just) <= weightLimit)) {
+						listener.newMinimalSubset(just);
+						countReported_++;
+					}
 				}
 			} else {
 				// Reset everything.
 				this.jobFactory_ = JobFactory.create(priorityComparator);
+				this.toDoJustifications_ = new PriorityQueue<JobFactory<C, A, ?>.Job>();
 				reset();
+				owner_ = this;
+				this.premiseJustifications_ = null;
+			}
+			this.sizeLimit_ = sizeLimit;
+			this.weights_ = weights;
+			this.weightLimit_ = weightLimit;
+			// the list could be discarded by a reset
+			this.result_ = getJustifications(conclusion_);
+
+			if (graph_ == null) {
+				this.graph_ = InferenceGraph.create(getProof(), conclusion_);
+			}
+			if (premiseJustifications_ == null) {
+				this.premiseJustifications_ = newPremiseJustifications(
+						graph_.getSlotCount());
+			}
+			if (!reuse) {
+				initialize();
 			}
-
-			this.toDoJustifications_ = new PriorityQueue<JobFactory<C, A, ?>.Job>();
-
-			toInitialize(conclusion_);
-			initialize();
 			process();
 
 			this.listener_ = null;
 		}
 
+		@SuppressWarnings("unchecked")
+		private BloomTrieList<Justification<C, A>>[] newPremiseJustifications(
+				final int slotCount) {
+			return (BloomTrieList<Justification<C, A>>[]) new BloomTrieList<?>[slotCount];
+		}
+
 		/**
-		 * traverse inferences to find relevant conclusions and create the queue
-		 * of justifications to be propagated reusing previously computed
-		 * justifications
+		 * @param slot
+		 * @return the list of justifications of the premise of the given
+		 *         premise slot, which is created if it does not exist
+		 */
+		private BloomTrieList<Justification<C, A>> getPremiseJustifications(
+				final int slot) {
+			BloomTrieList<Justification<C, A>> result = premiseJustifications_[slot];
+			if (result == null) {
+				result = new BloomTrieList<>(indexStats_);
+				premiseJustifications_[slot] = result;
+			}
+			return result;
+		}
+
+		/**
+		 * create the queue of justifications to be propagated from the
+		 * inferences of relevant conclusions without premises
 		 */
 		private void initialize() {
 
-			C conclusion;
-			while ((conclusion = toInitialize_.poll()) != null) {
+			for (int id = 0; id < graph_.size(); id++) {
 				countConclusions_++;
 				LOGGER_.trace("{}: computation of justifiations initialized",
-						conclusion);
-				boolean derived = false;
-				for (final I inf : getInferences(conclusion)) {
+						graph_.getConclusion(id));
+				final List<I> infs = graph_.getInferencesById(id);
+				if (infs.isEmpty()) {
+					LOGGER_.warn("{}: lemma not derived!",
+							graph_.getConclusion(id));
+				}
+				for (final I inf : infs) {
 					LOGGER_.trace("{}: new inference", inf);
-					derived = true;
 					countInferences_++;
-					for (C premise : inf.getPremises()) {
-						inferencesByPremises_.put(premise, inf);
-						toInitialize(premise);
-					}
 					if (inf.getPremises().isEmpty()) {
-						toDoJustifications_.add(jobFactory_.newJob(
-								createJustification((C) inf.getConclusion(),
-										getJustification(inf))));
-						countJustificationCandidates_++;
+						produce(createJustification((C) inf.getConclusion(),
+								getJustification(inf)));
 					}
 				}
-				if (!derived) {
-					LOGGER_.warn("{}: lemma not derived!", conclusion);
-				}
 			}
 
 		}
 
-		private void toInitialize(C conclusion) {
-			if (!relevant_.contains(conclusion)) {
-				countConclusions_++;
-				relevant_.add(conclusion);
-				toInitialize_.add(conclusion);
-			}
-		}
-
 		/**
-		 * process new justifications until the fixpoint
+		 * process new justifications until the fixpoint or until the
+		 * enumeration should stop; the remaining justifications stay in the
+		 * queue
 		 */
 		private void process() {
-			JobFactory<C, A, ?>.Job job;
-			while ((job = toDoJustifications_.poll()) != null) {
-				Justification<C, A> just = job.justification;
-				if (isInterrupted()) {
+			while (!toDoJustifications_.isEmpty()) {
+				if (countReported_ >= countLimit_ || isInterrupted()) {
 					return;
 				}
+				// else
+				final Justification<C, A> just = toDoJustifications_
+						.poll().justification;
 
 				C conclusion = just.getConclusion();
-				if (!relevant_.contains(conclusion)) {
+				final int id = graph_.getId(conclusion);
+				if (id < 0) {
 					countBlocked_++;
 					LOGGER_.trace("blocked {}", just);
 					continue;
 				}
-				List<Justification<C, A>> justs = justifications_
-						.get(conclusion);
-				if (!Utils.isMinimal(just, justs)) {
+				final BloomTrieList<Justification<C, A>> justs = getJustifications(
+						conclusion);
+				if (!justs.isMinimal(just)) {
 					continue;
 				}
-				if (!Utils.isMinimal(just, result_)) {
+				if (!result_.isMinimal(just)) {
 					countBlocked_++;
 					LOGGER_.trace("blocked {}", just);
 					continue;
@@ -322,22 +473,26 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 				// else
 				justs.add(just);
 				LOGGER_.trace("new {}", just);
-				if (conclusion_.equals(conclusion) && listener_ != null) {
+				if (conclusion_.equals(conclusion) && listener_ != null
+						&& !exceedsLimits(just)) {
 					listener_.newMinimalSubset(just);
+					countReported_++;
 				}
 
 				if (just.isEmpty()) {
 
-					// all justifications are computed,
-					// the inferences are not needed anymore
-					for (final I inf : getInferences(conclusion)) {
-						for (C premise : inf.getPremises()) {
-							inferencesByPremises_.remove(premise, inf);
-							final Pair<I, C> key = Pair.create(inf, premise);
-							premiseJustifications_.removeAll(key);
-							premiseJustifications_.put(key,
-									just.copyTo(premise));
-						}
+					// all justifications are computed, the inferences are not
+					// needed anymore: no justification is minimal for them
+					// the slots of consecutive inferences are consecutive
+					final int slotsTo = graph_
+							.getSlotsFrom(graph_.getInferenceIdsTo(id));
+					for (int slot = graph_.getSlotsFrom(graph_
+							.getInferenceIdsFrom(id)); slot < slotsTo; slot++) {
+						final BloomTrieList<Justification<C, A>> premiseJusts = getPremiseJustifications(
+								slot);
+						premiseJusts.clear();
+						premiseJusts.add(just.copyTo(graph_
+								.getConclusion(graph_.getSlotPremiseId(slot))));
 					}
 
 				} else {
@@ -350,18 +505,22 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 					 * removed, there is no need to minimize their premise
 					 * justifications
 					 */
-					for (final I inf : getInferences(conclusion)) {
+					final int infsTo = graph_.getInferenceIdsTo(id);
+					for (int infId = graph_
+							.getInferenceIdsFrom(id); infId < infsTo; infId++) {
+						final int slotsFrom = graph_.getSlotsFrom(infId);
+						final int slotsTo = graph_.getSlotsTo(infId);
+						if (slotsFrom == slotsTo) {
+							continue;
+						}
+						// else
 						final Justification<C, A> justLessInf = just
-								.removeElements(getJustification(inf));
-						for (final C premise : inf.getPremises()) {
-							final Iterator<Justification<C, A>> premiseJustIt = premiseJustifications_
-									.get(Pair.create(inf, premise)).iterator();
-							while (premiseJustIt.hasNext()) {
-								final Justification<C, A> premiseJust = premiseJustIt
-										.next();
-								if (premiseJust.containsAll(justLessInf)) {
-									premiseJustIt.remove();
-								}
+								.removeElements(getJustification(
+										graph_.getInference(infId)));
+						for (int slot = slotsFrom; slot < slotsTo; slot++) {
+							final BloomTrieList<Justification<C, A>> premiseJusts = premiseJustifications_[slot];
+							if (premiseJusts != null) {
+								premiseJusts.removeSupersets(justLessInf);
 							}
 						}
 					}
@@ -373,23 +532,30 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 				 * where this conclusion is the premise iff it is minimal w.r.t.
 				 * justifications of the inference conclusion
 				 */
-				final Collection<I> inferences = inferencesByPremises_
-						.get(conclusion);
-				if (inferences == null || inferences.isEmpty()) {
+				final int usesFrom = graph_.getUsesFrom(id);
+				final int usesTo = graph_.getUsesTo(id);
+				if (usesFrom == usesTo) {
 					continue;
 				}
-				final List<I> infsToPropagate = new ArrayList<>(
-						inferences.size());
-				for (final I inf : inferences) {
-					final Collection<Justification<C, A>> premiseJusts = premiseJustifications_
-							.get(Pair.create(inf, conclusion));
+				// the premise slots of the inferences to propagate over
+				final int[] slotsToPropagate = new int[usesTo - usesFrom];
+				int slotsToPropagateCount = 0;
+				for (int use = usesFrom; use < usesTo; use++) {
+					final int slot = graph_.getUseSlot(use);
+					final I inf = graph_
+							.getInference(graph_.getSlotInferenceId(slot));
 
 					final Justification<C, A> justWithInf = just
 							.addElements(getJustification(inf));
-					if (Utils.isMinimal(justWithInf,
-							justifications_.get(inf.getConclusion()))) {
-						premiseJusts.add(just);
-						infsToPropagate.add(inf);
+					if (exceedsLimits(justWithInf)) {
+						// the joins can only be larger
+						countDiscardedCandidates_++;
+						continue;
+					}
+					if (getJustifications(inf.getConclusion())
+							.isMinimal(justWithInf)) {
+						getPremiseJustifications(slot).add(just);
+						slotsToPropagate[slotsToPropagateCount++] = slot;
 					}
 
 				}
@@ -397,24 +563,29 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 				/*
 				 * propagating justification over inferences
 				 */
-				for (final I inf : infsToPropagate) {
+				for (int i = 0; i < slotsToPropagateCount; i++) {
+					final int slot = slotsToPropagate[i];
+					final int infId = graph_.getSlotInferenceId(slot);
+					final I inf = graph_.getInference(infId);
 
-					Collection<Justification<C, A>> conclusionJusts = new ArrayList<Justification<C, A>>();
-					Justification<C, A> conclusionJust = just
+					final Justification<C, A> conclusionJust = just
 							.copyTo(inf.getConclusion())
 							.addElements(getJustification(inf));
-					conclusionJusts.add(conclusionJust);
-					for (final C premise : inf.getPremises()) {
-						if (!premise.equals(conclusion)) {
-							conclusionJusts = Utils.join(conclusionJusts,
-									premiseJustifications_
-											.get(Pair.create(inf, premise)));
+					final int slotsTo = graph_.getSlotsTo(infId);
+					final List<BloomTrieList<Justification<C, A>>> premiseJusts = new ArrayList<>(
+							slotsTo - graph_.getSlotsFrom(infId));
+					for (int other = graph_
+							.getSlotsFrom(infId); other < slotsTo; other++) {
+						if (other != slot) {
+							premiseJusts.add(getPremiseJustifications(other));
 						}
 					}
 
-					for (Justification<C, A> conclJust : conclusionJusts) {
-						toDoJustifications_.add(jobFactory_.newJob(conclJust));
-						countJustificationCandidates_++;
+					for (final Justification<C, A> conclJust : Utils.join(
+							conclusionJust, premiseJusts,
+							getJustifications(inf.getConclusion()),
+							sizeLimit_, joinStats_)) {
+						produce(conclJust);
 					}
 
 				}
@@ -423,6 +594,27 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 
 		}
 
+		/**
+		 * @param justification
+		 * @return {@code true} if the justification is larger or heavier than
+		 *         allowed, and so are all justifications derived from it
+		 */
+		private boolean exceedsLimits(final Set<?> justification) {
+			return justification.size() > sizeLimit_ || weights_ != null
+					&& weights_.getWeight(justification) > weightLimit_;
+		}
+
+		private void produce(final Justification<C, A> justification) {
+			if (exceedsLimits(justification)) {
+				// all justifications derived from it are larger
+				countDiscardedCandidates_++;
+				return;
+			}
+			// else
+			countJustificationCandidates_++;
+			toDoJustifications_.add(jobFactory_.newJob(justification));
+		}
+
 	}
 
 	private static class JobFactory<C, A, P> {
@@ -488,12 +680,19 @@ public class MinPremisesBottomUp<C, I extends Inference<? extends C>, A>
 	private static class Factory<C, I extends Inference<? extends C>, A>
 			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
 
+		private final BloomFilterParameters bloomParams_;
+
+		Factory(final BloomFilterParameters bloomParams) {
+			this.bloomParams_ = bloomParams;
+		}
+
 		@Override
 		public MinimalSubsetEnumerator.Factory<C, A> create(
 				final Proof<? extends I> proof,
 				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
 				final InterruptMonitor monitor) {
-			return new MinPremisesBottomUp<>(proof, justifier, monitor);
+			return new MinPremisesBottomUp<>(proof, justifier, monitor,
+					bloomParams_);
 		}
 
 	}
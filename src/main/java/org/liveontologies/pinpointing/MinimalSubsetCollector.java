@@ -24,9 +24,12 @@ package org.liveontologies.pinpointing;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.proofs.adapters.Proofs;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.InferenceJustifier;
 import org.liveontologies.puli.Proof;
@@ -36,40 +39,160 @@ import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator.Factory;
 import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
 import org.liveontologies.puli.pinpointing.PriorityComparators;
 
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
 public class MinimalSubsetCollector<C, I extends Inference<? extends C>, A> {
 
 	private final Factory<C, A> enumeratorFactory_;
 
 	private final CancellableMonitor monitor_ = new CancellableMonitor();
 
+	private final Proof<? extends I> proof_;
+
+	private final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier_;
+
+	/**
+	 * the proof without dominated inferences, which has the same minimal
+	 * subsets as {@link #proof_}
+	 */
+	private Proof<? extends I> prunedProof_ = null;
+
+	/**
+	 * the inferences of {@link #prunedProof_} for the last query of
+	 * {@link #isInEveryJustification(Object, Object)} or
+	 * {@link #collectUnion(Object)}
+	 */
+	private InferenceGraph<C, I> graph_ = null;
+
 	public MinimalSubsetCollector(
 			final MinimalSubsetsFromProofs.Factory<C, I, A> factory,
 			final Proof<? extends I> proof,
 			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
 		this.enumeratorFactory_ = factory.create(proof, justifier, monitor_);
+		this.proof_ = proof;
+		this.justifier_ = justifier;
 	}
 
 	public Collection<? extends Set<A>> collect(final C query,
 			final int sizeLimit) {
+		return collect(query, sizeLimit, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param query
+	 * @param sizeLimit
+	 *            only minimal subsets of at most this size are collected; no
+	 *            limit if not positive
+	 * @param countLimit
+	 *            at most this many minimal subsets are collected, which are
+	 *            the smallest ones if the computation respects priorities;
+	 *            no limit if not positive
+	 * @return the collected minimal subsets
+	 */
+	public Collection<? extends Set<A>> collect(final C query,
+			final int sizeLimit, final int countLimit) {
 		final int limit = sizeLimit <= 0 ? Integer.MAX_VALUE : sizeLimit;
+		final int maxCount = countLimit <= 0 ? Integer.MAX_VALUE : countLimit;
+
+		final List<Set<A>> sets = new ArrayList<>();
+		monitor_.reset();
+
+		final MinimalSubsetEnumerator<A> enumerator = enumeratorFactory_
+				.newEnumerator(query);
+		if (enumerator instanceof BoundedMinimalSubsetEnumerator) {
+			// the limits are checked by the enumerator
+			((BoundedMinimalSubsetEnumerator<A>) enumerator).enumerate(
+					new MinimalSubsetEnumerator.Listener<A>() {
+
+						@Override
+						public void newMinimalSubset(final Set<A> set) {
+							sets.add(set);
+						}
+
+					}, PriorityComparators.<A> cardinality(), limit,
+					maxCount);
+			return sets;
+		}
+		// else the enumerator must respect the priorities, since the
+		// enumeration is stopped at the first subset that is too large
+
+		final MinimalSubsetEnumerator.Listener<A> listener = new MinimalSubsetEnumerator.Listener<A>() {
+
+			@Override
+			public void newMinimalSubset(final Set<A> set) {
+				// the enumeration may not stop immediately after cancellation
+				if (set.size() <= limit && sets.size() < maxCount) {
+					sets.add(set);
+				}
+				if (set.size() > limit || sets.size() >= maxCount) {
+					monitor_.cancel();
+				}
+			}
+
+		};
+
+		enumerator.enumerate(listener, PriorityComparators.<A> cardinality());
+
+		return sets;
+	}
+
+	/**
+	 * @param query
+	 * @param weights
+	 *            the weights of the elements
+	 * @param weightLimit
+	 *            only minimal subsets of at most this weight are collected
+	 * @param countLimit
+	 *            at most this many minimal subsets are collected, which are
+	 *            the lightest ones if the computation respects priorities; no
+	 *            limit if not positive
+	 * @return the collected minimal subsets, in the order of increasing
+	 *         weights if the computation respects priorities
+	 */
+	public Collection<? extends Set<A>> collect(final C query,
+			final AxiomWeights weights, final long weightLimit,
+			final int countLimit) {
+		final int maxCount = countLimit <= 0 ? Integer.MAX_VALUE : countLimit;
 
 		final List<Set<A>> sets = new ArrayList<>();
+		monitor_.reset();
+
+		final MinimalSubsetEnumerator<A> enumerator = enumeratorFactory_
+				.newEnumerator(query);
+		if (enumerator instanceof BoundedMinimalSubsetEnumerator) {
+			// the limits are checked by the enumerator
+			((BoundedMinimalSubsetEnumerator<A>) enumerator).enumerate(
+					new MinimalSubsetEnumerator.Listener<A>() {
+
+						@Override
+						public void newMinimalSubset(final Set<A> set) {
+							sets.add(set);
+						}
+
+					}, weights, weightLimit, maxCount);
+			return sets;
+		}
+		// else the enumerator must respect the priorities, since the
+		// enumeration is stopped at the first subset that is too heavy
 
 		final MinimalSubsetEnumerator.Listener<A> listener = new MinimalSubsetEnumerator.Listener<A>() {
 
 			@Override
 			public void newMinimalSubset(final Set<A> set) {
-				if (set.size() <= limit) {
+				// the enumeration may not stop immediately after cancellation
+				final long weight = weights.getWeight(set);
+				if (weight <= weightLimit && sets.size() < maxCount) {
 					sets.add(set);
-				} else {
+				}
+				if (weight > weightLimit || sets.size() >= maxCount) {
 					monitor_.cancel();
 				}
 			}
 
 		};
 
-		enumeratorFactory_.newEnumerator(query).enumerate(listener,
-				PriorityComparators.<A> cardinality());
+		enumerator.enumerate(listener, weights.getPriorityComparator());
 
 		return sets;
 	}
@@ -78,6 +201,112 @@ public class MinimalSubsetCollector<C, I extends Inference<? extends C>, A> {
 		return collect(query, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * Stops the enumeration as soon as the second minimal subset is found.
+	 * 
+	 * @param query
+	 * @return {@code true} if the query has more than one minimal subset
+	 */
+	public boolean hasMultipleMinimalSubsets(final C query) {
+		return collect(query, Integer.MAX_VALUE, 2).size() > 1;
+	}
+
+	/**
+	 * Checks whether the query can be derived using only the inferences whose
+	 * justifications do not contain the given element; the minimal subsets are
+	 * not enumerated. The result is, thus, only meaningful if the minimal
+	 * subsets enumerated by the computation are justifications, and not, e.g.,
+	 * repairs.
+	 * 
+	 * @param query
+	 * @param element
+	 * @return {@code true} if every justification of the query contains the
+	 *         given element; in particular, if the query has no
+	 *         justifications
+	 */
+	public boolean isInEveryJustification(final C query, final A element) {
+		return !getGraph(query).isDerivable(0, new Predicate<I>() {
+
+			@Override
+			public boolean apply(final I inference) {
+				return !justifier_.getJustification(inference)
+						.contains(element);
+			}
+
+		});
+	}
+
+	/**
+	 * Collects the elements that occur in some minimal subset of the query.
+	 * Only the elements of justifications of inferences that are not
+	 * dominated and can be used in some derivation of the query can occur in
+	 * the minimal subsets, so the enumeration stops as soon as all such
+	 * elements are collected. This is only an upper bound: an element may
+	 * occur only in derivations that use a superset of some justification,
+	 * and deciding whether an element occurs in some justification is
+	 * NP-hard, in which case all minimal subsets are enumerated. Since every
+	 * element of a justification occurs in some repair and vice versa, the
+	 * result is the same if the computation enumerates repairs.
+	 * 
+	 * @param query
+	 * @return the union of the minimal subsets of the query; the empty set if
+	 *         the query has no minimal subsets
+	 */
+	public Set<A> collectUnion(final C query) {
+		final Set<A> candidates = getUsableElements(query);
+		final Set<A> result = new HashSet<>();
+		if (candidates.isEmpty()) {
+			return result;
+		}
+		// else
+		monitor_.reset();
+		enumeratorFactory_.newEnumerator(query).enumerate(
+				new MinimalSubsetEnumerator.Listener<A>() {
+
+					@Override
+					public void newMinimalSubset(final Set<A> set) {
+						result.addAll(set);
+						if (result.size() >= candidates.size()) {
+							monitor_.cancel();
+						}
+					}
+
+				}, PriorityComparators.<A> cardinality());
+		return result;
+	}
+
+	/**
+	 * @param query
+	 * @return the elements of justifications of inferences that are not
+	 *         dominated and can be used in some derivation of the query, i.e.,
+	 *         that are reachable from the query and whose premises are
+	 *         derivable
+	 */
+	private Set<A> getUsableElements(final C query) {
+		final InferenceGraph<C, I> graph = getGraph(query);
+		final boolean[] usable = graph.getUsableInferences(0,
+				graph.derive(Predicates.<I> alwaysTrue(), -1));
+		final Set<A> result = new HashSet<>();
+		for (int infId = 0; infId < usable.length; infId++) {
+			if (usable[infId]) {
+				result.addAll(
+						justifier_.getJustification(graph.getInference(infId)));
+			}
+		}
+		return result;
+	}
+
+	private InferenceGraph<C, I> getGraph(final C query) {
+		if (prunedProof_ == null) {
+			prunedProof_ = Proofs.eliminateDominatedInferences(proof_,
+					justifier_);
+		}
+		if (graph_ == null || graph_.getId(query) != 0) {
+			graph_ = InferenceGraph.create(prunedProof_, query);
+		}
+		return graph_;
+	}
+
 	private static class CancellableMonitor implements InterruptMonitor {
 
 		private volatile boolean cancelled_ = false;
@@ -91,6 +320,10 @@ public class MinimalSubsetCollector<C, I extends Inference<? extends C>, A> {
 			cancelled_ = true;
 		}
 
+		public void reset() {
+			cancelled_ = false;
+		}
+
 	}
 
 }
@@ -0,0 +1,281 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+import com.google.common.base.Predicates;
+
+/**
+ * Computes the axioms that occur in every justification of a conclusion
+ * without enumerating the justifications. These are exactly the axioms
+ * without which the conclusion cannot be derived. First, one derivation of
+ * the conclusion is found; only the axioms used in it are candidates. Then,
+ * for every candidate, the conclusion is derived using only the inferences
+ * whose justifications do not contain it. If such a derivation is found, the
+ * candidates that are not used in it are not necessary either, so they are
+ * not checked. The candidates can be checked concurrently using the given
+ * executor; only the calling thread accesses the proof and the justifier.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class NecessaryAxiomsComputation<C, I extends Inference<? extends C>, A> {
+
+	private final Proof<? extends I> proof_;
+
+	private final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier_;
+
+	/**
+	 * runs the checks of candidates; if {@code null}, they are run by the
+	 * calling thread
+	 */
+	private final ExecutorService executor_;
+
+	// Statistics
+
+	private final StripedCounter candidatesCount_ = new StripedCounter(),
+			checksCount_ = new StripedCounter(),
+			skippedChecksCount_ = new StripedCounter();
+
+	/**
+	 * Creates the computation that checks the candidates by the calling
+	 * thread.
+	 * 
+	 * @param proof
+	 * @param justifier
+	 */
+	public NecessaryAxiomsComputation(final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
+		this(proof, justifier, null);
+	}
+
+	/**
+	 * Creates the computation that checks the candidates using the given
+	 * executor.
+	 * 
+	 * @param proof
+	 * @param justifier
+	 * @param executor
+	 */
+	public NecessaryAxiomsComputation(final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final ExecutorService executor) {
+		this.proof_ = proof;
+		this.justifier_ = justifier;
+		this.executor_ = executor;
+	}
+
+	/**
+	 * @param query
+	 * @return the axioms that occur in every justification of the query; the
+	 *         empty set if the query cannot be derived
+	 */
+	public Set<A> getNecessaryAxioms(final C query) {
+		final InferenceGraph<C, I> graph = InferenceGraph.create(proof_,
+				query);
+		final int[] derivation = graph.derive(Predicates.<I> alwaysTrue(),
+				0);
+		if (derivation[0] < 0) {
+			return Collections.emptySet();
+		}
+		// else
+		// the justifications of the inferences by their numbers
+		final List<Set<? extends A>> justifications = new ArrayList<>(
+				graph.getInferenceCount());
+		for (int infId = 0; infId < graph.getInferenceCount(); infId++) {
+			justifications
+					.add(justifier_.getJustification(graph.getInference(infId)));
+		}
+		final List<A> candidates = new ArrayList<>(
+				getAxioms(graph, justifications, derivation));
+		candidatesCount_.add(candidates.size());
+		// the candidates known not to be necessary
+		final Set<A> refuted = Collections
+				.newSetFromMap(new ConcurrentHashMap<A, Boolean>());
+		final List<Callable<A>> checks = new ArrayList<>(candidates.size());
+		for (final A candidate : candidates) {
+			checks.add(new Callable<A>() {
+
+				@Override
+				public A call() {
+					return check(graph, justifications, candidate, candidates,
+							refuted) ? candidate : null;
+				}
+
+			});
+		}
+		final Set<A> result = new HashSet<>();
+		for (final A necessary : invoke(checks)) {
+			if (necessary != null) {
+				result.add(necessary);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param graph
+	 * @param justifications
+	 *            the justifications of the inferences of the graph by their
+	 *            numbers
+	 * @param candidate
+	 * @param candidates
+	 *            all candidates
+	 * @param refuted
+	 *            the candidates that are known not to be necessary; is
+	 *            extended by the candidates found not to be necessary
+	 * @return {@code true} if the goal conclusion of the graph cannot be
+	 *         derived without the candidate
+	 */
+	private boolean check(final InferenceGraph<C, I> graph,
+			final List<? extends Set<? extends A>> justifications,
+			final A candidate, final Collection<A> candidates,
+			final Set<A> refuted) {
+		if (refuted.contains(candidate)) {
+			skippedChecksCount_.increment();
+			return false;
+		}
+		// else
+		checksCount_.increment();
+		final boolean[] usable = new boolean[justifications.size()];
+		for (int infId = 0; infId < usable.length; infId++) {
+			usable[infId] = !justifications.get(infId).contains(candidate);
+		}
+		final int[] derivation = graph.derive(usable, 0);
+		if (derivation[0] < 0) {
+			return true;
+		}
+		// else the candidates not used in the derivation are not necessary
+		final Set<A> used = getAxioms(graph, justifications, derivation);
+		for (final A other : candidates) {
+			if (!used.contains(other)) {
+				refuted.add(other);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param graph
+	 * @param justifications
+	 *            the justifications of the inferences of the graph by their
+	 *            numbers
+	 * @param derivation
+	 *            a derivation computed by the graph in which the goal
+	 *            conclusion is derived
+	 * @return the axioms used in the derivation of the goal conclusion of the
+	 *         graph
+	 */
+	private Set<A> getAxioms(final InferenceGraph<C, I> graph,
+			final List<? extends Set<? extends A>> justifications,
+			final int[] derivation) {
+		final Set<A> result = new HashSet<>();
+		for (final int infId : graph.getDerivationInferenceIds(0,
+				derivation)) {
+			result.addAll(justifications.get(infId));
+		}
+		return result;
+	}
+
+	private <T> Collection<T> invoke(final List<Callable<T>> tasks) {
+		final List<T> result = new ArrayList<>(tasks.size());
+		try {
+			if (executor_ == null) {
+				for (final Callable<T> task : tasks) {
+					result.add(task.call());
+				}
+				return result;
+			}
+			// else
+			for (final Future<T> future : executor_.invokeAll(tasks)) {
+				result.add(future.get());
+			}
+			return result;
+		} catch (final ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the number of axioms used in the first found derivations of the
+	 *         queries
+	 */
+	@Stat
+	public long nCandidates() {
+		return candidatesCount_.sum();
+	}
+
+	/**
+	 * @return the number of derivations of the queries without a candidate
+	 */
+	@Stat
+	public long nDerivabilityChecks() {
+		return checksCount_.sum();
+	}
+
+	/**
+	 * @return the number of candidates that were not checked because they are
+	 *         not used in a derivation found for another candidate
+	 */
+	@Stat
+	public long nSkippedChecks() {
+		return skippedChecksCount_.sum();
+	}
+
+	@ResetStats
+	public void resetStats() {
+		candidatesCount_.reset();
+		checksCount_.reset();
+		skippedChecksCount_.reset();
+	}
+
+}
@@ -0,0 +1,929 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.pinpointing.AbstractMinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.statistics.NestedStats;
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A version of {@link BottomUpJustificationComputation} that propagates
+ * justifications using several threads. The justifications are processed in
+ * rounds: every round takes all justifications from the queue that have the
+ * same priority, which is the smallest in the queue. First, the conclusions of
+ * these justifications are partitioned into stripes, and the justifications
+ * are checked for minimality and stored concurrently, one task per stripe, so
+ * that the justifications of every conclusion are modified by only one thread.
+ * Then the justifications that were stored are propagated over inferences
+ * concurrently, which only reads the stored justifications. Justifications of
+ * the same priority cannot be proper subsets of each other, so the
+ * justifications of the goal conclusion are still reported in the order of
+ * their priority. Rounds with few justifications are processed by the calling
+ * thread. Only the calling thread accesses the proof and the justifier: the
+ * inferences are resolved to their conclusions, premises, and
+ * justifications before they are used by the tasks.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class ParallelBottomUpJustificationComputation<C, I extends Inference<? extends C>, A>
+		extends MinimalSubsetsFromProofs<C, I, A> {
+
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(ParallelBottomUpJustificationComputation.class);
+
+	/**
+	 * rounds with fewer justifications are processed by the calling thread
+	 */
+	private static final int MIN_PARALLEL_ROUND_SIZE_ = 64;
+
+	/**
+	 * how many stripes of conclusions are created for every thread
+	 */
+	private static final int STRIPES_PER_THREAD_ = 4;
+
+	private static final ParallelBottomUpJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			Runtime.getRuntime().availableProcessors(),
+			MIN_PARALLEL_ROUND_SIZE_, BloomFilterParameters.DEFAULT);
+
+	private final ExecutorService executor_;
+
+	private final int nThreads_;
+
+	private final int minParallelRoundSize_;
+
+	/**
+	 * the justifications of conclusions partitioned by hash codes of
+	 * conclusions; the number of stripes is a power of two
+	 */
+	private final List<Stripe> stripes_;
+
+	/**
+	 * conclusions for which computation of justifications has been initialized
+	 */
+	private final Set<C> initialized_ = new HashSet<>();
+
+	/**
+	 * a map from premises to inferences for relevant conclusions; the
+	 * inferences are resolved by the calling thread, so that the tasks do not
+	 * access the proof, the inferences, or the justifier, which need not be
+	 * thread-safe
+	 */
+	private final Multimap<C, ResolvedInference<C, A>> inferencesByPremises_ = ArrayListMultimap
+			.create();
+
+	/**
+	 * counts the inclusion tests of the created {@link BloomSet}s
+	 */
+	private final InclusionStatistics inclusionStats_ = InclusionStatistics
+			.create();
+
+	/**
+	 * counts the queries of the created {@link BloomTrieList}s
+	 */
+	private final IndexStatistics indexStats_ = IndexStatistics.create();
+
+	/**
+	 * the parameters of the Bloom filters of the created {@link BloomSet}s
+	 */
+	private final BloomFilterParameters bloomParams_;
+
+	// Statistics
+
+	private int countInferences_ = 0, countConclusions_ = 0,
+			countJustificationCandidates_ = 0, countRounds_ = 0,
+			countParallelRounds_ = 0;
+
+	private ParallelBottomUpJustificationComputation(
+			final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final InterruptMonitor monitor, final ExecutorService executor,
+			final int nThreads, final int minParallelRoundSize,
+			final BloomFilterParameters bloomParams) {
+		super(proof, justifier, monitor);
+		this.executor_ = executor;
+		this.bloomParams_ = bloomParams;
+		this.nThreads_ = nThreads;
+		this.minParallelRoundSize_ = minParallelRoundSize;
+		final int nStripes = Integer
+				.highestOneBit(nThreads * STRIPES_PER_THREAD_ * 2 - 1);
+		this.stripes_ = new ArrayList<>(nStripes);
+		for (int i = 0; i < nStripes; i++) {
+			stripes_.add(new Stripe());
+		}
+	}
+
+	private void reset() {
+		initialized_.clear();
+		for (final Stripe stripe : stripes_) {
+			stripe.justifications_.clear();
+			stripe.blocked_.clear();
+		}
+	}
+
+	@Override
+	public MinimalSubsetEnumerator<A> newEnumerator(final C query) {
+		return new JustificationEnumerator(query);
+	}
+
+	@Stat
+	public int nThreads() {
+		return nThreads_;
+	}
+
+	@Stat
+	public int nProcessedInferences() {
+		return countInferences_;
+	}
+
+	@Stat
+	public int nProcessedConclusions() {
+		return countConclusions_;
+	}
+
+	@Stat
+	public int nProcessedJustificationCandidates() {
+		return countJustificationCandidates_;
+	}
+
+	@Stat
+	public int nRounds() {
+		return countRounds_;
+	}
+
+	@Stat
+	public int nParallelRounds() {
+		return countParallelRounds_;
+	}
+
+	@Stat
+	public int nJustificationsOfAllConclusions() {
+		int result = 0;
+		for (final Stripe stripe : stripes_) {
+			for (final List<Justification<C, A>> justs : stripe.justifications_
+					.values()) {
+				result += justs.size();
+			}
+		}
+		return result;
+	}
+
+	@Stat
+	public int nBlockedJustifications() {
+		int result = 0;
+		for (final Stripe stripe : stripes_) {
+			result += stripe.blocked_.size();
+		}
+		return result;
+	}
+
+	@Stat
+	public int maxNJustificationsOfAConclusion() {
+		int max = 0;
+		for (final Stripe stripe : stripes_) {
+			for (final List<Justification<C, A>> justs : stripe.justifications_
+					.values()) {
+				if (justs.size() > max) {
+					max = justs.size();
+				}
+			}
+		}
+		return max;
+	}
+
+	@ResetStats
+	public void resetStats() {
+		countInferences_ = 0;
+		countConclusions_ = 0;
+		countJustificationCandidates_ = 0;
+		countRounds_ = 0;
+		countParallelRounds_ = 0;
+	}
+
+	@NestedStats
+	public InclusionStatistics getNestedStats() {
+		return inclusionStats_;
+	}
+
+	@NestedStats(name = "index")
+	public IndexStatistics getIndexStats() {
+		return indexStats_;
+	}
+
+	/**
+	 * @return the factory for computations that use as many threads as there
+	 *         are available processors
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory() {
+		return (Factory<C, I, A>) FACTORY_;
+	}
+
+	/**
+	 * @param nThreads
+	 *            the number of threads used by the computations
+	 * @return the factory for computations that use the given number of
+	 *         threads; the threads are shared by all computations created by
+	 *         this factory
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final int nThreads) {
+		return getFactory(nThreads, MIN_PARALLEL_ROUND_SIZE_);
+	}
+
+	/**
+	 * @param nThreads
+	 *            the number of threads used by the computations
+	 * @param minParallelRoundSize
+	 *            rounds with fewer justifications are processed by the calling
+	 *            thread
+	 * @return the factory for computations with the given parameters
+	 */
+	static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final int nThreads, final int minParallelRoundSize) {
+		Preconditions.checkArgument(nThreads > 0);
+		return new Factory<>(nThreads, minParallelRoundSize,
+				BloomFilterParameters.DEFAULT);
+	}
+
+	/**
+	 * @param bloomParams
+	 * @return the factory for computations that use as many threads as there
+	 *         are available processors and the given parameters for the Bloom
+	 *         filters of justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final BloomFilterParameters bloomParams) {
+		Preconditions.checkNotNull(bloomParams);
+		return new Factory<>(Runtime.getRuntime().availableProcessors(),
+				MIN_PARALLEL_ROUND_SIZE_, bloomParams);
+	}
+
+	@SafeVarargs
+	private final Justification<C, A> createJustification(C conclusion,
+			Collection<? extends A>... collections) {
+		return new BloomSet<C, A>(inclusionStats_, bloomParams_, conclusion,
+				collections);
+	}
+
+	private Stripe getStripe(final C conclusion) {
+		int hash = conclusion.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes_.get(hash & (stripes_.size() - 1));
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the justifications of the given conclusion stored so far; the
+	 *         result should not be modified
+	 */
+	private Collection<Justification<C, A>> findJustifications(
+			final C conclusion) {
+		final List<Justification<C, A>> result = getStripe(
+				conclusion).justifications_.get(conclusion);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		// else
+		return result;
+	}
+
+	/**
+	 * Runs the given tasks and returns their results in the order of the
+	 * tasks.
+	 * 
+	 * @param tasks
+	 * @param parallel
+	 *            if {@code false}, the tasks are run by the calling thread
+	 * @return the results of the tasks
+	 */
+	private <T> List<T> invoke(final List<Callable<T>> tasks,
+			final boolean parallel) {
+		final List<T> result = new ArrayList<>(tasks.size());
+		try {
+			if (!parallel || tasks.size() < 2) {
+				for (final Callable<T> task : tasks) {
+					result.add(task.call());
+				}
+				return result;
+			}
+			// else
+			countParallelRounds_++;
+			for (final Future<T> future : executor_.invokeAll(tasks)) {
+				result.add(future.get());
+			}
+			return result;
+		} catch (final ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * The justifications and blocked justifications of conclusions with the
+	 * same hash code modulo the number of stripes. Within a round, it is
+	 * modified by at most one thread.
+	 */
+	private class Stripe {
+
+		/**
+		 * a map from conclusions to their justifications
+		 */
+		private final Map<C, BloomTrieList<Justification<C, A>>> justifications_ = new HashMap<>();
+
+		/**
+		 * justifications blocked from propagation because they are not needed
+		 * for computing justifications for the goal conclusion
+		 */
+		private final ListMultimap<C, Justification<C, A>> blocked_ = ArrayListMultimap
+				.create();
+
+		BloomTrieList<Justification<C, A>> getJustifications(
+				final C conclusion) {
+			BloomTrieList<Justification<C, A>> result = justifications_
+					.get(conclusion);
+			if (result == null) {
+				result = new BloomTrieList<>(indexStats_);
+				justifications_.put(conclusion, result);
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * Performs computation of justifications for the given conclusion. Can
+	 * compute and reuse justifications for other conclusions.
+	 */
+	private class JustificationEnumerator
+			extends AbstractMinimalSubsetEnumerator<A> {
+
+		private final C conclusion_;
+
+		/**
+		 * the conclusions that are relevant for the computation of the
+		 * justifications, i.e., those from which the conclusion for which the
+		 * justifications are computed can be derived
+		 */
+		private final Set<C> relevant_ = new HashSet<>();
+
+		/**
+		 * temporary queue to compute {@link #relevant_}
+		 */
+		private final Queue<C> toDo_ = new LinkedList<>();
+
+		/**
+		 * newly computed justifications to be propagated
+		 */
+		private PriorityQueue<JobFactory<C, A, ?>.Job> toDoJustifications_;
+
+		/**
+		 * the justifications will be returned here, they come in increasing
+		 * size order
+		 */
+		private BloomTrieList<Justification<C, A>> result_;
+
+		private Listener<A> listener_ = null;
+
+		private JobFactory<C, A, ?> jobFactory_;
+
+		JustificationEnumerator(C conclusion) {
+			this.conclusion_ = conclusion;
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator) {
+			Preconditions.checkNotNull(listener);
+			this.listener_ = listener;
+			if (priorityComparator == null) {
+				enumerate(listener);
+				return;
+			}
+			// else
+
+			if (jobFactory_ != null && jobFactory_.priorityComparator_
+					.equals(priorityComparator)) {
+				// Visit already computed justifications. They should be in the
+				// correct order.
+				for (final Justification<?, A> just : getStripe(conclusion_)
+						.getJustifications(conclusion_)) {
+					listener.newMinimalSubset(just);
+				}
+			} else {
+				// Reset everything.
+				this.jobFactory_ = JobFactory.create(priorityComparator);
+				reset();
+			}
+			// the list could be discarded by a reset
+			this.result_ = getStripe(conclusion_)
+					.getJustifications(conclusion_);
+
+			this.toDoJustifications_ = new PriorityQueue<JobFactory<C, A, ?>.Job>();
+
+			toDo(conclusion_);
+			initialize();
+			process();
+
+			this.listener_ = null;
+		}
+
+		/**
+		 * traverse inferences to find relevant conclusions and create the queue
+		 * of justifications to be propagated reusing previously computed
+		 * justifications
+		 */
+		private void initialize() {
+
+			C conclusion;
+			while ((conclusion = toDo_.poll()) != null) {
+
+				final Collection<? extends I> infs = getInferences(conclusion);
+				if (infs.isEmpty()) {
+					LOGGER_.warn("{}: lemma not derived!", conclusion);
+				}
+
+				final List<ResolvedInference<C, A>> resolved = new ArrayList<>(
+						infs.size());
+				for (final I inf : infs) {
+					LOGGER_.trace("{}: new inference", inf);
+					countInferences_++;
+					final ResolvedInference<C, A> resolvedInf = new ResolvedInference<C, A>(
+							inf, getJustification(inf));
+					resolved.add(resolvedInf);
+					for (final C premise : resolvedInf.premises) {
+						inferencesByPremises_.put(premise, resolvedInf);
+						toDo(premise);
+					}
+				}
+
+				if (initialized_.add(conclusion)) {
+					LOGGER_.trace(
+							"{}: computation of justifiations initialized",
+							conclusion);
+					// propagate existing justifications for premises
+					for (final ResolvedInference<C, A> inf : resolved) {
+						List<Justification<C, A>> conclusionJusts = new ArrayList<>();
+						conclusionJusts.add(createJustification(inf.conclusion,
+								inf.justification));
+						for (final C premise : inf.premises) {
+							conclusionJusts = Utils.join(conclusionJusts,
+									findJustifications(premise));
+						}
+						for (final Justification<C, A> just : conclusionJusts) {
+							produce(just);
+						}
+					}
+				} else {
+					// conclusion has already been initialized.
+					final List<Justification<C, A>> blocked = getStripe(
+							conclusion).blocked_.get(conclusion);
+					for (final Justification<C, A> just : blocked) {
+						LOGGER_.trace("unblocked {}", just);
+						// Don't produce, blocked justs were already produced.
+						toDoJustifications_.add(jobFactory_.newJob(just));
+					}
+					blocked.clear();
+				}
+
+			}
+
+		}
+
+		private void toDo(C conclusion) {
+			if (relevant_.add(conclusion)) {
+				countConclusions_++;
+				toDo_.add(conclusion);
+			}
+		}
+
+		/**
+		 * process new justifications until the fixpoint
+		 */
+		private void process() {
+			while (!toDoJustifications_.isEmpty()) {
+				if (isInterrupted()) {
+					return;
+				}
+				countRounds_++;
+				final List<Justification<C, A>> round = pollRound();
+				final boolean parallel = round.size() >= minParallelRoundSize_;
+
+				final List<Justification<C, A>> stored = store(round,
+						parallel);
+
+				for (final Justification<C, A> just : stored) {
+					if (just.isEmpty()) {
+						// all justifications are computed,
+						// the inferences are not needed anymore
+						removeInferences(just.getConclusion());
+					}
+				}
+
+				for (final Justification<C, A> just : propagate(stored,
+						parallel)) {
+					produce(just);
+				}
+			}
+		}
+
+		/**
+		 * Removes the inferences of the given conclusion from
+		 * {@link #inferencesByPremises_}.
+		 * 
+		 * @param conclusion
+		 */
+		private void removeInferences(final C conclusion) {
+			for (final I inf : getInferences(conclusion)) {
+				for (final C premise : inf.getPremises()) {
+					final Iterator<ResolvedInference<C, A>> uses = inferencesByPremises_
+							.get(premise).iterator();
+					while (uses.hasNext()) {
+						if (uses.next().inference.equals(inf)) {
+							uses.remove();
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return the justifications removed from the head of the queue that
+		 *         have the same priority
+		 */
+		private List<Justification<C, A>> pollRound() {
+			final List<Justification<C, A>> result = new ArrayList<>();
+			final JobFactory<C, A, ?>.Job first = toDoJustifications_.poll();
+			result.add(first.justification);
+			JobFactory<C, A, ?>.Job next;
+			while ((next = toDoJustifications_.peek()) != null
+					&& first.hasSamePriority(next)) {
+				result.add(toDoJustifications_.poll().justification);
+			}
+			return result;
+		}
+
+		/**
+		 * Stores the given justifications of the same priority if they are
+		 * minimal and reports those for the goal conclusion.
+		 * 
+		 * @param round
+		 * @param parallel
+		 * @return the justifications that were stored
+		 */
+		private List<Justification<C, A>> store(
+				final List<Justification<C, A>> round, final boolean parallel) {
+			final List<Justification<C, A>> result = new ArrayList<>();
+			// other justifications are checked against the justifications of
+			// the goal conclusion, so the latter are stored first
+			final Map<Stripe, List<Justification<C, A>>> byStripe = new HashMap<>();
+			for (final Justification<C, A> just : round) {
+				final C conclusion = just.getConclusion();
+				if (conclusion_.equals(conclusion)) {
+					if (store(just)) {
+						result.add(just);
+						if (listener_ != null) {
+							listener_.newMinimalSubset(just);
+						}
+					}
+					continue;
+				}
+				// else
+				final Stripe stripe = getStripe(conclusion);
+				List<Justification<C, A>> justs = byStripe.get(stripe);
+				if (justs == null) {
+					justs = new ArrayList<>();
+					byStripe.put(stripe, justs);
+				}
+				justs.add(just);
+			}
+			final List<Callable<List<Justification<C, A>>>> tasks = new ArrayList<>(
+					byStripe.size());
+			for (final List<Justification<C, A>> justs : byStripe.values()) {
+				tasks.add(new Callable<List<Justification<C, A>>>() {
+
+					@Override
+					public List<Justification<C, A>> call() {
+						final List<Justification<C, A>> stored = new ArrayList<>();
+						for (final Justification<C, A> just : justs) {
+							if (store(just)) {
+								stored.add(just);
+							}
+						}
+						return stored;
+					}
+
+				});
+			}
+			for (final List<Justification<C, A>> stored : invoke(tasks,
+					parallel)) {
+				result.addAll(stored);
+			}
+			return result;
+		}
+
+		/**
+		 * Modifies only the stripe of the conclusion of the given
+		 * justification.
+		 * 
+		 * @param just
+		 * @return {@code true} if the justification is stored
+		 */
+		private boolean store(final Justification<C, A> just) {
+			final C conclusion = just.getConclusion();
+			final Stripe stripe = getStripe(conclusion);
+			if (!relevant_.contains(conclusion)) {
+				stripe.blocked_.put(conclusion, just);
+				LOGGER_.trace("blocked {}", just);
+				return false;
+			}
+			final BloomTrieList<Justification<C, A>> justs = stripe
+					.getJustifications(conclusion);
+			if (!justs.isMinimal(just)) {
+				return false;
+			}
+			if (!result_.isMinimal(just)) {
+				stripe.blocked_.put(conclusion, just);
+				LOGGER_.trace("blocked {}", just);
+				return false;
+			}
+			// else
+			justs.add(just);
+			LOGGER_.trace("new {}", just);
+			return true;
+		}
+
+		/**
+		 * Propagates the given justifications over inferences. Does not modify
+		 * the stored justifications.
+		 * 
+		 * @param justs
+		 * @param parallel
+		 * @return the justifications of the conclusions of the inferences
+		 */
+		private List<Justification<C, A>> propagate(
+				final List<Justification<C, A>> justs, final boolean parallel) {
+			final int nTasks = parallel ? Math.min(nThreads_, justs.size())
+					: 1;
+			final List<Callable<List<Justification<C, A>>>> tasks = new ArrayList<>(
+					nTasks);
+			for (int i = 0; i < nTasks; i++) {
+				final List<Justification<C, A>> chunk = justs.subList(
+						i * justs.size() / nTasks,
+						(i + 1) * justs.size() / nTasks);
+				tasks.add(new Callable<List<Justification<C, A>>>() {
+
+					@Override
+					public List<Justification<C, A>> call() {
+						final List<Justification<C, A>> result = new ArrayList<>();
+						for (final Justification<C, A> just : chunk) {
+							if (isInterrupted()) {
+								break;
+							}
+							propagate(just, result);
+						}
+						return result;
+					}
+
+				});
+			}
+			final List<Justification<C, A>> result = new ArrayList<>();
+			for (final List<Justification<C, A>> produced : invoke(tasks,
+					parallel)) {
+				result.addAll(produced);
+			}
+			return result;
+		}
+
+		private void propagate(final Justification<C, A> just,
+				final List<Justification<C, A>> output) {
+			final C conclusion = just.getConclusion();
+			for (final ResolvedInference<C, A> inf : inferencesByPremises_
+					.get(conclusion)) {
+
+				Collection<Justification<C, A>> conclusionJusts = new ArrayList<>();
+				Justification<C, A> conclusionJust = just
+						.copyTo(inf.conclusion).addElements(inf.justification);
+				conclusionJusts.add(conclusionJust);
+				for (final C premise : inf.premises) {
+					if (!premise.equals(conclusion)) {
+						conclusionJusts = Utils.join(conclusionJusts,
+								findJustifications(premise));
+					}
+				}
+				output.addAll(conclusionJusts);
+
+			}
+		}
+
+		private void produce(final Justification<C, A> justification) {
+			countJustificationCandidates_++;
+			toDoJustifications_.add(jobFactory_.newJob(justification));
+		}
+
+	}
+
+	/**
+	 * An inference together with its conclusion, premises, and justification
+	 * obtained once.
+	 * 
+	 * @param <C>
+	 *            the type of conclusion and premises
+	 * @param <A>
+	 *            the type of axioms
+	 */
+	private static class ResolvedInference<C, A> {
+
+		final Object inference;
+
+		final C conclusion;
+
+		final List<C> premises;
+
+		final Set<? extends A> justification;
+
+		ResolvedInference(final Inference<? extends C> inference,
+				final Set<? extends A> justification) {
+			this.inference = inference;
+			this.conclusion = inference.getConclusion();
+			this.premises = new ArrayList<C>(inference.getPremises());
+			this.justification = justification;
+		}
+
+	}
+
+	private static class JobFactory<C, A, P> {
+
+		private final PriorityComparator<? super Set<A>, P> priorityComparator_;
+
+		private JobFactory(
+				final PriorityComparator<? super Set<A>, P> priorityComparator) {
+			this.priorityComparator_ = priorityComparator;
+		}
+
+		public static <C, A, P> JobFactory<C, A, P> create(
+				final PriorityComparator<? super Set<A>, P> priorityComparator) {
+			return new JobFactory<>(priorityComparator);
+		}
+
+		public Job newJob(final Justification<C, A> justification) {
+			return new Job(priorityComparator_.getPriority(justification),
+					justification);
+		}
+
+		private class Job implements Comparable<Job> {
+
+			private final P priority_;
+
+			public final Justification<C, A> justification;
+
+			public Job(final P priority,
+					final Justification<C, A> justification) {
+				this.priority_ = priority;
+				this.justification = justification;
+			}
+
+			/**
+			 * @param other
+			 *            a job created by the same {@link JobFactory}
+			 * @return {@code true} if the priorities of the jobs are equal
+			 */
+			public boolean hasSamePriority(final JobFactory<?, ?, ?>.Job other) {
+				@SuppressWarnings("unchecked")
+				final P otherPriority = (P) other.priority_;
+				return priorityComparator_.compare(priority_,
+						otherPriority) == 0;
+			}
+
+			@Override
+			public int compareTo(final Job other) {
+				final int result = priorityComparator_.compare(priority_,
+						other.priority_);
+				if (result != 0) {
+					return result;
+				}
+				// else
+				return Integer.compare(justification.getConclusion().hashCode(),
+						other.justification.getConclusion().hashCode());
+			}
+
+		}
+
+	}
+
+	/**
+	 * The factory for creating a
+	 * {@link ParallelBottomUpJustificationComputation}; the computations share
+	 * the threads of the factory, which terminate when they are idle.
+	 * 
+	 * @param <C>
+	 *            the type of conclusion and premises used by the inferences
+	 * @param <I>
+	 *            the type of inferences used in the proof
+	 * @param <A>
+	 *            the type of axioms used by the inferences
+	 */
+	private static class Factory<C, I extends Inference<? extends C>, A>
+			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
+
+		private final int nThreads_;
+
+		private final int minParallelRoundSize_;
+
+		private final ExecutorService executor_;
+
+		private final BloomFilterParameters bloomParams_;
+
+		Factory(final int nThreads, final int minParallelRoundSize,
+				final BloomFilterParameters bloomParams) {
+			this.nThreads_ = nThreads;
+			this.bloomParams_ = bloomParams;
+			this.minParallelRoundSize_ = minParallelRoundSize;
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					nThreads, nThreads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactoryBuilder().setDaemon(true)
+							.setNameFormat("justification-worker-%d").build());
+			executor.allowCoreThreadTimeOut(true);
+			this.executor_ = executor;
+		}
+
+		@Override
+		public MinimalSubsetEnumerator.Factory<C, A> create(
+				final Proof<? extends I> proof,
+				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+				final InterruptMonitor monitor) {
+			return new ParallelBottomUpJustificationComputation<>(proof,
+					justifier, monitor, executor_, nThreads_,
+					minParallelRoundSize_, bloomParams_);
+		}
+
+	}
+
+}
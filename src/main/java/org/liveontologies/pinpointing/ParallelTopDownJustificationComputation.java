@@ -0,0 +1,1038 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.puli.Delegator;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.collections.BloomTrieCollection2;
+import org.liveontologies.puli.collections.Collection2;
+import org.liveontologies.puli.pinpointing.AbstractMinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.statistics.NestedStats;
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A version of {@link TopDownJustificationComputation} that expands jobs using
+ * several threads. Every worker takes the jobs with the smallest priority from
+ * its own queue, to which it also adds the jobs obtained by expansion, and
+ * steals jobs from the queues of other workers when its queue is empty. The
+ * jobs and the found justifications are minimized using shared collections
+ * that can be tested for subsets concurrently. Only the calling thread
+ * accesses the proof and the justifier: the jobs refer to the conclusions by
+ * their numbers in the inference graph, and the justifications of the
+ * inferences are obtained before the workers are started.
+ * <p>
+ * Since the workers do not process the jobs in the order of their priorities,
+ * the justifications found by them are first stored in a reorder buffer. The
+ * calling thread reports a justification from this buffer once its priority
+ * is smaller than the priorities of all jobs that are queued or processed by
+ * the workers. This is correct for priorities that do not decrease when
+ * justifications grow, which is also assumed by the sequential computation,
+ * since every justification found later is obtained from one of these jobs.
+ * The justifications are, thus, still reported in the order of their
+ * priority, and every justification is checked for minimality against the
+ * reported ones before it is reported.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class ParallelTopDownJustificationComputation<C, I extends Inference<? extends C>, A>
+		extends MinimalSubsetsFromProofs<C, I, A> {
+
+	/**
+	 * how long the calling thread waits before checking again whether a found
+	 * justification can be reported
+	 */
+	private static final long RELEASE_WAIT_NANOS_ = 200000;
+
+	/**
+	 * how long a worker without jobs waits before trying to steal again
+	 */
+	private static final long IDLE_WAIT_NANOS_ = 50000;
+
+	private static final ParallelTopDownJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			Runtime.getRuntime().availableProcessors(),
+			ConclusionSelectionStrategies.INFERENCES);
+
+	private final ExecutorService executor_;
+
+	private final int nThreads_;
+
+	private final ConclusionSelectionStrategy strategy_;
+
+	// Statistics
+
+	private final StripedCounter producedJobsCount_ = new StripedCounter(),
+			nonMinimalJobsCount_ = new StripedCounter(),
+			stolenJobsCount_ = new StripedCounter();
+
+	private int maxPendingJustificationsCount_ = 0;
+
+	private ParallelTopDownJustificationComputation(
+			final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final InterruptMonitor monitor, final ExecutorService executor,
+			final int nThreads, final ConclusionSelectionStrategy strategy) {
+		super(proof, justifier, monitor);
+		this.executor_ = executor;
+		this.nThreads_ = nThreads;
+		this.strategy_ = strategy;
+	}
+
+	/**
+	 * @return the factory for computations that use as many threads as there
+	 *         are available processors and expand the premises with the fewest
+	 *         inferences first
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory() {
+		return (Factory<C, I, A>) FACTORY_;
+	}
+
+	/**
+	 * @param nThreads
+	 *            the number of threads used by the computations
+	 * @return the factory for computations that use the given number of
+	 *         threads; the threads are shared by all computations created by
+	 *         this factory
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final int nThreads) {
+		Preconditions.checkArgument(nThreads > 0);
+		return new Factory<>(nThreads, ConclusionSelectionStrategies.INFERENCES);
+	}
+
+	/**
+	 * @param strategy
+	 *            determines the premises to expand
+	 * @return the factory for computations that use as many threads as there
+	 *         are available processors and expand the premises with the
+	 *         smallest cost first
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final ConclusionSelectionStrategy strategy) {
+		Preconditions.checkNotNull(strategy);
+		return new Factory<>(Runtime.getRuntime().availableProcessors(),
+				strategy);
+	}
+
+	@Override
+	public MinimalSubsetEnumerator<A> newEnumerator(final C query) {
+		return new JustificationEnumerator(query);
+	}
+
+	@Stat
+	public int nThreads() {
+		return nThreads_;
+	}
+
+	@Stat
+	public long nProducedJobs() {
+		return producedJobsCount_.sum();
+	}
+
+	@Stat
+	public long nNonMinimalJobs() {
+		return nonMinimalJobsCount_.sum();
+	}
+
+	/**
+	 * @return the number of jobs taken by workers from the queues of other
+	 *         workers
+	 */
+	@Stat
+	public long nStolenJobs() {
+		return stolenJobsCount_.sum();
+	}
+
+	/**
+	 * @return the maximal number of found justifications that waited in the
+	 *         reorder buffer at the same time
+	 */
+	@Stat
+	public int maxNPendingJustifications() {
+		return maxPendingJustificationsCount_;
+	}
+
+	@ResetStats
+	public void resetStats() {
+		producedJobsCount_.reset();
+		nonMinimalJobsCount_.reset();
+		stolenJobsCount_.reset();
+		maxPendingJustificationsCount_ = 0;
+	}
+
+	@NestedStats
+	public static Class<?> getNestedStats() {
+		return BloomTrieCollection2.class;
+	}
+
+	private class JustificationEnumerator
+			extends AbstractMinimalSubsetEnumerator<A> {
+
+		private final C conclusion_;
+
+		/**
+		 * the inferences used for deriving {@link #conclusion_}; unlike the
+		 * proof, it can be read by several threads
+		 */
+		private InferenceGraph<C, I> graph_ = null;
+
+		/**
+		 * the costs of the conclusions of {@link #graph_} by their numbers
+		 */
+		private long[] costs_;
+
+		/**
+		 * the justifications of the inferences of {@link #graph_} by their
+		 * numbers
+		 */
+		private List<Set<? extends A>> inferenceJustifications_;
+
+		private JobFactory<A, ?> jobFactory_;
+
+		private List<Worker> workers_;
+
+		/**
+		 * the number of jobs that workers started to move from the queues of
+		 * other workers
+		 */
+		private final AtomicLong movedJobsCount_ = new AtomicLong();
+
+		/**
+		 * the number of jobs that are currently moved from the queue of one
+		 * worker to another worker; while it is positive, the job may be in
+		 * none of them
+		 */
+		private final AtomicInteger movingJobsCount_ = new AtomicInteger();
+
+		/**
+		 * Used to minimize the jobs
+		 */
+		private final SharedCollection2<Set<Object>> minimalJobs_ = new SharedCollection2<>();
+
+		/**
+		 * Used to discard the jobs whose justifications are supersets of found
+		 * justifications
+		 */
+		private final SharedCollection2<Set<A>> foundJustifications_ = new SharedCollection2<>();
+
+		/**
+		 * the number of jobs that are queued or processed by the workers
+		 */
+		private final AtomicInteger activeJobsCount_ = new AtomicInteger();
+
+		/**
+		 * guards {@link #pendingJustifications_}
+		 */
+		private final Lock pendingLock_ = new ReentrantLock();
+
+		private final Condition pendingChanged_ = pendingLock_.newCondition();
+
+		/**
+		 * the reorder buffer of found justifications that are not reported yet
+		 */
+		private final Queue<JobFactory<A, ?>.Job> pendingJustifications_ = new PriorityQueue<>();
+
+		/**
+		 * Used to minimize the reported justifications
+		 */
+		private final Collection2<Set<A>> reportedJustifications_ = new BloomTrieCollection2<>();
+
+		private volatile boolean stopped_;
+
+		private volatile Throwable failure_;
+
+		JustificationEnumerator(final C query) {
+			this.conclusion_ = query;
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator) {
+			Preconditions.checkNotNull(listener);
+			if (priorityComparator == null) {
+				enumerate(listener);
+				return;
+			}
+			// else
+			if (graph_ == null) {
+				this.graph_ = InferenceGraph.create(getProof(), conclusion_);
+				final ConclusionSelectionStrategy.Costs<C> costs = strategy_
+						.<C> getCosts(graph_);
+				this.costs_ = new long[graph_.size()];
+				for (int id = 0; id < costs_.length; id++) {
+					costs_[id] = costs.getCost(graph_.getConclusion(id));
+				}
+				this.inferenceJustifications_ = new ArrayList<>(
+						graph_.getInferenceCount());
+				for (int infId = 0; infId < graph_
+						.getInferenceCount(); infId++) {
+					inferenceJustifications_.add(getInferenceJustifier()
+							.getJustification(graph_.getInference(infId)));
+				}
+			}
+			this.jobFactory_ = JobFactory.create(priorityComparator);
+			this.minimalJobs_.clear();
+			this.foundJustifications_.clear();
+			this.pendingJustifications_.clear();
+			this.reportedJustifications_.clear();
+			this.stopped_ = false;
+			this.failure_ = null;
+			this.workers_ = new ArrayList<>(nThreads_);
+			for (int i = 0; i < nThreads_; i++) {
+				workers_.add(new Worker(i));
+			}
+			activeJobsCount_.set(1);
+			producedJobsCount_.increment();
+			// the query has number 0 in the graph
+			workers_.get(0).queue_.add(jobFactory_.newJob(0));
+
+			final List<Future<Void>> futures = new ArrayList<>(nThreads_);
+			try {
+				for (final Worker worker : workers_) {
+					futures.add(executor_.submit(worker));
+				}
+				report(listener);
+			} finally {
+				stop();
+				await(futures);
+			}
+			if (failure_ != null) {
+				throw new RuntimeException(failure_);
+			}
+		}
+
+		private void await(final List<Future<Void>> futures) {
+			boolean interrupted = false;
+			for (final Future<Void> future : futures) {
+				for (;;) {
+					try {
+						future.get();
+						break;
+					} catch (final InterruptedException e) {
+						interrupted = true;
+					} catch (final ExecutionException e) {
+						throw new RuntimeException(e.getCause());
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void stop() {
+			stopped_ = true;
+			signal();
+		}
+
+		private void signal() {
+			pendingLock_.lock();
+			try {
+				pendingChanged_.signal();
+			} finally {
+				pendingLock_.unlock();
+			}
+		}
+
+		/**
+		 * Reports the found justifications in the order of their priority
+		 * until the workers process all jobs.
+		 * 
+		 * @param listener
+		 */
+		private void report(final Listener<A> listener) {
+			final List<JobFactory<A, ?>.Job> released = new ArrayList<>();
+			/*
+			 * a lower bound for the priorities of the active jobs; it remains
+			 * such when the active jobs change, since the jobs produced by
+			 * expansion do not have smaller priorities, so the workers need to
+			 * be inspected only if it does not release the first pending job
+			 */
+			JobFactory<A, ?>.Job bound = null;
+			for (;;) {
+				if (stopped_ || isInterrupted()) {
+					return;
+				}
+				// else
+				boolean finished = activeJobsCount_.get() == 0;
+				final JobFactory<A, ?>.Job first = getFirstPending();
+				if (first == null && finished) {
+					// all jobs are processed
+					return;
+				}
+				// else
+				if (first != null && !finished
+						&& (bound == null || !first.precedes(bound))) {
+					bound = getFirstActiveJob();
+					finished = bound == null;
+				}
+				if (first == null || (!finished && !first.precedes(bound))) {
+					if (!awaitPending(first)) {
+						return;
+					}
+					// else
+					continue;
+				}
+				// else
+				pendingLock_.lock();
+				try {
+					for (;;) {
+						final JobFactory<A, ?>.Job next = pendingJustifications_
+								.peek();
+						if (next == null
+								|| (!finished && !next.precedes(bound))) {
+							break;
+						}
+						// else
+						released.add(pendingJustifications_.poll());
+					}
+				} finally {
+					pendingLock_.unlock();
+				}
+				for (final JobFactory<A, ?>.Job job : released) {
+					if (reportedJustifications_.isMinimal(job.justification_)) {
+						reportedJustifications_.add(job.justification_);
+						listener.newMinimalSubset(job.justification_);
+					}
+				}
+				released.clear();
+			}
+		}
+
+		private JobFactory<A, ?>.Job getFirstPending() {
+			pendingLock_.lock();
+			try {
+				return pendingJustifications_.peek();
+			} finally {
+				pendingLock_.unlock();
+			}
+		}
+
+		/**
+		 * Waits until the first pending justification changes, the workers
+		 * process all jobs, or the time for checking the priorities of the
+		 * active jobs again passes.
+		 * 
+		 * @param first
+		 *            the first pending justification or {@code null}
+		 * @return {@code false} if the calling thread was interrupted
+		 */
+		private boolean awaitPending(final JobFactory<A, ?>.Job first) {
+			pendingLock_.lock();
+			try {
+				if (pendingJustifications_.peek() == first
+						&& activeJobsCount_.get() > 0 && !stopped_) {
+					pendingChanged_.awaitNanos(RELEASE_WAIT_NANOS_);
+				}
+				return true;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} finally {
+				pendingLock_.unlock();
+			}
+		}
+
+		/**
+		 * Inspects the workers without blocking them; the inspection is
+		 * repeated if some job was moved between the workers meanwhile, since
+		 * the job could have been missed.
+		 * 
+		 * @return the job with the smallest priority among the jobs that are
+		 *         queued or processed by the workers, or {@code null} if there
+		 *         are no such jobs
+		 */
+		private JobFactory<A, ?>.Job getFirstActiveJob() {
+			for (;;) {
+				final long movedCount = movedJobsCount_.get();
+				if (movingJobsCount_.get() == 0) {
+					JobFactory<A, ?>.Job result = null;
+					for (final Worker worker : workers_) {
+						synchronized (worker) {
+							result = getFirst(result, worker.current_);
+							result = getFirst(result, worker.queue_.peek());
+						}
+					}
+					if (movedJobsCount_.get() == movedCount) {
+						return result;
+					}
+				}
+				// else
+				Thread.yield();
+			}
+		}
+
+		private JobFactory<A, ?>.Job getFirst(
+				final JobFactory<A, ?>.Job first,
+				final JobFactory<A, ?>.Job second) {
+			if (first == null) {
+				return second;
+			}
+			// else
+			if (second == null || !second.precedes(first)) {
+				return first;
+			}
+			// else
+			return second;
+		}
+
+		/**
+		 * @param conclusions
+		 *            the numbers of conclusions in {@link #graph_}
+		 * @return the number of the conclusion with the smallest cost
+		 */
+		private int chooseConclusion(final Collection<Integer> conclusions) {
+			int result = -1;
+			long resultRank = 0;
+			for (final int id : conclusions) {
+				final long rank = costs_[id];
+				if (result < 0 || rank < resultRank
+						|| (rank == resultRank && id < result)) {
+					result = id;
+					resultRank = rank;
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Takes the jobs from its own queue and, when this queue is empty,
+		 * from the queues of other workers.
+		 */
+		private class Worker implements Callable<Void> {
+
+			private final int index_;
+
+			/**
+			 * the jobs produced by this worker; guarded by this worker
+			 */
+			private final Queue<JobFactory<A, ?>.Job> queue_ = new PriorityQueue<>();
+
+			/**
+			 * the job processed by this worker or {@code null}; guarded by
+			 * this worker
+			 */
+			private JobFactory<A, ?>.Job current_ = null;
+
+			Worker(final int index) {
+				this.index_ = index;
+			}
+
+			@Override
+			public Void call() {
+				try {
+					process();
+				} catch (final Throwable e) {
+					failure_ = e;
+					stop();
+				}
+				return null;
+			}
+
+			private void process() {
+				while (!stopped_) {
+					if (isInterrupted()) {
+						stop();
+						break;
+					}
+					// else
+					final JobFactory<A, ?>.Job job = take();
+					if (job == null) {
+						if (activeJobsCount_.get() == 0) {
+							break;
+						}
+						// else
+						LockSupport.parkNanos(IDLE_WAIT_NANOS_);
+						continue;
+					}
+					// else
+					process(job);
+					synchronized (this) {
+						current_ = null;
+					}
+					if (activeJobsCount_.decrementAndGet() == 0) {
+						signal();
+					}
+				}
+			}
+
+			private JobFactory<A, ?>.Job take() {
+				JobFactory<A, ?>.Job result;
+				synchronized (this) {
+					result = queue_.poll();
+					current_ = result;
+				}
+				if (result != null) {
+					return result;
+				}
+				// else
+				for (int i = 1; i < workers_.size(); i++) {
+					final Worker victim = workers_
+							.get((index_ + i) % workers_.size());
+					synchronized (victim) {
+						if (victim.queue_.isEmpty()) {
+							continue;
+						}
+						// else
+						movingJobsCount_.incrementAndGet();
+						movedJobsCount_.incrementAndGet();
+						result = victim.queue_.poll();
+					}
+					synchronized (this) {
+						current_ = result;
+					}
+					movingJobsCount_.decrementAndGet();
+					stolenJobsCount_.increment();
+					return result;
+				}
+				return null;
+			}
+
+			private void process(final JobFactory<A, ?>.Job job) {
+				if (!foundJustifications_.isMinimal(job.justification_)
+						|| !minimalJobs_.addIfMinimal(job)) {
+					nonMinimalJobsCount_.increment();
+					return;
+				}
+				// else
+				if (job.premises_.isEmpty()) {
+					foundJustifications_.add(job.justification_);
+					addPending(job);
+					return;
+				}
+				// else
+				final int id = chooseConclusion(job.premises_);
+				final int infTo = graph_.getInferenceIdsTo(id);
+				for (int infId = graph_
+						.getInferenceIdsFrom(id); infId < infTo; infId++) {
+					produce(job.expand(graph_, infId,
+							inferenceJustifications_.get(infId)));
+				}
+			}
+
+			/**
+			 * Adds the given job obtained by expansion of the current job; the
+			 * current job remains active until the end of its processing, so
+			 * the job is not moved between the workers
+			 * 
+			 * @param job
+			 */
+			private void produce(final JobFactory<A, ?>.Job job) {
+				producedJobsCount_.increment();
+				activeJobsCount_.incrementAndGet();
+				synchronized (this) {
+					queue_.add(job);
+				}
+			}
+
+			private void addPending(final JobFactory<A, ?>.Job job) {
+				pendingLock_.lock();
+				try {
+					pendingJustifications_.add(job);
+					if (pendingJustifications_
+							.size() > maxPendingJustificationsCount_) {
+						maxPendingJustificationsCount_ = pendingJustifications_
+								.size();
+					}
+					pendingChanged_.signal();
+				} finally {
+					pendingLock_.unlock();
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * A {@link Collection2} that can be tested for minimality by several
+	 * threads concurrently. The elements are partitioned by their sizes, and
+	 * every partition has its own lock, so that a modification blocks only
+	 * the tests of the sets that are not smaller than the added element.
+	 * 
+	 * @param <E>
+	 *            the type of elements of the collection
+	 */
+	private static class SharedCollection2<E extends Set<?>> {
+
+		/**
+		 * the number of partitions; the last one contains all elements that
+		 * are not smaller than this number minus one
+		 */
+		private static final int STRIPE_COUNT_ = 16;
+
+		private final Stripe<E>[] stripes_;
+
+		@SuppressWarnings("unchecked")
+		SharedCollection2() {
+			this.stripes_ = new Stripe[STRIPE_COUNT_];
+			for (int i = 0; i < STRIPE_COUNT_; i++) {
+				stripes_[i] = new Stripe<>();
+			}
+		}
+
+		private Stripe<E> getStripe(final Set<?> set) {
+			return stripes_[Math.min(set.size(), STRIPE_COUNT_ - 1)];
+		}
+
+		boolean isMinimal(final Set<?> set) {
+			final int last = Math.min(set.size(), STRIPE_COUNT_ - 1);
+			for (int i = 0; i <= last; i++) {
+				if (!stripes_[i].isMinimal(set)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void add(final E element) {
+			getStripe(element).add(element);
+		}
+
+		/**
+		 * Adds the given element if the collection has no subset of it. Equal
+		 * elements are added at most once, but if two threads add an element
+		 * and its proper subset at the same time, both elements may be added.
+		 * 
+		 * @param element
+		 * @return {@code true} if the element was added
+		 */
+		boolean addIfMinimal(final E element) {
+			return isMinimal(element)
+					&& getStripe(element).addIfMinimal(element);
+		}
+
+		void clear() {
+			for (final Stripe<E> stripe : stripes_) {
+				stripe.clear();
+			}
+		}
+
+	}
+
+	/**
+	 * A partition of {@link SharedCollection2} guarded by its own lock
+	 * 
+	 * @param <E>
+	 *            the type of elements of the partition
+	 */
+	private static class Stripe<E extends Set<?>> {
+
+		private final Collection2<E> elements_ = new BloomTrieCollection2<>();
+
+		private final ReadWriteLock lock_ = new ReentrantReadWriteLock();
+
+		boolean isMinimal(final Set<?> set) {
+			lock_.readLock().lock();
+			try {
+				return elements_.isMinimal(set);
+			} finally {
+				lock_.readLock().unlock();
+			}
+		}
+
+		void add(final E element) {
+			lock_.writeLock().lock();
+			try {
+				elements_.add(element);
+			} finally {
+				lock_.writeLock().unlock();
+			}
+		}
+
+		boolean addIfMinimal(final E element) {
+			lock_.writeLock().lock();
+			try {
+				if (!elements_.isMinimal(element)) {
+					return false;
+				}
+				// else
+				elements_.add(element);
+				return true;
+			} finally {
+				lock_.writeLock().unlock();
+			}
+		}
+
+		void clear() {
+			lock_.writeLock().lock();
+			try {
+				elements_.clear();
+			} finally {
+				lock_.writeLock().unlock();
+			}
+		}
+
+	}
+
+	private static class JobFactory<A, P> {
+
+		private final PriorityComparator<? super Set<A>, P> priorityComparator_;
+
+		private JobFactory(
+				final PriorityComparator<? super Set<A>, P> priorityComparator) {
+			this.priorityComparator_ = priorityComparator;
+		}
+
+		public static <A, P> JobFactory<A, P> create(
+				final PriorityComparator<? super Set<A>, P> priorityComparator) {
+			return new JobFactory<>(priorityComparator);
+		}
+
+		/**
+		 * @param goal
+		 *            the number of the goal conclusion in the inference graph
+		 * @return the job for deriving the goal conclusion
+		 */
+		private Job newJob(final int goal) {
+			return new Job(Collections.singleton(goal),
+					Collections.<A> emptySet());
+		}
+
+		/**
+		 * A set of premises, identified by their numbers in the inference
+		 * graph, and justification that can be used for deriving the goal
+		 * conclusion.
+		 */
+		private class Job extends AbstractSet<Object>
+				implements Comparable<Job> {
+
+			private final Set<Integer> premises_;
+			private final Set<A> justification_;
+			private final P priority_;
+
+			private Job(final Set<Integer> premises,
+					final Set<A> justification) {
+				this.premises_ = premises;
+				this.justification_ = justification;
+				this.priority_ = priorityComparator_.getPriority(justification);
+			}
+
+			/**
+			 * @param graph
+			 *            the inference graph
+			 * @param infId
+			 *            the number of the inference in the graph
+			 * @param toExpand
+			 *            the justification of this inference
+			 * @return the job obtained by replacing the conclusion of the
+			 *         inference with its premises
+			 */
+			public Job expand(final InferenceGraph<?, ?> graph,
+					final int infId, final Set<? extends A> toExpand) {
+				final Set<Integer> newPremises = new HashSet<>(premises_);
+				newPremises.remove(graph.getConclusionId(infId));
+				final int slotsTo = graph.getSlotsTo(infId);
+				for (int slot = graph
+						.getSlotsFrom(infId); slot < slotsTo; slot++) {
+					newPremises.add(graph.getSlotPremiseId(slot));
+				}
+				Set<A> newJustification = justification_;
+				if (!newJustification.containsAll(toExpand)) {
+					newJustification = new HashSet<A>(
+							justification_.size() + toExpand.size());
+					newJustification.addAll(justification_);
+					newJustification.addAll(toExpand);
+				}
+				return new Job(newPremises, newJustification);
+			}
+
+			/**
+			 * @param other
+			 *            a job created by the same {@link JobFactory}
+			 * @return {@code true} if the priority of this job is smaller than
+			 *         the priority of the other job
+			 */
+			public boolean precedes(final JobFactory<?, ?>.Job other) {
+				@SuppressWarnings("unchecked")
+				final P otherPriority = (P) other.priority_;
+				return priorityComparator_.compare(priority_,
+						otherPriority) < 0;
+			}
+
+			@Override
+			public Iterator<Object> iterator() {
+				return Iterators.concat(premises_.iterator(),
+						Iterators.transform(justification_.iterator(),
+								new Function<A, Distinguisher>() {
+
+									@Override
+									public Distinguisher apply(final A axiom) {
+										return new Distinguisher(axiom);
+									}
+
+								}));
+			}
+
+			@Override
+			public boolean containsAll(final Collection<?> c) {
+				if (c instanceof JobFactory.Job) {
+					final JobFactory<?, ?>.Job other = (JobFactory<?, ?>.Job) c;
+					return premises_.containsAll(other.premises_)
+							&& justification_.containsAll(other.justification_);
+				}
+				// else
+				return super.containsAll(c);
+			}
+
+			@Override
+			public boolean contains(final Object o) {
+				if (o instanceof JobFactory.Distinguisher) {
+					@SuppressWarnings("unchecked")
+					final Distinguisher distinguisher = (Distinguisher) o;
+					return justification_.contains(distinguisher.getDelegate());
+				} else {
+					return premises_.contains(o);
+				}
+			}
+
+			@Override
+			public int size() {
+				return premises_.size() + justification_.size();
+			}
+
+			/**
+			 * Orders the jobs by priorities; for found justifications of the
+			 * same priority, the smaller ones come first, so that they are
+			 * reported before their supersets.
+			 */
+			@Override
+			public int compareTo(final Job other) {
+				int result = priorityComparator_.compare(priority_,
+						other.priority_);
+				if (result != 0) {
+					return result;
+				}
+				// else
+				result = Integer.compare(premises_.size(),
+						other.premises_.size());
+				if (result != 0) {
+					return result;
+				}
+				// else
+				return Integer.compare(justification_.size(),
+						other.justification_.size());
+			}
+
+		}
+
+		private class Distinguisher extends Delegator<A> {
+
+			public Distinguisher(final A delegate) {
+				super(delegate);
+			}
+
+		}
+
+	}
+
+	/**
+	 * The factory for creating a
+	 * {@link ParallelTopDownJustificationComputation}; the computations share
+	 * the threads of the factory, which terminate when they are idle.
+	 * 
+	 * @param <C>
+	 *            the type of conclusion and premises used by the inferences
+	 * @param <I>
+	 *            the type of inferences used in the proof
+	 * @param <A>
+	 *            the type of axioms used by the inferences
+	 */
+	private static class Factory<C, I extends Inference<? extends C>, A>
+			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
+
+		private final int nThreads_;
+
+		private final ConclusionSelectionStrategy strategy_;
+
+		private final ExecutorService executor_;
+
+		Factory(final int nThreads,
+				final ConclusionSelectionStrategy strategy) {
+			this.nThreads_ = nThreads;
+			this.strategy_ = strategy;
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					nThreads, nThreads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactoryBuilder().setDaemon(true)
+							.setNameFormat("top-down-worker-%d").build());
+			executor.allowCoreThreadTimeOut(true);
+			this.executor_ = executor;
+		}
+
+		@Override
+		public MinimalSubsetEnumerator.Factory<C, A> create(
+				final Proof<? extends I> proof,
+				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+				final InterruptMonitor monitor) {
+			return new ParallelTopDownJustificationComputation<>(proof,
+					justifier, monitor, executor_, nThreads_, strategy_);
+		}
+
+	}
+
+}
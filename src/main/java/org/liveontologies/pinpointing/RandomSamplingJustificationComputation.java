@@ -0,0 +1,422 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.collections.BloomTrieCollection2;
+import org.liveontologies.puli.collections.Collection2;
+import org.liveontologies.puli.pinpointing.AbstractMinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.statistics.ResetStats;
+import org.liveontologies.puli.statistics.Stat;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+/**
+ * Enumerates justifications in a random order determined by a seed, so that
+ * a few of them can be obtained quickly and they are not biased towards the
+ * smallest ones. A justification is sampled by deriving the query using only
+ * the inferences whose justifications do not contain some excluded axioms
+ * and removing the axioms used in this derivation in a random order, keeping
+ * the axioms without which the query cannot be derived. The sets of excluded
+ * axioms are the nodes of a hitting set tree: the children of a node exclude,
+ * in addition, one axiom of the justification sampled for it. The nodes are
+ * processed in a random order, so justifications from different parts of the
+ * tree are sampled early. Since every justification is sampled for some
+ * node, all justifications are eventually enumerated. The priority comparator
+ * passed to the enumerator is, thus, not used. If the size, the weight, or
+ * the number of the justifications is limited, the justifications that exceed
+ * the size or the weight limit are skipped as they are sampled, and the
+ * enumeration stops once the given number of justifications is reported; the
+ * reported justifications are, thus, not in the order of their priorities
+ * and need not be the smallest or the lightest ones.
+ * 
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class RandomSamplingJustificationComputation<C, I extends Inference<? extends C>, A>
+		extends MinimalSubsetsFromProofs<C, I, A> {
+
+	private static final long DEFAULT_SEED_ = 0;
+
+	private static final RandomSamplingJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			DEFAULT_SEED_);
+
+	/**
+	 * @return the factory for computations that use the default seed
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory() {
+		return (Factory<C, I, A>) FACTORY_;
+	}
+
+	/**
+	 * @param seed
+	 *            determines the order in which the justifications are
+	 *            enumerated
+	 * @return the factory for computations that use the given seed
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final long seed) {
+		return new Factory<>(seed);
+	}
+
+	private final long seed_;
+
+	// Statistics
+	private int nodesCount_ = 0, closedNodesCount_ = 0,
+			reusedJustificationsCount_ = 0, derivabilityChecksCount_ = 0,
+			justificationsCount_ = 0;
+
+	private RandomSamplingJustificationComputation(
+			final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+			final InterruptMonitor monitor, final long seed) {
+		super(proof, justifier, monitor);
+		this.seed_ = seed;
+	}
+
+	@Override
+	public MinimalSubsetEnumerator<A> newEnumerator(final C query) {
+		return new JustificationEnumerator(query);
+	}
+
+	private class JustificationEnumerator
+			extends AbstractMinimalSubsetEnumerator<A>
+			implements BoundedMinimalSubsetEnumerator<A> {
+
+		private final C query_;
+
+		private InferenceGraph<C, I> graph_ = null;
+
+		/**
+		 * the sets of excluded axioms of the nodes to be processed
+		 */
+		private final List<Set<A>> toDoNodes_ = new ArrayList<>();
+
+		/**
+		 * the sets of excluded axioms of the nodes that were processed
+		 */
+		private final Set<Set<A>> processedNodes_ = new HashSet<>();
+
+		/**
+		 * the sets of excluded axioms without which the query cannot be
+		 * derived
+		 */
+		private final Collection2<Set<A>> closedNodes_ = new BloomTrieCollection2<>();
+
+		private final List<Set<A>> justifications_ = new ArrayList<>();
+
+		private Random random_;
+
+		JustificationEnumerator(final C query) {
+			this.query_ = query;
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator) {
+			Preconditions.checkNotNull(listener);
+			sampleAll(listener, Predicates.<Set<A>> alwaysTrue(),
+					Integer.MAX_VALUE);
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final PriorityComparator<? super Set<A>, ?> priorityComparator,
+				final int sizeLimit, final int countLimit) {
+			Preconditions.checkNotNull(listener);
+			// larger justifications are skipped, but their nodes are still
+			// expanded to find the smaller ones
+			sampleAll(listener, new Predicate<Set<A>>() {
+
+				@Override
+				public boolean apply(final Set<A> just) {
+					return just.size() <= sizeLimit;
+				}
+
+			}, countLimit);
+		}
+
+		@Override
+		public void enumerate(final Listener<A> listener,
+				final AxiomWeights weights, final long weightLimit,
+				final int countLimit) {
+			Preconditions.checkNotNull(listener);
+			Preconditions.checkNotNull(weights);
+			sampleAll(listener, new Predicate<Set<A>>() {
+
+				@Override
+				public boolean apply(final Set<A> just) {
+					return weights.getWeight(just) <= weightLimit;
+				}
+
+			}, countLimit);
+		}
+
+		/**
+		 * Notifies the listener about the justifications that satisfy the
+		 * given condition in the order in which they are sampled.
+		 * 
+		 * @param listener
+		 * @param condition
+		 * @param countLimit
+		 *            the sampling stops after this many justifications are
+		 *            reported
+		 */
+		private void sampleAll(final Listener<A> listener,
+				final Predicate<? super Set<A>> condition,
+				final int countLimit) {
+			if (graph_ == null) {
+				graph_ = InferenceGraph.create(getProof(), query_);
+			}
+			this.random_ = new Random(seed_);
+			this.toDoNodes_.clear();
+			this.processedNodes_.clear();
+			this.closedNodes_.clear();
+			this.justifications_.clear();
+
+			int reportedCount = 0;
+			toDoNodes_.add(Collections.<A> emptySet());
+			while (!toDoNodes_.isEmpty() && reportedCount < countLimit) {
+				if (isInterrupted()) {
+					break;
+				}
+				// else
+				final Set<A> excluded = pollRandom(toDoNodes_);
+				if (!processedNodes_.add(excluded)) {
+					continue;
+				}
+				// else
+				nodesCount_++;
+				Set<A> just = getReusable(excluded);
+				if (just == null) {
+					if (!closedNodes_.isMinimal(excluded)) {
+						// a subset of the excluded axioms is already closed
+						closedNodesCount_++;
+						continue;
+					}
+					// else
+					just = sample(excluded);
+					if (just == null) {
+						closedNodesCount_++;
+						closedNodes_.add(excluded);
+						continue;
+					}
+					// else
+					justifications_.add(just);
+					justificationsCount_++;
+					if (condition.apply(just)) {
+						listener.newMinimalSubset(just);
+						reportedCount++;
+					}
+				} else {
+					reusedJustificationsCount_++;
+				}
+				for (final A axiom : just) {
+					final Set<A> childExcluded = new HashSet<>(excluded);
+					childExcluded.add(axiom);
+					if (!processedNodes_.contains(childExcluded)) {
+						toDoNodes_.add(childExcluded);
+					}
+				}
+			}
+		}
+
+		private <E> E pollRandom(final List<E> list) {
+			final int last = list.size() - 1;
+			final int index = random_.nextInt(list.size());
+			final E result = list.get(index);
+			list.set(index, list.get(last));
+			list.remove(last);
+			return result;
+		}
+
+		/**
+		 * @param excluded
+		 * @return a justification found before that does not contain the
+		 *         excluded axioms or {@code null} if there is none
+		 */
+		private Set<A> getReusable(final Set<A> excluded) {
+			for (final Set<A> just : justifications_) {
+				if (Collections.disjoint(just, excluded)) {
+					return just;
+				}
+			}
+			// else
+			return null;
+		}
+
+		/**
+		 * @param excluded
+		 * @return a random justification of the query that does not contain
+		 *         the excluded axioms or {@code null} if there is none
+		 */
+		private Set<A> sample(final Set<A> excluded) {
+			derivabilityChecksCount_++;
+			final int[] derivation = graph_.derive(new Predicate<I>() {
+
+				@Override
+				public boolean apply(final I inference) {
+					return Collections.disjoint(getJustification(inference),
+							excluded);
+				}
+
+			}, 0);
+			if (derivation[0] < 0) {
+				return null;
+			}
+			// else only the axioms used in the derivation are minimized
+			final Set<A> result = getAxioms(derivation);
+			final Predicate<I> condition = new Predicate<I>() {
+
+				@Override
+				public boolean apply(final I inference) {
+					return result.containsAll(getJustification(inference));
+				}
+
+			};
+			final List<A> candidates = new ArrayList<>(result);
+			Collections.shuffle(candidates, random_);
+			for (final A axiom : candidates) {
+				result.remove(axiom);
+				derivabilityChecksCount_++;
+				if (!graph_.isDerivable(0, condition)) {
+					result.add(axiom);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * @param derivation
+		 *            the result of
+		 *            {@link InferenceGraph#derive(Predicate, int)} in which
+		 *            the query is derived
+		 * @return the axioms used in the derivation of the query
+		 */
+		private Set<A> getAxioms(final int[] derivation) {
+			final Set<A> result = new HashSet<>();
+			for (final int infId : graph_.getDerivationInferenceIds(0,
+					derivation)) {
+				result.addAll(getJustification(graph_.getInference(infId)));
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * @return the number of processed nodes of the hitting set trees
+	 */
+	@Stat
+	public int nNodes() {
+		return nodesCount_;
+	}
+
+	/**
+	 * @return the number of nodes for which the query is not derivable
+	 */
+	@Stat
+	public int nClosedNodes() {
+		return closedNodesCount_;
+	}
+
+	/**
+	 * @return the number of nodes for which a justification sampled for
+	 *         another node was used
+	 */
+	@Stat
+	public int nReusedJustifications() {
+		return reusedJustificationsCount_;
+	}
+
+	@Stat
+	public int nDerivabilityChecks() {
+		return derivabilityChecksCount_;
+	}
+
+	@Stat
+	public int nJustifications() {
+		return justificationsCount_;
+	}
+
+	@ResetStats
+	public void resetStats() {
+		nodesCount_ = 0;
+		closedNodesCount_ = 0;
+		reusedJustificationsCount_ = 0;
+		derivabilityChecksCount_ = 0;
+		justificationsCount_ = 0;
+	}
+
+	/**
+	 * The factory for {@link RandomSamplingJustificationComputation}s.
+	 * 
+	 * @param <C>
+	 *            the type of conclusion and premises used by the inferences
+	 * @param <I>
+	 *            the type of inferences used in proofs
+	 * @param <A>
+	 *            the type of axioms used by the inferences
+	 */
+	private static class Factory<C, I extends Inference<? extends C>, A>
+			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
+
+		private final long seed_;
+
+		Factory(final long seed) {
+			this.seed_ = seed;
+		}
+
+		@Override
+		public MinimalSubsetEnumerator.Factory<C, A> create(
+				final Proof<? extends I> proof,
+				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
+				final InterruptMonitor monitor) {
+			return new RandomSamplingJustificationComputation<>(proof,
+					justifier, monitor, seed_);
+		}
+
+	}
+
+}
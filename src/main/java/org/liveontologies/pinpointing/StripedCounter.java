@@ -0,0 +1,69 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that can be incremented by several threads concurrently. Threads
+ * increment different cells chosen by their identifiers, which are placed in
+ * different cache lines, and the value of the counter is the sum of the cells.
+ */
+class StripedCounter {
+
+	/**
+	 * the distance between the cells, so that they do not share a cache line
+	 */
+	private static final int PADDING_ = 8;
+
+	private static final int STRIPES_ = Integer.highestOneBit(
+			Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+	private final AtomicLongArray cells_ = new AtomicLongArray(
+			STRIPES_ * PADDING_);
+
+	void increment() {
+		add(1);
+	}
+
+	void add(final long n) {
+		final int stripe = (int) Thread.currentThread().getId()
+				& (STRIPES_ - 1);
+		cells_.addAndGet(stripe * PADDING_, n);
+	}
+
+	long sum() {
+		long result = 0;
+		for (int i = 0; i < STRIPES_; i++) {
+			result += cells_.get(i * PADDING_);
+		}
+		return result;
+	}
+
+	void reset() {
+		for (int i = 0; i < STRIPES_; i++) {
+			cells_.set(i * PADDING_, 0);
+		}
+	}
+
+}
@@ -23,11 +23,15 @@ package org.liveontologies.pinpointing;
  */
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
@@ -52,6 +56,14 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 
 /**
+ * Computes justifications by expanding sets of premises top-down starting
+ * from the goal conclusion. The premise sets and justifications of jobs are
+ * hash-consed, so that a job is identified by the numbers of its canonical
+ * premise set and justification, and a job is produced at most once during an
+ * enumeration. The expansions of premise sets, i.e., the premise sets obtained
+ * by unfolding the chosen premise with each of its inferences, depend only on
+ * the proof and are memoized for all enumerations of the same enumerator;
+ * the tables are released together with the enumerator.
  * 
  * @author Peter Skocovsky
  *
@@ -65,13 +77,35 @@ import com.google.common.collect.Iterators;
 public class TopDownJustificationComputation<C, I extends Inference<? extends C>, A>
 		extends MinimalSubsetsFromProofs<C, I, A> {
 
-	private static final TopDownJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>();
+	private static final TopDownJustificationComputation.Factory<?, ?, ?> FACTORY_ = new Factory<>(
+			ConclusionSelectionStrategies.INFERENCES);
 
+	/**
+	 * @return the factory for computations that expand the premises with the
+	 *         fewest inferences first
+	 */
 	@SuppressWarnings("unchecked")
 	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory() {
 		return (Factory<C, I, A>) FACTORY_;
 	}
 
+	/**
+	 * @param strategy
+	 *            determines the premises to expand
+	 * @return the factory for computations that expand the premises with the
+	 *         smallest cost first
+	 */
+	public static <C, I extends Inference<? extends C>, A> MinimalSubsetsFromProofs.Factory<C, I, A> getFactory(
+			final ConclusionSelectionStrategy strategy) {
+		Preconditions.checkNotNull(strategy);
+		return new Factory<>(strategy);
+	}
+
+	/**
+	 * the costs of the conclusions computed so far
+	 */
+	private final Map<C, Long> costs_ = new HashMap<>();
+
 	/**
 	 * used to select the conclusion to expand
 	 */
@@ -79,23 +113,37 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 
 	// Statistics
 	private int producedJobsCount_ = 0, nonMinimalJobsCount_ = 0,
-			expansionCount_ = 0, expandedInferencesCount_ = 0;
+			expansionCount_ = 0, expandedInferencesCount_ = 0,
+			duplicateJobsCount_ = 0, memoHitsCount_ = 0,
+			justificationsCount_ = 0, memoizedPremiseSetsCount_ = 0,
+			canonicalPremiseSetsCount_ = 0, canonicalJustificationsCount_ = 0;
 
 	private TopDownJustificationComputation(final Proof<? extends I> proof,
 			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
-			final InterruptMonitor monitor) {
+			final InterruptMonitor monitor,
+			final ConclusionSelectionStrategy strategy) {
 		super(proof, justifier, monitor);
+		final ConclusionSelectionStrategy.Costs<C> costs = strategy
+				.<C> getCosts(proof);
 		this.rank_ = new Comparator<C>() {
 			@Override
 			public int compare(final C first, final C second) {
-				int result = Integer.compare(proof.getInferences(first).size(),
-						proof.getInferences(second).size());
+				int result = Long.compare(getCost(first), getCost(second));
 				if (result != 0) {
 					return result;
 				}
 				// else
 				return Integer.compare(first.hashCode(), second.hashCode());
 			}
+
+			private long getCost(final C conclusion) {
+				Long result = costs_.get(conclusion);
+				if (result == null) {
+					result = costs.getCost(conclusion);
+					costs_.put(conclusion, result);
+				}
+				return result;
+			}
 		};
 	}
 
@@ -109,6 +157,23 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 
 		private final C conclusion_;
 
+		/**
+		 * the canonical premise sets of jobs
+		 */
+		private final SetTable<C> premiseSets_ = new SetTable<>();
+
+		/**
+		 * the canonical justifications of jobs
+		 */
+		private final SetTable<A> justifications_ = new SetTable<>();
+
+		/**
+		 * {@code expansions_.get(n)} are the expansions of the premise set
+		 * with number {@code n} in {@link #premiseSets_} or {@code null} if
+		 * this premise set was not expanded yet
+		 */
+		private final List<List<Expansion<I>>> expansions_ = new ArrayList<>();
+
 		/**
 		 * newly computed jobs to be propagated
 		 */
@@ -121,6 +186,11 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 
 		private final Collection2<Set<A>> minimalJustifications_ = new BloomTrieCollection2<>();
 
+		/**
+		 * the keys of the jobs produced during the enumeration
+		 */
+		private final LongHashSet producedJobs_ = new LongHashSet();
+
 		private Listener<A> listener_ = null;
 
 		private JobFactory<C, I, A, ?> jobFactory_;
@@ -142,17 +212,30 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 			this.toDoJobs_ = new PriorityQueue<>();
 			this.minimalJobs_.clear();
 			this.minimalJustifications_.clear();
-			this.jobFactory_ = JobFactory.create(priorityComparator);
+			this.producedJobs_.clear();
+			this.jobFactory_ = JobFactory.create(priorityComparator,
+					premiseSets_, justifications_);
 			this.listener_ = listener;
 
 			initialize(conclusion_);
 			process();
 
 			this.listener_ = null;
+			int memoized = 0;
+			for (final List<Expansion<I>> expansions : expansions_) {
+				if (expansions != null) {
+					memoized++;
+				}
+			}
+			memoizedPremiseSetsCount_ = memoized;
+			canonicalPremiseSetsCount_ = premiseSets_.size();
+			canonicalJustificationsCount_ = justifications_.size();
 		}
 
 		private void initialize(final C goal) {
-			produce(jobFactory_.newJob(goal));
+			produce(jobFactory_.newJob(
+					premiseSets_.intern(Collections.singleton(goal)),
+					justifications_.intern(Collections.<A> emptySet())));
 		}
 
 		private void process() {
@@ -164,17 +247,18 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 					minimalJobs_.add(job);
 					if (job.premises_.isEmpty()) {
 						minimalJustifications_.add(job.justification_);
+						justificationsCount_++;
 						if (listener_ != null) {
 							listener_.newMinimalSubset(job.justification_);
 						}
 					} else {
 						expansionCount_++;
-						for (final I inf : getInferences(
-								chooseConclusion(job.premises_))) {
+						for (final Expansion<I> expansion : getExpansions(
+								job.premisesId_)) {
 							expandedInferencesCount_++;
-							final JobFactory<C, I, A, ?>.Job newJob = job
-									.expand(inf, getInferenceJustifier());
-							produce(newJob);
+							produce(jobFactory_.newJob(expansion.premisesId_,
+									getJustification(job.justificationId_,
+											expansion.inference_)));
 						}
 					}
 				} else {
@@ -199,7 +283,56 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 			return result;
 		}
 
+		private List<Expansion<I>> getExpansions(final int premisesId) {
+			while (expansions_.size() <= premisesId) {
+				expansions_.add(null);
+			}
+			List<Expansion<I>> result = expansions_.get(premisesId);
+			if (result != null) {
+				memoHitsCount_++;
+				return result;
+			}
+			// else
+			final Set<C> premises = premiseSets_.get(premisesId);
+			final C conclusion = chooseConclusion(premises);
+			result = new ArrayList<>();
+			for (final I inf : getInferences(conclusion)) {
+				final Set<C> newPremises = new HashSet<>(premises);
+				newPremises.remove(conclusion);
+				newPremises.addAll(inf.getPremises());
+				result.add(new Expansion<I>(inf,
+						premiseSets_.intern(newPremises)));
+			}
+			expansions_.set(premisesId, result);
+			return result;
+		}
+
+		/**
+		 * @return the number of the union of the justification with the given
+		 *         number and the justification of the given inference
+		 */
+		private int getJustification(final int justificationId,
+				final I inference) {
+			final Set<A> justification = justifications_.get(justificationId);
+			final Set<? extends A> toExpand = getInferenceJustifier()
+					.getJustification(inference);
+			if (justification.containsAll(toExpand)) {
+				return justificationId;
+			}
+			// else
+			final Set<A> union = new HashSet<A>(
+					justification.size() + toExpand.size());
+			union.addAll(justification);
+			union.addAll(toExpand);
+			return justifications_.intern(union);
+		}
+
 		private void produce(final JobFactory<C, I, A, ?>.Job job) {
+			if (!producedJobs_.add(job.getKey())) {
+				duplicateJobsCount_++;
+				return;
+			}
+			// else
 			producedJobsCount_++;
 			toDoJobs_.add(job);
 		}
@@ -221,12 +354,69 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 		return ((double) expandedInferencesCount_) / expansionCount_;
 	}
 
+	/**
+	 * @return the number of expanded jobs per computed justification
+	 */
+	@Stat
+	public double ratioExpansionsPerJustification() {
+		return ((double) expansionCount_) / justificationsCount_;
+	}
+
+	/**
+	 * @return the number of jobs that were not produced because the same job
+	 *         was already produced
+	 */
+	@Stat
+	public int nDuplicateJobs() {
+		return duplicateJobsCount_;
+	}
+
+	/**
+	 * @return the fraction of expansions of premise sets taken from the memo
+	 *         table
+	 */
+	@Stat
+	public double ratioMemoHits() {
+		return ((double) memoHitsCount_) / expansionCount_;
+	}
+
+	/**
+	 * @return the number of premise sets whose expansions are memoized by the
+	 *         last enumerator
+	 */
+	@Stat
+	public int nMemoizedPremiseSets() {
+		return memoizedPremiseSetsCount_;
+	}
+
+	/**
+	 * @return the number of canonical premise sets of the last enumerator
+	 */
+	@Stat
+	public int nCanonicalPremiseSets() {
+		return canonicalPremiseSetsCount_;
+	}
+
+	/**
+	 * @return the number of canonical justifications of the last enumerator
+	 */
+	@Stat
+	public int nCanonicalJustifications() {
+		return canonicalJustificationsCount_;
+	}
+
 	@ResetStats
 	public void resetStats() {
 		producedJobsCount_ = 0;
 		nonMinimalJobsCount_ = 0;
 		expansionCount_ = 0;
 		expandedInferencesCount_ = 0;
+		duplicateJobsCount_ = 0;
+		memoHitsCount_ = 0;
+		justificationsCount_ = 0;
+		memoizedPremiseSetsCount_ = 0;
+		canonicalPremiseSetsCount_ = 0;
+		canonicalJustificationsCount_ = 0;
 	}
 
 	@NestedStats
@@ -234,23 +424,93 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 		return BloomTrieCollection2.class;
 	}
 
+	/**
+	 * Assigns consecutive numbers to sets and keeps one canonical instance of
+	 * equal sets.
+	 *
+	 * @param <E>
+	 *            the type of elements of the sets
+	 */
+	private static class SetTable<E> {
+
+		private final Map<Set<E>, Integer> ids_ = new HashMap<>();
+
+		private final List<Set<E>> sets_ = new ArrayList<>();
+
+		/**
+		 * @param set
+		 * @return the number of the canonical set equal to the given set; if
+		 *         there is no such set, the given set becomes canonical
+		 */
+		int intern(final Set<E> set) {
+			Integer result = ids_.get(set);
+			if (result == null) {
+				result = sets_.size();
+				ids_.put(set, result);
+				sets_.add(set);
+			}
+			return result;
+		}
+
+		Set<E> get(final int id) {
+			return sets_.get(id);
+		}
+
+		int size() {
+			return sets_.size();
+		}
+
+	}
+
+	/**
+	 * The premise set obtained by unfolding a premise using an inference.
+	 *
+	 * @param <I>
+	 *            the type of inferences
+	 */
+	private static class Expansion<I> {
+
+		private final I inference_;
+
+		/**
+		 * the number of the resulting canonical premise set
+		 */
+		private final int premisesId_;
+
+		Expansion(final I inference, final int premisesId) {
+			this.inference_ = inference;
+			this.premisesId_ = premisesId;
+		}
+
+	}
+
 	private static class JobFactory<C, I extends Inference<? extends C>, A, P> {
 
 		private final PriorityComparator<? super Set<A>, P> priorityComparator_;
 
+		private final SetTable<C> premiseSets_;
+
+		private final SetTable<A> justifications_;
+
 		private JobFactory(
-				final PriorityComparator<? super Set<A>, P> priorityComparator) {
+				final PriorityComparator<? super Set<A>, P> priorityComparator,
+				final SetTable<C> premiseSets,
+				final SetTable<A> justifications) {
 			this.priorityComparator_ = priorityComparator;
+			this.premiseSets_ = premiseSets;
+			this.justifications_ = justifications;
 		}
 
 		public static <C, I extends Inference<? extends C>, A, P> JobFactory<C, I, A, P> create(
-				final PriorityComparator<? super Set<A>, P> priorityComparator) {
-			return new JobFactory<>(priorityComparator);
+				final PriorityComparator<? super Set<A>, P> priorityComparator,
+				final SetTable<C> premiseSets,
+				final SetTable<A> justifications) {
+			return new JobFactory<>(priorityComparator, premiseSets,
+					justifications);
 		}
 
-		private Job newJob(final C goal) {
-			return new Job(Collections.singleton(goal),
-					Collections.<A> emptySet());
+		private Job newJob(final int premisesId, final int justificationId) {
+			return new Job(premisesId, justificationId);
 		}
 
 		/**
@@ -263,32 +523,26 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 		private class Job extends AbstractSet<Object>
 				implements Comparable<Job> {
 
+			private final int premisesId_, justificationId_;
 			private final Set<C> premises_;
 			private final Set<A> justification_;
 			private final P priority_;
 
-			private Job(final Set<C> premises, final Set<A> justification) {
-				this.premises_ = premises;
-				this.justification_ = justification;
-				this.priority_ = priorityComparator_.getPriority(justification);
+			private Job(final int premisesId, final int justificationId) {
+				this.premisesId_ = premisesId;
+				this.justificationId_ = justificationId;
+				this.premises_ = premiseSets_.get(premisesId);
+				this.justification_ = justifications_.get(justificationId);
+				this.priority_ = priorityComparator_
+						.getPriority(justification_);
 			}
 
-			public Job expand(final I inference,
-					final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
-				final Set<C> newPremises = new HashSet<>(premises_);
-				newPremises.remove(inference.getConclusion());
-				newPremises.addAll(inference.getPremises());
-				Set<A> newJustification = justification_;
-				Set<? extends A> toExpand = justifier
-						.getJustification(inference);
-				if (newJustification.containsAll(toExpand)) {
-					newJustification = justification_;
-				} else {
-					newJustification = new HashSet<A>(justification_.size());
-					newJustification.addAll(justification_);
-					newJustification.addAll(toExpand);
-				}
-				return new Job(newPremises, newJustification);
+			/**
+			 * @return the key identifying the canonical premise set and
+			 *         justification of this job
+			 */
+			long getKey() {
+				return ((long) premisesId_ << 32) | justificationId_;
 			}
 
 			@Override
@@ -382,13 +636,19 @@ public class TopDownJustificationComputation<C, I extends Inference<? extends C>
 	private static class Factory<C, I extends Inference<? extends C>, A>
 			implements MinimalSubsetsFromProofs.Factory<C, I, A> {
 
+		private final ConclusionSelectionStrategy strategy_;
+
+		Factory(final ConclusionSelectionStrategy strategy) {
+			this.strategy_ = strategy;
+		}
+
 		@Override
 		public MinimalSubsetEnumerator.Factory<C, A> create(
 				final Proof<? extends I> proof,
 				final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier,
 				final InterruptMonitor monitor) {
 			return new TopDownJustificationComputation<>(proof, justifier,
-					monitor);
+					monitor, strategy_);
 		}
 
 	}
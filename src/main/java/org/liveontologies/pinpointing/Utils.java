@@ -45,12 +45,22 @@ import org.liveontologies.proofs.JustificationCompleteProof;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.InferenceJustifier;
 import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.pinpointing.PriorityComparator;
+import org.liveontologies.puli.pinpointing.PriorityComparators;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 
 public final class Utils {
 
+	/**
+	 * the class of the comparators created by
+	 * {@link PriorityComparators#cardinality()}; they do not have a state, so
+	 * they define the same order
+	 */
+	private static final Class<?> CARDINALITY_CLASS_ = PriorityComparators
+			.cardinality().getClass();
+
 	private Utils() {
 		// Empty.
 	}
@@ -182,6 +192,19 @@ public final class Utils {
 		}
 	}
 
+	/**
+	 * @param first
+	 * @param second
+	 * @return {@code true} if the given comparators are known to define the
+	 *         same order of sets, so the sets computed in the order of one of
+	 *         them are also in the order of the other
+	 */
+	public static boolean isSameOrder(final PriorityComparator<?, ?> first,
+			final PriorityComparator<?, ?> second) {
+		return first.equals(second) || first.getClass() == CARDINALITY_CLASS_
+				&& second.getClass() == CARDINALITY_CLASS_;
+	}
+
 	/**
 	 * Checks if the given justification has a subset in the given collection of
 	 * justifications
@@ -262,6 +285,40 @@ public final class Utils {
 		return result;
 	}
 
+	/**
+	 * Joins the given justification with the given collections of
+	 * justifications lazily, see {@link JustificationJoin}.
+	 * 
+	 * @param first
+	 *            the justification from which the conclusion is copied
+	 * @param factors
+	 * @param target
+	 *            the justifications of the conclusion; the unions that are
+	 *            not minimal with respect to them are not returned
+	 * @param sizeLimit
+	 *            the unions larger than this are not returned
+	 * @param stats
+	 *            the statistics in which the unions are counted
+	 * @return the unions of the first justification with one justification
+	 *         from each of the factors that are minimal with respect to the
+	 *         target justifications and not larger than the size limit
+	 */
+	public static <C, T> Iterable<Justification<C, T>> join(
+			final Justification<C, T> first,
+			final List<? extends Collection<? extends Justification<C, T>>> factors,
+			final BloomTrieList<?> target, final int sizeLimit,
+			final JoinStatistics stats) {
+		return new Iterable<Justification<C, T>>() {
+
+			@Override
+			public Iterator<Justification<C, T>> iterator() {
+				return new JustificationJoin<C, T>(first, factors, target,
+						sizeLimit, stats);
+			}
+
+		};
+	}
+
 	/**
 	 * FIXME: The order of arguments matter !!! The conclusion is copied from
 	 * the justifications in the first argument, but not from the second!
@@ -31,12 +31,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
+import org.liveontologies.pinpointing.AxiomWeights;
+import org.liveontologies.pinpointing.JustificationCountEstimator;
 import org.liveontologies.pinpointing.RunJustificationExperiments;
 import org.liveontologies.pinpointing.Utils;
+import org.liveontologies.proofs.BaseJustificationCompleteProof;
+import org.liveontologies.proofs.FrozenProof;
 import org.liveontologies.proofs.JustificationCompleteProof;
 import org.liveontologies.proofs.ProofProvider;
+import org.liveontologies.proofs.adapters.DominatedInferenceRemovingProofAdapter;
+import org.liveontologies.proofs.adapters.Proofs;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.InferenceJustifier;
 import org.liveontologies.puli.Proof;
@@ -50,6 +57,7 @@ import org.slf4j.LoggerFactory;
 
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.annotation.Arg;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 
@@ -63,9 +71,30 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 
 	public static final String SAVE_OPT = "s";
 
+	public static final String ESTIMATE_OPT = "estimate";
+
+	public static final String WEIGHTS_OPT = "weights";
+
+	public static final String FREEZE_OPT = "freeze";
+
+	public static final String PRUNE_DOMINATED_OPT = "prune-dominated";
+
+	/**
+	 * the maximal number of justifications sampled for an estimate
+	 */
+	private static final int ESTIMATE_MAX_SAMPLES_ = 1000;
+
 	public static class Options {
 		@Arg(dest = SAVE_OPT)
 		public File outputDir;
+		@Arg(dest = ESTIMATE_OPT)
+		public Long estimateBudget;
+		@Arg(dest = WEIGHTS_OPT)
+		public File weightsFile;
+		@Arg(dest = FREEZE_OPT)
+		public boolean freeze;
+		@Arg(dest = PRUNE_DOMINATED_OPT)
+		public boolean pruneDominated;
 	}
 
 	private File outputDir_;
@@ -77,12 +106,20 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 	private ProofProvider<String, C, I, A> proofProvider_ = null;
 	private JustificationCompleteProof<C, I, A> proof_;
 	private volatile long runStartTimeNanos_;
+	private Long estimateBudgetMillis_;
+	private AxiomWeights weights_;
+	private boolean freeze_;
+	private boolean pruneDominated_;
+	private DominatedInferenceRemovingProofAdapter<I, A> dominatedInferenceRemover_ = null;
 
 	private JustificationCounter justificationListener_;
 
 	// Statistics
 	private int minJustSizeize_, maxJustSize_;
 	private double obtainingInferencesTimeMillis_;
+	private double estimateTimeMillis_;
+	private double freezingTimeMillis_;
+	private long estimatedNJust_, nJustLowerBound_, nJustUpperBound_;
 	private double firstQuartileJustSize_, medianJustSize_, meanJustSize_,
 			thirdQuartileJustSize_;
 	@Stat
@@ -99,6 +136,15 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 				.newArgumentParser(getClass().getSimpleName());
 		parser.addArgument("-" + SAVE_OPT).type(File.class).help(
 				"if provided, save justification into specified directory");
+		parser.addArgument("--" + ESTIMATE_OPT).type(Long.class).help(
+				"if provided, estimate the number of justifications before computing them within the specified number of milliseconds");
+		parser.addArgument("--" + WEIGHTS_OPT).type(File.class).help(
+				"if provided, enumerate justifications in the order of the sums of the weights of axioms from the specified file; the axioms not in the file weigh 1");
+		parser.addArgument("--" + FREEZE_OPT).action(Arguments.storeTrue())
+				.help("if provided, the computations run over a snapshot of the proof of each query taken before the experiment");
+		parser.addArgument("--" + PRUNE_DOMINATED_OPT)
+				.action(Arguments.storeTrue())
+				.help("if provided, the inferences whose premises and justifications include those of another inference of the same conclusion are removed from the proofs");
 
 		addArguments(parser);
 
@@ -109,6 +155,15 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 
 			LOGGER_.info("outputDir: {}", options.outputDir);
 			this.outputDir_ = options.outputDir;
+			LOGGER_.info("estimateBudget: {}", options.estimateBudget);
+			this.estimateBudgetMillis_ = options.estimateBudget;
+			LOGGER_.info("weightsFile: {}", options.weightsFile);
+			this.weights_ = options.weightsFile == null ? null
+					: AxiomWeights.load(options.weightsFile, 1);
+			LOGGER_.info("freeze: {}", options.freeze);
+			this.freeze_ = options.freeze;
+			LOGGER_.info("pruneDominated: {}", options.pruneDominated);
+			this.pruneDominated_ = options.pruneDominated;
 			if (outputDir_ == null) {
 				this.justificationListener_ = new JustificationCounter();
 				this.indexWriter_ = null;
@@ -160,6 +215,23 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 	 */
 	protected abstract void init(O options) throws ExperimentException;
 
+	/**
+	 * @param options
+	 * @return The descriptions of the proofs and the justifier used for the
+	 *         experiments followed by the descriptions of the adapters applied
+	 *         to the proofs, in the order of application.
+	 */
+	protected List<String> getProofPipeline(final O options) {
+		final List<String> result = new ArrayList<String>();
+		if (options.pruneDominated) {
+			result.add(PRUNE_DOMINATED_OPT);
+		}
+		if (options.freeze) {
+			result.add(FREEZE_OPT);
+		}
+		return result;
+	}
+
 	/**
 	 * Called after {@link #init(Options)}.
 	 * 
@@ -187,6 +259,8 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 	public void before(final String query) throws ExperimentException {
 		justificationListener_.reset();
 		resetStats();
+		estimateTimeMillis_ = 0.0;
+		estimatedNJust_ = nJustLowerBound_ = nJustUpperBound_ = 0;
 		if (computation_ != null) {
 			Stats.resetStats(computation_);
 		}
@@ -201,6 +275,36 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 		obtainingInferencesTimeMillis_ = (System.nanoTime() - startTimeNanos)
 				/ RunJustificationExperiments.NANOS_IN_MILLIS;
 
+		dominatedInferenceRemover_ = null;
+		if (pruneDominated_) {
+			dominatedInferenceRemover_ = Proofs.<I, A> eliminateDominatedInferences(
+					proof_.getProof(), proof_.getJustifier());
+			proof_ = new BaseJustificationCompleteProof<C, I, A>(
+					proof_.getQuery(), dominatedInferenceRemover_,
+					proof_.getJustifier());
+		}
+
+		freezingTimeMillis_ = 0.0;
+		if (freeze_) {
+			final long freezingStartTimeNanos = System.nanoTime();
+			proof_ = FrozenProof.create(proof_);
+			freezingTimeMillis_ = (System.nanoTime() - freezingStartTimeNanos)
+					/ RunJustificationExperiments.NANOS_IN_MILLIS;
+		}
+
+		if (estimateBudgetMillis_ != null) {
+			final long estimateStartTimeNanos = System.nanoTime();
+			final JustificationCountEstimator.Estimate estimate = new JustificationCountEstimator<C, I, A>(
+					proof_.getProof(), proof_.getJustifier(),
+					new Random(query.hashCode())).estimate(proof_.getQuery(),
+							ESTIMATE_MAX_SAMPLES_, estimateBudgetMillis_);
+			estimateTimeMillis_ = (System.nanoTime() - estimateStartTimeNanos)
+					/ RunJustificationExperiments.NANOS_IN_MILLIS;
+			estimatedNJust_ = estimate.getValue();
+			nJustLowerBound_ = estimate.getLowerBound();
+			nJustUpperBound_ = estimate.getUpperBound();
+		}
+
 	}
 
 	@Override
@@ -209,8 +313,13 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 
 		computation_ = newComputation(proof_.getProof(), proof_.getJustifier(),
 				monitor);
-		computation_.newEnumerator(proof_.getQuery())
-				.enumerate(justificationListener_);
+		if (weights_ == null) {
+			computation_.newEnumerator(proof_.getQuery())
+					.enumerate(justificationListener_);
+		} else {
+			computation_.newEnumerator(proof_.getQuery()).enumerate(
+					justificationListener_, weights_.getPriorityComparator());
+		}
 
 	}
 
@@ -286,6 +395,11 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 		return proofProvider_;
 	}
 
+	@NestedStats(name = "dominatedInferences")
+	public DominatedInferenceRemovingProofAdapter<I, A> getDominatedInferenceRemover() {
+		return dominatedInferenceRemover_;
+	}
+
 	private class JustificationCounter
 			implements MinimalSubsetEnumerator.Listener<A> {
 
@@ -355,6 +469,39 @@ public abstract class BaseJustificationExperiment<O extends BaseJustificationExp
 		return obtainingInferencesTimeMillis_;
 	}
 
+	/**
+	 * @return the time of taking the snapshot of the proof before the
+	 *         experiment, or {@code 0} if it is not requested
+	 */
+	@Stat
+	public double freezingTime() {
+		return freezingTimeMillis_;
+	}
+
+	@Stat
+	public double estimateTime() {
+		return estimateTimeMillis_;
+	}
+
+	/**
+	 * @return the estimate of the number of justifications computed before
+	 *         the experiment, or {@code 0} if it is not requested
+	 */
+	@Stat
+	public long estimatedNJust() {
+		return estimatedNJust_;
+	}
+
+	@Stat
+	public long nJustLowerBound() {
+		return nJustLowerBound_;
+	}
+
+	@Stat
+	public long nJustUpperBound() {
+		return nJustUpperBound_;
+	}
+
 	@Stat
 	public double firstQuartileJustSize() {
 		return firstQuartileJustSize_;
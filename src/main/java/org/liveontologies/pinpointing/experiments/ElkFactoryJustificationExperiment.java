@@ -22,10 +22,18 @@ package org.liveontologies.pinpointing.experiments;
  * #L%
  */
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
+import org.liveontologies.pinpointing.BloomFilterParameters;
+import org.liveontologies.pinpointing.ConclusionSelectionStrategies;
+import org.liveontologies.pinpointing.ConclusionSelectionStrategy;
+import org.liveontologies.pinpointing.JustificationCache;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.InferenceJustifier;
 import org.liveontologies.puli.Proof;
@@ -47,10 +55,38 @@ public class ElkFactoryJustificationExperiment extends
 
 	public static final String OPT_FACTORY_CLASS = "class";
 
+	public static final String OPT_FACTORY_METHOD = "method";
+
+	public static final String OPT_CACHE = "cache";
+
+	public static final String OPT_MEMORY_BUDGET = "budget";
+
+	public static final String OPT_BLOOM_WIDTH = "bloom-width";
+
+	public static final String OPT_BLOOM_HASHES = "bloom-hashes";
+
+	public static final String OPT_SELECTION = "selection";
+
+	public static final String OPT_SEED = "seed";
+
 	public static class Options
 			extends ElkJustificationExperiment.Options {
 		@Arg(dest = OPT_FACTORY_CLASS)
 		public String computationFactoryClassName;
+		@Arg(dest = OPT_FACTORY_METHOD)
+		public String computationFactoryMethodName;
+		@Arg(dest = OPT_CACHE)
+		public File cacheDir;
+		@Arg(dest = OPT_MEMORY_BUDGET)
+		public Integer memoryBudget;
+		@Arg(dest = OPT_BLOOM_WIDTH)
+		public Integer bloomWidth;
+		@Arg(dest = OPT_BLOOM_HASHES)
+		public int bloomHashes;
+		@Arg(dest = OPT_SELECTION)
+		public ConclusionSelectionStrategies selection;
+		@Arg(dest = OPT_SEED)
+		public Long seed;
 	}
 
 	private MinimalSubsetsFromProofs.Factory<Object, Inference<Object>, ElkAxiom> factory_;
@@ -67,6 +103,22 @@ public class ElkFactoryJustificationExperiment extends
 				"Experiment using provided Justification Computation and internal proofs from ELK.");
 		parser.addArgument(OPT_FACTORY_CLASS)
 				.help("class of the computation factory");
+		parser.addArgument("--" + OPT_FACTORY_METHOD).setDefault("getFactory")
+				.help("static method of the class that returns the computation factory, e.g., getBitSetFactory");
+		parser.addArgument("--" + OPT_CACHE).type(File.class).help(
+				"if provided, reuse and save justifications of conclusions in specified directory");
+		parser.addArgument("--" + OPT_MEMORY_BUDGET).type(Integer.class).help(
+				"if provided, bound the number of stored justifications plus the number of axioms in them");
+		parser.addArgument("--" + OPT_BLOOM_WIDTH).type(Integer.class).help(
+				"if provided, maximal width in bits of Bloom filters of justifications, a power of two of at least 64; otherwise the width depends only on the size of justifications");
+		parser.addArgument("--" + OPT_BLOOM_HASHES).type(Integer.class)
+				.setDefault(1)
+				.help("number of hash functions of Bloom filters");
+		parser.addArgument("--" + OPT_SELECTION)
+				.type(ConclusionSelectionStrategies.class).help(
+						"if provided, the strategy for selecting premises to expand in top-down computations");
+		parser.addArgument("--" + OPT_SEED).type(Long.class)
+				.help("if provided, the seed of randomized computations");
 	}
 
 	@Override
@@ -74,14 +126,59 @@ public class ElkFactoryJustificationExperiment extends
 		super.init(options);
 		LOGGER_.info("computationFactoryClassName: {}",
 				options.computationFactoryClassName);
+		LOGGER_.info("computationFactoryMethodName: {}",
+				options.computationFactoryMethodName);
+		final BloomFilterParameters bloomParams;
+		try {
+			bloomParams = options.bloomWidth == null
+					? BloomFilterParameters.create(options.bloomHashes)
+					: BloomFilterParameters.create(options.bloomHashes,
+							options.bloomWidth);
+		} catch (final IllegalArgumentException e) {
+			throw new ExperimentException(e.getMessage());
+		}
 		try {
 			final Class<?> computationClass = Class
 					.forName(options.computationFactoryClassName);
-			final Method getFactory = computationClass.getMethod("getFactory");
+			// the parameters of the factory method depend on the options
+			final List<Class<?>> parameterTypes = new ArrayList<Class<?>>();
+			final List<Object> arguments = new ArrayList<Object>();
+			if (options.cacheDir != null) {
+				LOGGER_.info("cacheDir: {}", options.cacheDir);
+				parameterTypes.add(JustificationCache.class);
+				arguments.add(JustificationCache.open(options.cacheDir,
+						options.ontologyFile, getProofPipeline(options)));
+			}
+			if (options.memoryBudget != null) {
+				LOGGER_.info("memoryBudget: {}", options.memoryBudget);
+				parameterTypes.add(int.class);
+				arguments.add(options.memoryBudget);
+			}
+			if (options.bloomWidth != null || options.bloomHashes != 1) {
+				// otherwise the default parameters of the factory are used
+				LOGGER_.info("Bloom filters: {}", bloomParams);
+				parameterTypes.add(BloomFilterParameters.class);
+				arguments.add(bloomParams);
+			}
+			if (options.selection != null) {
+				LOGGER_.info("selection: {}", options.selection);
+				parameterTypes.add(ConclusionSelectionStrategy.class);
+				arguments.add(options.selection);
+			}
+			if (options.seed != null) {
+				LOGGER_.info("seed: {}", options.seed);
+				parameterTypes.add(long.class);
+				arguments.add(options.seed);
+			}
+			final Method factoryMethod = computationClass.getMethod(
+					options.computationFactoryMethodName,
+					parameterTypes.toArray(new Class<?>[parameterTypes.size()]));
 			@SuppressWarnings("unchecked")
-			final MinimalSubsetsFromProofs.Factory<Object, Inference<Object>, ElkAxiom> factory = (MinimalSubsetsFromProofs.Factory<Object, Inference<Object>, ElkAxiom>) getFactory
-					.invoke(null);
+			final MinimalSubsetsFromProofs.Factory<Object, Inference<Object>, ElkAxiom> factory = (MinimalSubsetsFromProofs.Factory<Object, Inference<Object>, ElkAxiom>) factoryMethod
+					.invoke(null, arguments.toArray());
 			factory_ = factory;
+		} catch (final IOException e) {
+			throw new ExperimentException(e);
 		} catch (final ClassNotFoundException e) {
 			throw new ExperimentException(e);
 		} catch (final NoSuchMethodException e) {
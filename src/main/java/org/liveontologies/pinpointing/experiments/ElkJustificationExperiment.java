@@ -23,6 +23,8 @@ package org.liveontologies.pinpointing.experiments;
  */
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.liveontologies.proofs.CsvQueryProofProvider;
 import org.liveontologies.proofs.ElkProofProvider;
@@ -31,6 +33,8 @@ import org.liveontologies.puli.Inference;
 import org.semanticweb.elk.owl.interfaces.ElkAxiom;
 import org.semanticweb.elk.owl.interfaces.ElkObject;
 import org.semanticweb.elk.owl.iris.ElkFullIri;
+import org.semanticweb.elk.proofs.InternalJustifier;
+import org.semanticweb.elk.proofs.InternalProof;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.slf4j.Logger;
@@ -77,6 +81,15 @@ public abstract class ElkJustificationExperiment<O extends ElkJustificationExper
 		this.ontologyFile_ = options.ontologyFile;
 	}
 
+	@Override
+	protected List<String> getProofPipeline(final O options) {
+		final List<String> result = new ArrayList<String>();
+		result.add(InternalProof.class.getName());
+		result.add(InternalJustifier.class.getName());
+		result.addAll(super.getProofPipeline(options));
+		return result;
+	}
+
 	@Override
 	protected ProofProvider<String, Object, Inference<Object>, ElkAxiom> newProofProvider()
 			throws ExperimentException {
@@ -0,0 +1,262 @@
+package org.liveontologies.proofs;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.liveontologies.pinpointing.experiments.ExperimentException;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+
+/**
+ * An immutable snapshot of a {@link JustificationCompleteProof} taken by
+ * traversing the inferences used for deriving its query once. The conclusions,
+ * inferences, and axioms are numbered densely, the inferences are stored in an
+ * {@link InferenceGraph}, and the justifications of inferences are stored as
+ * arrays of numbers of axioms. Hence, the computations running over the
+ * snapshot do not trigger the work of the adapters through which the original
+ * proof was obtained. The justifications are also stored as unmodifiable sets
+ * and are retrieved by the identity of the inferences returned by the
+ * snapshot, so the inferences are not hashed.
+ * 
+ * @param <C>
+ *            the type of conclusions used in inferences
+ * @param <I>
+ *            the type of inferences
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class FrozenProof<C, I extends Inference<? extends C>, A>
+		implements JustificationCompleteProof<C, I, A> {
+
+	private final C query_;
+
+	private final InferenceGraph<C, I> graph_;
+
+	/**
+	 * the axioms by their numbers
+	 */
+	private final Object[] axioms_;
+
+	/**
+	 * the numbers of axioms of the justification of the inference with number
+	 * {@code n} are stored in {@link #justificationAxioms_} from position
+	 * {@code justificationOffsets_[n]} (inclusive) to position
+	 * {@code justificationOffsets_[n + 1]} (exclusive)
+	 */
+	private final int[] justificationOffsets_;
+
+	private final int[] justificationAxioms_;
+
+	/**
+	 * the justifications of inferences by their numbers
+	 */
+	private final Set<? extends A>[] justifications_;
+
+	/**
+	 * the numbers of the inferences returned by {@link #graph_}
+	 */
+	private final Map<Object, Integer> inferenceIds_;
+
+	/**
+	 * used for the inferences not returned by {@link #graph_}, e.g., created
+	 * by computations from the returned ones
+	 */
+	private final InferenceJustifier<? super I, ? extends Set<? extends A>> originalJustifier_;
+
+	private final InferenceJustifier<I, Set<? extends A>> justifier_ = new InferenceJustifier<I, Set<? extends A>>() {
+
+		@Override
+		public Set<? extends A> getJustification(final I inference) {
+			final Integer id = inferenceIds_.get(inference);
+			if (id == null) {
+				return originalJustifier_.getJustification(inference);
+			}
+			// else
+			return justifications_[id];
+		}
+
+	};
+
+	private FrozenProof(final C query, final InferenceGraph<C, I> graph,
+			final Object[] axioms, final int[] justificationOffsets,
+			final int[] justificationAxioms,
+			final Set<? extends A>[] justifications,
+			final Map<Object, Integer> inferenceIds,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> originalJustifier) {
+		this.query_ = query;
+		this.graph_ = graph;
+		this.axioms_ = axioms;
+		this.justificationOffsets_ = justificationOffsets;
+		this.justificationAxioms_ = justificationAxioms;
+		this.justifications_ = justifications;
+		this.inferenceIds_ = inferenceIds;
+		this.originalJustifier_ = originalJustifier;
+	}
+
+	/**
+	 * Traverses the inferences of the given proof used for deriving its
+	 * query.
+	 * 
+	 * @param proof
+	 * @return the snapshot of the traversed inferences and their
+	 *         justifications
+	 * @throws ExperimentException
+	 */
+	public static <C, I extends Inference<? extends C>, A> FrozenProof<C, I, A> create(
+			final JustificationCompleteProof<C, I, A> proof)
+			throws ExperimentException {
+		return create(proof.getQuery(), proof.getProof(),
+				proof.getJustifier());
+	}
+
+	/**
+	 * Traverses the inferences of the given proof used for deriving the given
+	 * query.
+	 * 
+	 * @param query
+	 * @param proof
+	 * @param justifier
+	 * @return the snapshot of the traversed inferences and their
+	 *         justifications
+	 */
+	public static <C, I extends Inference<? extends C>, A> FrozenProof<C, I, A> create(
+			final C query, final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
+		final InferenceGraph<C, I> graph = InferenceGraph.create(proof, query);
+		final int inferenceCount = graph.getInferenceCount();
+		final Map<Object, Integer> axiomIds = new HashMap<Object, Integer>();
+		final List<Object> axioms = new ArrayList<Object>();
+		final int[] justificationOffsets = new int[inferenceCount + 1];
+		final List<Integer> justificationAxioms = new ArrayList<Integer>();
+		@SuppressWarnings("unchecked")
+		final Set<? extends A>[] justifications = new Set[inferenceCount];
+		final Map<Object, Integer> inferenceIds = new IdentityHashMap<Object, Integer>(
+				inferenceCount);
+		for (int infId = 0; infId < inferenceCount; infId++) {
+			final I inference = graph.getInference(infId);
+			inferenceIds.put(inference, infId);
+			justificationOffsets[infId] = justificationAxioms.size();
+			final Set<? extends A> justification = justifier
+					.getJustification(inference);
+			for (final A axiom : justification) {
+				Integer axiomId = axiomIds.get(axiom);
+				if (axiomId == null) {
+					axiomId = axioms.size();
+					axiomIds.put(axiom, axiomId);
+					axioms.add(axiom);
+				}
+				justificationAxioms.add(axiomId);
+			}
+			justifications[infId] = Collections
+					.unmodifiableSet(new HashSet<A>(justification));
+		}
+		justificationOffsets[inferenceCount] = justificationAxioms.size();
+		final int[] justificationAxiomArray = new int[justificationAxioms
+				.size()];
+		for (int i = 0; i < justificationAxiomArray.length; i++) {
+			justificationAxiomArray[i] = justificationAxioms.get(i);
+		}
+		return new FrozenProof<C, I, A>(query, graph, axioms.toArray(),
+				justificationOffsets, justificationAxiomArray, justifications,
+				inferenceIds, justifier);
+	}
+
+	@Override
+	public C getQuery() {
+		return query_;
+	}
+
+	/**
+	 * @return the graph of the traversed inferences, in which the query has
+	 *         number {@code 0}
+	 */
+	@Override
+	public InferenceGraph<C, I> getProof() {
+		return graph_;
+	}
+
+	@Override
+	public InferenceJustifier<I, Set<? extends A>> getJustifier() {
+		return justifier_;
+	}
+
+	/**
+	 * @return the number of different axioms in the justifications of the
+	 *         traversed inferences
+	 */
+	public int getAxiomCount() {
+		return axioms_.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	public A getAxiom(final int axiomId) {
+		return (A) axioms_[axiomId];
+	}
+
+	/**
+	 * @param inferenceId
+	 *            the number of an inference in {@link #getProof()}
+	 * @return the position of the number of the first axiom of the
+	 *         justification of the inference
+	 * @see #getJustificationAxiomId(int)
+	 */
+	public int getJustificationFrom(final int inferenceId) {
+		return justificationOffsets_[inferenceId];
+	}
+
+	/**
+	 * @param inferenceId
+	 *            the number of an inference in {@link #getProof()}
+	 * @return the position after the number of the last axiom of the
+	 *         justification of the inference
+	 * @see #getJustificationAxiomId(int)
+	 */
+	public int getJustificationTo(final int inferenceId) {
+		return justificationOffsets_[inferenceId + 1];
+	}
+
+	/**
+	 * @param position
+	 *            a position between {@link #getJustificationFrom(int)} and
+	 *            {@link #getJustificationTo(int)} of an inference
+	 * @return the number of the axiom at this position
+	 */
+	public int getJustificationAxiomId(final int position) {
+		return justificationAxioms_[position];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " of " + getQuery();
+	}
+
+}
@@ -0,0 +1,684 @@
+package org.liveontologies.proofs;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.Proof;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+
+/**
+ * An immutable snapshot of the inferences of a proof used for deriving given
+ * conclusions. The conclusions are numbered in the order in which they are
+ * reached from the given conclusions, and the inferences are stored in arrays
+ * grouped by their conclusions and, separately, by their premises, so that the
+ * inferences deriving a conclusion and the inferences using it as a premise
+ * are retrieved by one lookup of the number of the conclusion. Every inference
+ * is listed once for each of its different premises.
+ * <p>
+ * The inferences are also numbered, so that the inferences deriving the same
+ * conclusion have consecutive numbers, and so are the premise slots, i.e., the
+ * occurrences of different premises in inferences, so that the slots of the
+ * same inference have consecutive numbers. This makes it possible to store
+ * information about inferences and premise slots in arrays.
+ * 
+ * @param <C>
+ *            the type of conclusions used in inferences
+ * @param <I>
+ *            the type of inferences
+ */
+public class InferenceGraph<C, I extends Inference<? extends C>>
+		implements Proof<I> {
+
+	/**
+	 * the numbers of conclusions
+	 */
+	private final Map<Object, Integer> ids_;
+
+	/**
+	 * the conclusions by their numbers
+	 */
+	private final Object[] conclusions_;
+
+	/**
+	 * the inferences deriving the conclusion with number {@code n} are stored
+	 * in {@link #inferences_} from position {@code inferenceOffsets_[n]}
+	 * (inclusive) to position {@code inferenceOffsets_[n + 1]} (exclusive)
+	 */
+	private final int[] inferenceOffsets_;
+
+	private final Object[] inferences_;
+
+	/**
+	 * the numbers of the conclusions by the numbers of inferences
+	 */
+	private final int[] inferenceConclusions_;
+
+	/**
+	 * the inferences using the conclusion with number {@code n} as a premise
+	 * are stored in {@link #uses_} from position {@code useOffsets_[n]}
+	 * (inclusive) to position {@code useOffsets_[n + 1]} (exclusive)
+	 */
+	private final int[] useOffsets_;
+
+	private final Object[] uses_;
+
+	/**
+	 * {@code useSlots_[k]} is the premise slot of the inference
+	 * {@code uses_[k]} for the premise whose uses contain position {@code k}
+	 */
+	private final int[] useSlots_;
+
+	/**
+	 * the premise slots of the inference with number {@code n} are numbered
+	 * from {@code slotOffsets_[n]} (inclusive) to {@code slotOffsets_[n + 1]}
+	 * (exclusive)
+	 */
+	private final int[] slotOffsets_;
+
+	/**
+	 * the numbers of the premises by the numbers of premise slots
+	 */
+	private final int[] slotPremises_;
+
+	/**
+	 * the numbers of the inferences by the numbers of premise slots
+	 */
+	private final int[] slotInferences_;
+
+	/**
+	 * the results of {@link #getInferencesById(int)} and
+	 * {@link #getInferencesByPremiseId(int)} by the numbers of conclusions,
+	 * created when requested for the first time; since the results are
+	 * immutable, they can be shared by the threads without synchronization
+	 */
+	private final Object[] inferenceLists_, useLists_;
+
+	private InferenceGraph(final Map<Object, Integer> ids,
+			final Object[] conclusions, final int[] inferenceOffsets,
+			final Object[] inferences, final int[] inferenceConclusions,
+			final int[] useOffsets, final Object[] uses, final int[] useSlots,
+			final int[] slotOffsets, final int[] slotPremises,
+			final int[] slotInferences) {
+		this.ids_ = ids;
+		this.conclusions_ = conclusions;
+		this.inferenceOffsets_ = inferenceOffsets;
+		this.inferences_ = inferences;
+		this.inferenceConclusions_ = inferenceConclusions;
+		this.useOffsets_ = useOffsets;
+		this.uses_ = uses;
+		this.useSlots_ = useSlots;
+		this.slotOffsets_ = slotOffsets;
+		this.slotPremises_ = slotPremises;
+		this.slotInferences_ = slotInferences;
+		this.inferenceLists_ = new Object[conclusions.length];
+		this.useLists_ = new Object[conclusions.length];
+	}
+
+	/**
+	 * Traverses the inferences of the given proof that are used for deriving
+	 * the given conclusions.
+	 * 
+	 * @param proof
+	 * @param goals
+	 * @return the graph of the traversed inferences
+	 */
+	public static <C, I extends Inference<? extends C>> InferenceGraph<C, I> create(
+			final Proof<? extends I> proof,
+			final Iterable<? extends C> goals) {
+		final Map<Object, Integer> ids = new HashMap<Object, Integer>();
+		final List<Object> conclusions = new ArrayList<Object>();
+		for (final C goal : goals) {
+			if (!ids.containsKey(goal)) {
+				ids.put(goal, conclusions.size());
+				conclusions.add(goal);
+			}
+		}
+		final List<I> inferences = new ArrayList<I>();
+		// for every inference, the numbers of its different premises
+		final List<int[]> premiseIds = new ArrayList<int[]>();
+		int[] inferenceOffsets = new int[16];
+		int[] useCounts = new int[16];
+		// conclusions are appended while they are traversed
+		for (int id = 0; id < conclusions.size(); id++) {
+			if (id + 1 >= inferenceOffsets.length) {
+				inferenceOffsets = grow(inferenceOffsets);
+			}
+			inferenceOffsets[id] = inferences.size();
+			for (final I inf : proof.getInferences(conclusions.get(id))) {
+				final List<? extends C> premises = inf.getPremises();
+				final int[] infPremiseIds = new int[premises.size()];
+				int premiseCount = 0;
+				next: for (final C premise : premises) {
+					Integer premiseId = ids.get(premise);
+					if (premiseId == null) {
+						premiseId = conclusions.size();
+						ids.put(premise, premiseId);
+						conclusions.add(premise);
+					}
+					for (int i = 0; i < premiseCount; i++) {
+						if (infPremiseIds[i] == premiseId) {
+							continue next;
+						}
+					}
+					infPremiseIds[premiseCount++] = premiseId;
+					while (premiseId >= useCounts.length) {
+						useCounts = grow(useCounts);
+					}
+					useCounts[premiseId]++;
+				}
+				inferences.add(inf);
+				premiseIds.add(Arrays.copyOf(infPremiseIds, premiseCount));
+			}
+		}
+		final int conclusionCount = conclusions.size();
+		if (conclusionCount >= inferenceOffsets.length) {
+			inferenceOffsets = grow(inferenceOffsets);
+		}
+		inferenceOffsets[conclusionCount] = inferences.size();
+		// compute the offsets of uses from the counts
+		final int[] useOffsets = new int[conclusionCount + 1];
+		for (int id = 0; id < conclusionCount; id++) {
+			useOffsets[id + 1] = useOffsets[id]
+					+ (id < useCounts.length ? useCounts[id] : 0);
+		}
+		final int slotCount = useOffsets[conclusionCount];
+		final Object[] uses = new Object[slotCount];
+		final int[] useSlots = new int[slotCount];
+		final int[] slotOffsets = new int[inferences.size() + 1];
+		final int[] slotPremises = new int[slotCount];
+		final int[] slotInferences = new int[slotCount];
+		final int[] usePositions = Arrays.copyOf(useOffsets, conclusionCount);
+		int slot = 0;
+		for (int i = 0; i < inferences.size(); i++) {
+			slotOffsets[i] = slot;
+			for (final int premiseId : premiseIds.get(i)) {
+				final int position = usePositions[premiseId]++;
+				uses[position] = inferences.get(i);
+				useSlots[position] = slot;
+				slotPremises[slot] = premiseId;
+				slotInferences[slot] = i;
+				slot++;
+			}
+		}
+		slotOffsets[inferences.size()] = slot;
+		final int[] inferenceConclusions = new int[inferences.size()];
+		for (int id = 0; id < conclusionCount; id++) {
+			Arrays.fill(inferenceConclusions, inferenceOffsets[id],
+					inferenceOffsets[id + 1], id);
+		}
+		return new InferenceGraph<C, I>(ids, conclusions.toArray(),
+				Arrays.copyOf(inferenceOffsets, conclusionCount + 1),
+				inferences.toArray(), inferenceConclusions, useOffsets, uses,
+				useSlots, slotOffsets, slotPremises, slotInferences);
+	}
+
+	/**
+	 * Traverses the inferences of the given proof that are used for deriving
+	 * the given conclusion.
+	 * 
+	 * @param proof
+	 * @param goal
+	 * @return the graph of the traversed inferences
+	 */
+	public static <C, I extends Inference<? extends C>> InferenceGraph<C, I> create(
+			final Proof<? extends I> proof, final C goal) {
+		return create(proof, Collections.singleton(goal));
+	}
+
+	private static int[] grow(final int[] array) {
+		return Arrays.copyOf(array, array.length * 2);
+	}
+
+	/**
+	 * @return the number of conclusions in this graph
+	 */
+	public int size() {
+		return conclusions_.length;
+	}
+
+	/**
+	 * @return the number of inferences in this graph
+	 */
+	public int getInferenceCount() {
+		return inferences_.length;
+	}
+
+	/**
+	 * @return the number of premise slots in this graph, i.e., the sum of the
+	 *         numbers of different premises of its inferences
+	 */
+	public int getSlotCount() {
+		return slotPremises_.length;
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the number of the given conclusion in this graph or {@code -1}
+	 *         if the graph does not contain this conclusion
+	 */
+	public int getId(final Object conclusion) {
+		final Integer result = ids_.get(conclusion);
+		return result == null ? -1 : result;
+	}
+
+	/**
+	 * @param id
+	 * @return the conclusion with the given number
+	 */
+	@SuppressWarnings("unchecked")
+	public C getConclusion(final int id) {
+		return (C) conclusions_[id];
+	}
+
+	/**
+	 * @param id
+	 * @return the inferences deriving the conclusion with the given number
+	 */
+	@SuppressWarnings("unchecked")
+	public List<I> getInferencesById(final int id) {
+		List<I> result = (List<I>) inferenceLists_[id];
+		if (result == null) {
+			result = new Slice<I>(inferences_, inferenceOffsets_[id],
+					inferenceOffsets_[id + 1]);
+			inferenceLists_[id] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @param id
+	 * @return the inferences that use the conclusion with the given number as
+	 *         a premise
+	 */
+	@SuppressWarnings("unchecked")
+	public List<I> getInferencesByPremiseId(final int id) {
+		List<I> result = (List<I>) useLists_[id];
+		if (result == null) {
+			result = new Slice<I>(uses_, useOffsets_[id], useOffsets_[id + 1]);
+			useLists_[id] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @param id
+	 * @return the number of the first inference deriving the conclusion with
+	 *         the given number; the numbers of these inferences end before
+	 *         {@link #getInferenceIdsTo(int)}
+	 */
+	public int getInferenceIdsFrom(final int id) {
+		return inferenceOffsets_[id];
+	}
+
+	/**
+	 * @param id
+	 * @return the number following the numbers of the inferences deriving the
+	 *         conclusion with the given number
+	 */
+	public int getInferenceIdsTo(final int id) {
+		return inferenceOffsets_[id + 1];
+	}
+
+	/**
+	 * @param inferenceId
+	 * @return the inference with the given number
+	 */
+	@SuppressWarnings("unchecked")
+	public I getInference(final int inferenceId) {
+		return (I) inferences_[inferenceId];
+	}
+
+	/**
+	 * @param inferenceId
+	 * @return the number of the conclusion of the inference with the given
+	 *         number
+	 */
+	public int getConclusionId(final int inferenceId) {
+		return inferenceConclusions_[inferenceId];
+	}
+
+	/**
+	 * @param inferenceId
+	 * @return the number of the first premise slot of the inference with the
+	 *         given number; the numbers of its slots end before
+	 *         {@link #getSlotsTo(int)}
+	 */
+	public int getSlotsFrom(final int inferenceId) {
+		return slotOffsets_[inferenceId];
+	}
+
+	/**
+	 * @param inferenceId
+	 * @return the number following the numbers of the premise slots of the
+	 *         inference with the given number
+	 */
+	public int getSlotsTo(final int inferenceId) {
+		return slotOffsets_[inferenceId + 1];
+	}
+
+	/**
+	 * @param slot
+	 * @return the number of the premise of the given premise slot
+	 */
+	public int getSlotPremiseId(final int slot) {
+		return slotPremises_[slot];
+	}
+
+	/**
+	 * @param slot
+	 * @return the number of the inference of the given premise slot
+	 */
+	public int getSlotInferenceId(final int slot) {
+		return slotInferences_[slot];
+	}
+
+	/**
+	 * @param id
+	 * @return the premise slots of the conclusion with the given number are
+	 *         returned by {@link #getUseSlot(int)} for the arguments from this
+	 *         number (inclusive) to {@link #getUsesTo(int)} (exclusive)
+	 */
+	public int getUsesFrom(final int id) {
+		return useOffsets_[id];
+	}
+
+	/**
+	 * @param id
+	 * @return the number following the numbers of the uses of the conclusion
+	 *         with the given number
+	 */
+	public int getUsesTo(final int id) {
+		return useOffsets_[id + 1];
+	}
+
+	/**
+	 * @param use
+	 * @return the premise slot of the given use of a conclusion
+	 * @see #getUsesFrom(int)
+	 */
+	public int getUseSlot(final int use) {
+		return useSlots_[use];
+	}
+
+	/**
+	 * Derives the conclusions using the inferences that satisfy the given
+	 * condition, starting from such inferences without premises. Every
+	 * conclusion is derived at most once, after all premises of the inference
+	 * deriving it, so the inferences by which the conclusions are derived
+	 * form acyclic derivations.
+	 * 
+	 * @param condition
+	 *            the inferences that can be used
+	 * @param goalId
+	 *            the derivation stops when the conclusion with this number is
+	 *            derived; if negative, all derivable conclusions are derived
+	 * @return the array that assigns to the number of every derived
+	 *         conclusion the number of the inference by which it is derived,
+	 *         and {@code -1} to the numbers of other conclusions
+	 */
+	public int[] derive(final Predicate<? super I> condition,
+			final int goalId) {
+		return derive(new InferenceCondition() {
+
+			@Override
+			boolean holds(final int infId) {
+				return condition.apply(getInference(infId));
+			}
+
+		}, goalId);
+	}
+
+	/**
+	 * Derives the conclusions like {@link #derive(Predicate, int)} using the
+	 * inferences with the given numbers, without accessing the inferences.
+	 * 
+	 * @param usable
+	 *            the array that assigns {@code true} to the numbers of the
+	 *            inferences that can be used
+	 * @param goalId
+	 *            the derivation stops when the conclusion with this number is
+	 *            derived; if negative, all derivable conclusions are derived
+	 * @return the array that assigns to the number of every derived
+	 *         conclusion the number of the inference by which it is derived,
+	 *         and {@code -1} to the numbers of other conclusions
+	 */
+	public int[] derive(final boolean[] usable, final int goalId) {
+		return derive(new InferenceCondition() {
+
+			@Override
+			boolean holds(final int infId) {
+				return usable[infId];
+			}
+
+		}, goalId);
+	}
+
+	private int[] derive(final InferenceCondition condition,
+			final int goalId) {
+		final int[] result = new int[conclusions_.length];
+		Arrays.fill(result, -1);
+		// the number of premise slots of inferences that are not derived
+		final int[] missing = new int[inferences_.length];
+		final int[] toDo = new int[conclusions_.length];
+		int toDoCount = 0;
+		for (int infId = 0; infId < inferences_.length; infId++) {
+			missing[infId] = slotOffsets_[infId + 1] - slotOffsets_[infId];
+			final int id = inferenceConclusions_[infId];
+			if (missing[infId] == 0 && result[id] < 0
+					&& condition.holds(infId)) {
+				result[id] = infId;
+				toDo[toDoCount++] = id;
+			}
+		}
+		while (toDoCount > 0) {
+			final int id = toDo[--toDoCount];
+			if (id == goalId) {
+				break;
+			}
+			// else
+			for (int use = useOffsets_[id]; use < useOffsets_[id + 1]; use++) {
+				final int infId = slotInferences_[useSlots_[use]];
+				if (--missing[infId] > 0) {
+					continue;
+				}
+				// else
+				final int conclusionId = inferenceConclusions_[infId];
+				if (result[conclusionId] < 0 && condition.holds(infId)) {
+					result[conclusionId] = infId;
+					toDo[toDoCount++] = conclusionId;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param id
+	 * @param condition
+	 * @return {@code true} if the conclusion with the given number can be
+	 *         derived using the inferences that satisfy the given condition
+	 */
+	public boolean isDerivable(final int id,
+			final Predicate<? super I> condition) {
+		return derive(condition, id)[id] >= 0;
+	}
+
+	/**
+	 * @param id
+	 * @param derivation
+	 *            the result of {@link #derive(Predicate, int)} in which all
+	 *            derivable conclusions are derived
+	 * @return the array that assigns {@code true} to the numbers of inferences
+	 *         that can be used in derivations of the conclusion with the
+	 *         given number, i.e., that are reachable from this conclusion by
+	 *         inferences whose premises are all derived
+	 */
+	public boolean[] getUsableInferences(final int id, final int[] derivation) {
+		final boolean[] result = new boolean[inferences_.length];
+		if (derivation[id] < 0) {
+			return result;
+		}
+		// else
+		final boolean[] visited = new boolean[conclusions_.length];
+		final int[] toDo = new int[conclusions_.length];
+		int toDoCount = 0;
+		visited[id] = true;
+		toDo[toDoCount++] = id;
+		while (toDoCount > 0) {
+			final int next = toDo[--toDoCount];
+			final int infsFrom = inferenceOffsets_[next];
+			final int infsTo = inferenceOffsets_[next + 1];
+			inferences: for (int infId = infsFrom; infId < infsTo; infId++) {
+				final int slotsFrom = slotOffsets_[infId];
+				final int slotsTo = slotOffsets_[infId + 1];
+				for (int slot = slotsFrom; slot < slotsTo; slot++) {
+					if (derivation[slotPremises_[slot]] < 0) {
+						continue inferences;
+					}
+				}
+				// else all premises are derived
+				result[infId] = true;
+				for (int slot = slotsFrom; slot < slotsTo; slot++) {
+					final int premiseId = slotPremises_[slot];
+					if (!visited[premiseId]) {
+						visited[premiseId] = true;
+						toDo[toDoCount++] = premiseId;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param id
+	 * @param derivation
+	 *            the result of {@link #derive(Predicate, int)} in which the
+	 *            conclusion with the given number is derived
+	 * @return the numbers of the inferences used in the derivation of the
+	 *         conclusion with the given number, i.e., the inference by which
+	 *         it is derived and, recursively, the inferences by which the
+	 *         premises of the used inferences are derived
+	 */
+	public int[] getDerivationInferenceIds(final int id,
+			final int[] derivation) {
+		// every conclusion is derived by at most one inference
+		final int[] result = new int[conclusions_.length];
+		int resultCount = 0;
+		final boolean[] visited = new boolean[conclusions_.length];
+		final int[] toDo = new int[conclusions_.length];
+		int toDoCount = 0;
+		visited[id] = true;
+		toDo[toDoCount++] = id;
+		while (toDoCount > 0) {
+			final int infId = derivation[toDo[--toDoCount]];
+			result[resultCount++] = infId;
+			final int slotsTo = slotOffsets_[infId + 1];
+			for (int slot = slotOffsets_[infId]; slot < slotsTo; slot++) {
+				final int premiseId = slotPremises_[slot];
+				if (!visited[premiseId]) {
+					visited[premiseId] = true;
+					toDo[toDoCount++] = premiseId;
+				}
+			}
+		}
+		return Arrays.copyOf(result, resultCount);
+	}
+
+	@Override
+	public List<I> getInferences(final Object conclusion) {
+		final int id = getId(conclusion);
+		if (id < 0) {
+			return Collections.emptyList();
+		}
+		// else
+		return getInferencesById(id);
+	}
+
+	/**
+	 * @param conclusion
+	 * @return the inferences that use the given conclusion as a premise
+	 */
+	public List<I> getInferencesByPremise(final Object conclusion) {
+		final int id = getId(conclusion);
+		if (id < 0) {
+			return Collections.emptyList();
+		}
+		// else
+		return getInferencesByPremiseId(id);
+	}
+
+	/**
+	 * An unmodifiable view of a range of an array.
+	 * 
+	 * @param <E>
+	 *            the type of elements of the view
+	 */
+	private static class Slice<E> extends AbstractList<E>
+			implements RandomAccess {
+
+		private final Object[] array_;
+
+		private final int from_, to_;
+
+		Slice(final Object[] array, final int from, final int to) {
+			this.array_ = array;
+			this.from_ = from;
+			this.to_ = to;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E get(final int index) {
+			Preconditions.checkElementIndex(index, to_ - from_);
+			return (E) array_[from_ + index];
+		}
+
+		@Override
+		public int size() {
+			return to_ - from_;
+		}
+
+	}
+
+	/**
+	 * A condition on the inferences identified by their numbers.
+	 */
+	private static abstract class InferenceCondition {
+
+		abstract boolean holds(int infId);
+
+	}
+
+}
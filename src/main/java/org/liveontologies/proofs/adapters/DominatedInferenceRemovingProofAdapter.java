@@ -0,0 +1,164 @@
+package org.liveontologies.proofs.adapters;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.statistics.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A proof obtained from the given proof by removing dominated inferences. An
+ * inference is dominated by another inference with the same conclusion if
+ * the premises and the justification of the latter are subsets of the
+ * premises and the justification of the former. Such inferences cannot be
+ * used in proofs that correspond to minimal justifications, so the
+ * justifications of every conclusion in the resulting proof are the same as
+ * in the given proof. Of several inferences with the same premises and
+ * justifications, only the first one is kept. The inferences of each
+ * conclusion are filtered when they are requested for the first time.
+ * 
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+public class DominatedInferenceRemovingProofAdapter<I extends Inference<?>, A>
+		implements Proof<I> {
+
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(DominatedInferenceRemovingProofAdapter.class);
+
+	private final Proof<? extends I> originalInferences_;
+
+	private final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier_;
+
+	/**
+	 * the inferences that are not dominated indexed by their conclusions
+	 */
+	private final Map<Object, List<I>> inferences_ = new HashMap<Object, List<I>>();
+
+	// Statistics
+	private int removedInferencesCount_ = 0, prunedConclusionsCount_ = 0;
+
+	DominatedInferenceRemovingProofAdapter(
+			final Proof<? extends I> originalInferences,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
+		this.originalInferences_ = originalInferences;
+		this.justifier_ = justifier;
+	}
+
+	@Override
+	public Collection<? extends I> getInferences(final Object conclusion) {
+		List<I> result = inferences_.get(conclusion);
+		if (result == null) {
+			result = removeDominated(
+					originalInferences_.getInferences(conclusion));
+			inferences_.put(conclusion, result);
+		}
+		return result;
+	}
+
+	private List<I> removeDominated(final Collection<? extends I> inferences) {
+		final List<I> candidates = new ArrayList<I>(inferences);
+		final List<Set<Object>> premises = new ArrayList<Set<Object>>(
+				candidates.size());
+		for (final I inf : candidates) {
+			premises.add(new HashSet<Object>(inf.getPremises()));
+		}
+		final List<I> result = new ArrayList<I>(candidates.size());
+		for (int i = 0; i < candidates.size(); i++) {
+			if (isDominated(i, candidates, premises)) {
+				LOGGER_.trace("{}: dominated", candidates.get(i));
+				removedInferencesCount_++;
+			} else {
+				result.add(candidates.get(i));
+			}
+		}
+		if (result.size() < candidates.size()) {
+			prunedConclusionsCount_++;
+		}
+		return result;
+	}
+
+	/**
+	 * @param i
+	 * @param candidates
+	 * @param premises
+	 *            the sets of premises of the candidates
+	 * @return {@code true} if the candidate with the given index is dominated
+	 *         by another candidate that is not dominated by it or by an
+	 *         equivalent candidate that occurs earlier
+	 */
+	private boolean isDominated(final int i, final List<I> candidates,
+			final List<Set<Object>> premises) {
+		for (int j = 0; j < candidates.size(); j++) {
+			if (j == i || !dominates(j, i, candidates, premises)) {
+				continue;
+			}
+			// else
+			if (j < i || !dominates(i, j, candidates, premises)) {
+				return true;
+			}
+		}
+		// else
+		return false;
+	}
+
+	private boolean dominates(final int first, final int second,
+			final List<I> candidates, final List<Set<Object>> premises) {
+		return premises.get(second).containsAll(premises.get(first))
+				&& justifier_.getJustification(candidates.get(second))
+						.containsAll(justifier_
+								.getJustification(candidates.get(first)));
+	}
+
+	/**
+	 * @return the number of inferences of the requested conclusions that are
+	 *         removed
+	 */
+	@Stat
+	public int nRemovedInferences() {
+		return removedInferencesCount_;
+	}
+
+	/**
+	 * @return the number of requested conclusions for which some inferences
+	 *         are removed
+	 */
+	@Stat
+	public int nPrunedConclusions() {
+		return prunedConclusionsCount_;
+	}
+
+}
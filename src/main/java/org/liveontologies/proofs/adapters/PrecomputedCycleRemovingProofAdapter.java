@@ -0,0 +1,260 @@
+package org.liveontologies.proofs.adapters;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.RandomAccess;
+
+import org.liveontologies.proofs.InferenceGraph;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.Proof;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A proof with the same inferences as {@link CycleRemovingProofAdapter} for
+ * the conclusions used for deriving the given query, which are computed at
+ * once when the proof is created. The inferences of the given proof are
+ * indexed by {@link InferenceGraph}, and an inference is kept when every
+ * premise is derived by a kept inference that does not use the conclusion of
+ * the inference as one of the premises; inferences that use their conclusion
+ * as a premise are never kept. The uses of every conclusion are grouped by
+ * the conclusions of the inferences using them. A kept inference derives the
+ * premise slots of the pending groups of its conclusion, except for the
+ * groups of its own premises, and these slots are removed from the pending
+ * ones. The computation, thus, takes time linear in the size of the proof,
+ * and the result is stored in arrays. Other conclusions have no inferences in
+ * this proof.
+ * 
+ * @param <I>
+ *            The type of the inferences.
+ */
+class PrecomputedCycleRemovingProofAdapter<I extends Inference<?>>
+		implements Proof<I> {
+
+	private final InferenceGraph<Object, I> graph_;
+
+	/**
+	 * the kept inferences grouped by the numbers of their conclusions
+	 */
+	private final Object[] inferences_;
+
+	/**
+	 * the kept inferences of the conclusion with number {@code k} are stored
+	 * in {@link #inferences_} from {@code inferenceOffsets_[k]} (inclusive) to
+	 * {@code inferenceOffsets_[k + 1]} (exclusive)
+	 */
+	private final int[] inferenceOffsets_;
+
+	PrecomputedCycleRemovingProofAdapter(final Proof<? extends I> proof,
+			final Object query) {
+		this.graph_ = InferenceGraph.<Object, I> create(proof, query);
+		final boolean[] kept = computeKept();
+		int keptCount = 0;
+		for (final boolean isKept : kept) {
+			if (isKept) {
+				keptCount++;
+			}
+		}
+		this.inferences_ = new Object[keptCount];
+		this.inferenceOffsets_ = new int[graph_.size() + 1];
+		int next = 0;
+		for (int id = 0; id < graph_.size(); id++) {
+			inferenceOffsets_[id] = next;
+			final int infTo = graph_.getInferenceIdsTo(id);
+			for (int infId = graph_
+					.getInferenceIdsFrom(id); infId < infTo; infId++) {
+				if (kept[infId]) {
+					inferences_[next++] = graph_.getInference(infId);
+				}
+			}
+		}
+		inferenceOffsets_[graph_.size()] = next;
+	}
+
+	/**
+	 * @return the inferences of {@link #graph_} that are kept in this proof
+	 */
+	private boolean[] computeKept() {
+		final int nConclusions = graph_.size();
+		final int nInferences = graph_.getInferenceCount();
+		final int nUses = graph_.getSlotCount();
+		final boolean[] kept = new boolean[nInferences];
+		// the number of premise slots of every inference that are not
+		// derived by a kept inference without its conclusion; -1 for the
+		// inferences using their conclusions
+		final int[] pendingSlots = new int[nInferences];
+		// the last kept inference using the conclusion as a premise
+		final int[] usedBy = new int[nConclusions];
+		Arrays.fill(usedBy, -1);
+		final int[] toDo = new int[nInferences];
+		int toDoFrom = 0, toDoTo = 0;
+		for (int infId = 0; infId < nInferences; infId++) {
+			final int slotsFrom = graph_.getSlotsFrom(infId);
+			final int slotsTo = graph_.getSlotsTo(infId);
+			pendingSlots[infId] = slotsTo - slotsFrom;
+			for (int slot = slotsFrom; slot < slotsTo; slot++) {
+				if (graph_.getSlotPremiseId(slot) == graph_
+						.getConclusionId(infId)) {
+					pendingSlots[infId] = -1;
+					break;
+				}
+			}
+			if (pendingSlots[infId] == 0) {
+				toDo[toDoTo++] = infId;
+			}
+		}
+		// the uses of every conclusion ordered by the conclusions of the
+		// inferences using them, obtained by counting sort
+		final int[] users = new int[nUses];
+		final int[] positions = new int[nConclusions + 1];
+		for (int use = 0; use < nUses; use++) {
+			users[use] = graph_.getConclusionId(
+					graph_.getSlotInferenceId(graph_.getUseSlot(use)));
+			positions[users[use] + 1]++;
+		}
+		for (int id = 0; id < nConclusions; id++) {
+			positions[id + 1] += positions[id];
+		}
+		final int[] byUser = new int[nUses];
+		for (int use = 0; use < nUses; use++) {
+			byUser[positions[users[use]]++] = use;
+		}
+		for (int id = 0; id < nConclusions; id++) {
+			positions[id] = graph_.getUsesFrom(id);
+		}
+		final int[] sorted = new int[nUses];
+		for (final int use : byUser) {
+			final int id = graph_.getSlotPremiseId(graph_.getUseSlot(use));
+			sorted[positions[id]++] = use;
+		}
+		// the pending groups of the uses of every conclusion by the same
+		// conclusion; a group starts at an index of sorted, ends before
+		// groupEnds at this index, and is followed by groupNexts at this
+		// index, or -1 if it is the last pending group
+		final int[] groupHeads = new int[nConclusions];
+		final int[] groupEnds = new int[nUses];
+		final int[] groupNexts = new int[nUses];
+		for (int id = 0; id < nConclusions; id++) {
+			groupHeads[id] = -1;
+			final int usesFrom = graph_.getUsesFrom(id);
+			int group = graph_.getUsesTo(id);
+			while (group > usesFrom) {
+				final int user = users[sorted[--group]];
+				while (group > usesFrom && users[sorted[group - 1]] == user) {
+					group--;
+				}
+				groupEnds[group] = groupHeads[id] < 0 ? graph_.getUsesTo(id)
+						: groupHeads[id];
+				groupNexts[group] = groupHeads[id];
+				groupHeads[id] = group;
+			}
+		}
+		while (toDoFrom < toDoTo) {
+			final int infId = toDo[toDoFrom++];
+			kept[infId] = true;
+			final int slotsTo = graph_.getSlotsTo(infId);
+			for (int slot = graph_
+					.getSlotsFrom(infId); slot < slotsTo; slot++) {
+				usedBy[graph_.getSlotPremiseId(slot)] = infId;
+			}
+			// the slots of a group are derived by the first kept inference
+			// not using the conclusion of the group, so at most one group
+			// per premise of the inference is skipped
+			final int conclusionId = graph_.getConclusionId(infId);
+			int previous = -1;
+			int group = groupHeads[conclusionId];
+			while (group >= 0) {
+				if (usedBy[users[sorted[group]]] == infId) {
+					previous = group;
+					group = groupNexts[group];
+					continue;
+				}
+				// else
+				for (int k = group; k < groupEnds[group]; k++) {
+					final int userId = graph_
+							.getSlotInferenceId(graph_.getUseSlot(sorted[k]));
+					if (pendingSlots[userId] > 0
+							&& --pendingSlots[userId] == 0) {
+						toDo[toDoTo++] = userId;
+					}
+				}
+				group = groupNexts[group];
+				if (previous < 0) {
+					groupHeads[conclusionId] = group;
+				} else {
+					groupNexts[previous] = group;
+				}
+			}
+		}
+		return kept;
+	}
+
+	@Override
+	public Collection<? extends I> getInferences(final Object conclusion) {
+		final int id = graph_.getId(conclusion);
+		if (id < 0) {
+			return Collections.emptyList();
+		}
+		// else
+		return new Slice<I>(inferences_, inferenceOffsets_[id],
+				inferenceOffsets_[id + 1]);
+	}
+
+	/**
+	 * An unmodifiable view of a part of an array.
+	 * 
+	 * @param <E>
+	 *            the type of the elements
+	 */
+	private static class Slice<E> extends AbstractList<E>
+			implements RandomAccess {
+
+		private final Object[] array_;
+
+		private final int from_, to_;
+
+		Slice(final Object[] array, final int from, final int to) {
+			this.array_ = array;
+			this.from_ = from;
+			this.to_ = to;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E get(final int index) {
+			Preconditions.checkElementIndex(index, to_ - from_);
+			return (E) array_[from_ + index];
+		}
+
+		@Override
+		public int size() {
+			return to_ - from_;
+		}
+
+	}
+
+}
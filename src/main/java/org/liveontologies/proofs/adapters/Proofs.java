@@ -52,12 +52,40 @@ public class Proofs {
 		return new CycleRemovingProofAdapter<I>(inferences);
 	}
 
+	/**
+	 * @param inferences
+	 * @param query
+	 * @return the proof with the same inferences as
+	 *         {@link #eliminateCycles(Proof)} for the conclusions used for
+	 *         deriving the given query, which are computed at once
+	 * @see PrecomputedCycleRemovingProofAdapter
+	 */
+	public static <I extends Inference<?>> Proof<I> eliminateCycles(
+			final Proof<? extends I> inferences, final Object query) {
+		return new PrecomputedCycleRemovingProofAdapter<I>(inferences, query);
+	}
+
 	public static <I extends Inference<?>, A> Proof<I> eliminateTautologyInferences(
 			final Proof<I> proof,
 			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
 		return new TautologyRemovingProofAdapter<I, A>(proof, justifier);
 	}
 
+	/**
+	 * @param proof
+	 * @param justifier
+	 * @return the proof in which the inferences dominated by other
+	 *         inferences of the same conclusions are removed; the adapter
+	 *         reports how many inferences were removed
+	 * @see DominatedInferenceRemovingProofAdapter
+	 */
+	public static <I extends Inference<?>, A> DominatedInferenceRemovingProofAdapter<I, A> eliminateDominatedInferences(
+			final Proof<? extends I> proof,
+			final InferenceJustifier<? super I, ? extends Set<? extends A>> justifier) {
+		return new DominatedInferenceRemovingProofAdapter<I, A>(proof,
+				justifier);
+	}
+
 	public static <I extends Inference<?>> boolean hasCycle(
 			final Proof<I> inferences, final Object conclusion) {
 		return (new ProofCycleDetector<I>(inferences))
@@ -41,6 +41,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.liveontologies.pinpointing.experiments.ExperimentException;
 import org.liveontologies.proofs.JustificationCompleteProof;
 import org.liveontologies.proofs.ProofProvider;
 import org.liveontologies.puli.Inference;
@@ -54,11 +55,31 @@ public abstract class BaseJustificationComputationTest<Q, C, I extends Inference
 	public static List<MinimalSubsetsFromProofs.Factory<?, ?, ?>> getJustificationComputationFactories() {
 		final List<MinimalSubsetsFromProofs.Factory<?, ?, ?>> computations = new ArrayList<MinimalSubsetsFromProofs.Factory<?, ?, ?>>();
 		computations.add(BottomUpJustificationComputation.getFactory());
+		computations.add(BottomUpJustificationComputation.getBitSetFactory());
 		computations.add(BinarizedJustificationComputation
 				.getFactory(BottomUpJustificationComputation
 						.<List<Object>, Inference<List<Object>>, Object> getFactory()));
+		computations.add(ParallelBottomUpJustificationComputation.getFactory());
+		// process every round in parallel
+		computations
+				.add(ParallelBottomUpJustificationComputation.getFactory(4, 1));
+		computations.add(CycleRemovingJustificationComputation
+				.getFactory(BottomUpJustificationComputation
+						.<Object, Inference<Object>, Object> getFactory()));
 		computations.add(MinPremisesBottomUp.getFactory());
+		computations.add(ComponentJustificationComputation.getFactory());
+		// process the components by the calling thread
+		computations.add(ComponentJustificationComputation.getFactory(1));
 		computations.add(TopDownJustificationComputation.getFactory());
+		computations.add(TopDownJustificationComputation
+				.getFactory(ConclusionSelectionStrategies.FAN_IN));
+		computations.add(TopDownJustificationComputation
+				.getFactory(ConclusionSelectionStrategies.DEPTH));
+		computations.add(TopDownJustificationComputation
+				.getFactory(ConclusionSelectionStrategies.JUSTIFICATIONS));
+		computations
+				.add(ParallelTopDownJustificationComputation.getFactory());
+		computations.add(RandomSamplingJustificationComputation.getFactory());
 		computations.add(ResolutionJustificationComputation.getFactory());
 		return computations;
 	}
@@ -126,16 +147,24 @@ public abstract class BaseJustificationComputationTest<Q, C, I extends Inference
 
 	protected abstract Q getQuery(final File entailFile) throws Exception;
 
+	private JustificationCompleteProof<C, I, A> getProof(final File entailFile)
+			throws Exception {
+		return proofProvider_.getProof(getQuery(entailFile));
+	}
+
+	private MinimalSubsetCollector<C, I, A> newCollector(
+			final JustificationCompleteProof<C, I, A> proof)
+			throws ExperimentException {
+		return new MinimalSubsetCollector<>(getFactory(), proof.getProof(),
+				proof.getJustifier());
+	}
+
 	private Set<? extends Set<? extends A>> getActualJustifications(
 			final File entailFile) throws Exception {
 
-		final JustificationCompleteProof<C, I, A> proof = proofProvider_
-				.getProof(getQuery(entailFile));
-
-		final MinimalSubsetCollector<C, I, A> collector = new MinimalSubsetCollector<>(
-				getFactory(), proof.getProof(), proof.getJustifier());
+		final JustificationCompleteProof<C, I, A> proof = getProof(entailFile);
 
-		return new HashSet<>(collector.collect(proof.getQuery()));
+		return new HashSet<>(newCollector(proof).collect(proof.getQuery()));
 	}
 
 	protected abstract Set<? extends Set<? extends A>> getExpectedJustifications(
@@ -150,15 +179,19 @@ public abstract class BaseJustificationComputationTest<Q, C, I extends Inference
 		setUp();
 	}
 
-	@Test
-	public void test() throws Exception {
-
+	private void assumeExpectedOutput() {
 		// @formatter:off
 		Assume.assumeFalse(
 				"No expected output.\n" + "computation: " + factory_.getClass()
 						+ "\n" + "ontology: " + ontoFile_,
 				entailFilesPerJustFile_.isEmpty());
 		// @formatter:on
+	}
+
+	@Test
+	public void test() throws Exception {
+
+		assumeExpectedOutput();
 
 		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
 				.entrySet()) {
@@ -195,6 +228,51 @@ public abstract class BaseJustificationComputationTest<Q, C, I extends Inference
 
 	}
 
+	@Test
+	public void testMultipleMinimalSubsets() throws Exception {
+
+		assumeExpectedOutput();
+
+		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
+				.entrySet()) {
+
+			final JustificationCompleteProof<C, I, A> proof = getProof(
+					entry.getKey());
+
+			Assert.assertEquals("multiple minimal subsets of " + entry.getKey(),
+					getExpectedJustifications(entry.getValue()).size() > 1,
+					newCollector(proof)
+							.hasMultipleMinimalSubsets(proof.getQuery()));
+
+		}
+
+	}
+
+	@Test
+	public void testUnion() throws Exception {
+
+		assumeExpectedOutput();
+
+		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
+				.entrySet()) {
+
+			final Set<A> expected = new HashSet<>();
+			for (final Set<? extends A> subset : getExpectedJustifications(
+					entry.getValue())) {
+				expected.addAll(subset);
+			}
+
+			final JustificationCompleteProof<C, I, A> proof = getProof(
+					entry.getKey());
+
+			Assert.assertEquals("union of minimal subsets of " + entry.getKey(),
+					expected,
+					newCollector(proof).collectUnion(proof.getQuery()));
+
+		}
+
+	}
+
 	@After
 	public void after() {
 		proofProvider_.dispose();
@@ -0,0 +1,226 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.liveontologies.proofs.FrozenProof;
+import org.liveontologies.proofs.JustificationCompleteProof;
+import org.liveontologies.proofs.ProofProvider;
+import org.liveontologies.proofs.adapters.Proofs;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+
+/**
+ * Checks the results that do not depend on the computation of
+ * justifications, such as the axioms that occur in every justification and
+ * the justifications over transformed proofs, once for every test input.
+ * 
+ * @param <Q>
+ *            the type of queries
+ * @param <C>
+ *            the type of conclusion and premises used by the inferences
+ * @param <I>
+ *            the type of inferences used in the proof
+ * @param <A>
+ *            the type of axioms used by the inferences
+ */
+@RunWith(Parameterized.class)
+public abstract class BaseJustificationProofTest<Q, C, I extends Inference<? extends C>, A> {
+
+	private final ProofProvider<Q, C, I, A> proofProvider_;
+	private final File ontoFile_;
+	private final Map<File, File[]> entailFilesPerJustFile_;
+
+	/**
+	 * the computation used for checking the transformed proofs
+	 */
+	private final MinimalSubsetsFromProofs.Factory<C, I, A> factory_ = BottomUpJustificationComputation
+			.getFactory();
+
+	public BaseJustificationProofTest(
+			final ProofProvider<Q, C, I, A> proofProvider, final File ontoFile,
+			final Map<File, File[]> entailFilesPerJustFile) {
+		this.proofProvider_ = proofProvider;
+		this.ontoFile_ = ontoFile;
+		this.entailFilesPerJustFile_ = entailFilesPerJustFile;
+	}
+
+	protected abstract Q getQuery(final File entailFile) throws Exception;
+
+	protected abstract Set<? extends Set<? extends A>> getExpectedJustifications(
+			final File[] justFiles) throws Exception;
+
+	protected void dispose() {
+		// Empty default.
+	}
+
+	private JustificationCompleteProof<C, I, A> getProof(final File entailFile)
+			throws Exception {
+		return proofProvider_.getProof(getQuery(entailFile));
+	}
+
+	private Set<? extends Set<A>> collect(final Proof<? extends I> proof,
+			final JustificationCompleteProof<C, I, A> original) {
+		return new HashSet<>(new MinimalSubsetCollector<>(factory_, proof,
+				original.getJustifier()).collect(original.getQuery()));
+	}
+
+	/**
+	 * @param expected
+	 * @return the axioms that occur in every expected justification
+	 */
+	private static <A> Set<A> getNecessaryAxioms(
+			final Set<? extends Set<? extends A>> expected) {
+		Set<A> result = null;
+		for (final Set<? extends A> just : expected) {
+			if (result == null) {
+				result = new HashSet<>(just);
+			} else {
+				result.retainAll(just);
+			}
+		}
+		return result == null ? new HashSet<A>() : result;
+	}
+
+	private void assumeExpectedOutput() {
+		// @formatter:off
+		Assume.assumeFalse("No expected output.\n" + "ontology: " + ontoFile_,
+				entailFilesPerJustFile_.isEmpty());
+		// @formatter:on
+	}
+
+	@Test
+	public void testInEveryJustification() throws Exception {
+
+		assumeExpectedOutput();
+
+		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
+				.entrySet()) {
+
+			final Set<? extends Set<? extends A>> expected = getExpectedJustifications(
+					entry.getValue());
+			final Set<A> necessary = getNecessaryAxioms(expected);
+
+			final JustificationCompleteProof<C, I, A> proof = getProof(
+					entry.getKey());
+			final MinimalSubsetCollector<C, I, A> collector = new MinimalSubsetCollector<>(
+					factory_, proof.getProof(), proof.getJustifier());
+
+			for (final Set<? extends A> just : expected) {
+				for (final A axiom : just) {
+					Assert.assertEquals(
+							axiom + " in every justification of "
+									+ entry.getKey(),
+							necessary.contains(axiom), collector
+									.isInEveryJustification(proof.getQuery(),
+											axiom));
+				}
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testNecessaryAxioms() throws Exception {
+
+		assumeExpectedOutput();
+
+		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
+				.entrySet()) {
+
+			final JustificationCompleteProof<C, I, A> proof = getProof(
+					entry.getKey());
+
+			Assert.assertEquals(
+					"axioms in every justification of " + entry.getKey(),
+					getNecessaryAxioms(
+							getExpectedJustifications(entry.getValue())),
+					new NecessaryAxiomsComputation<C, I, A>(proof.getProof(),
+							proof.getJustifier())
+									.getNecessaryAxioms(proof.getQuery()));
+
+		}
+
+	}
+
+	@Test
+	public void testFrozenProof() throws Exception {
+
+		assumeExpectedOutput();
+
+		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
+				.entrySet()) {
+
+			final FrozenProof<C, I, A> frozen = FrozenProof
+					.create(getProof(entry.getKey()));
+
+			Assert.assertEquals(
+					"justifications over frozen proof of " + entry.getKey(),
+					getExpectedJustifications(entry.getValue()),
+					collect(frozen.getProof(), frozen));
+
+		}
+
+	}
+
+	@Test
+	public void testEliminateDominatedInferences() throws Exception {
+
+		assumeExpectedOutput();
+
+		for (final Map.Entry<File, File[]> entry : entailFilesPerJustFile_
+				.entrySet()) {
+
+			final JustificationCompleteProof<C, I, A> proof = getProof(
+					entry.getKey());
+
+			Assert.assertEquals(
+					"justifications over proof without dominated inferences of "
+							+ entry.getKey(),
+					getExpectedJustifications(entry.getValue()),
+					collect(Proofs.<I, A> eliminateDominatedInferences(
+							proof.getProof(), proof.getJustifier()), proof));
+
+		}
+
+	}
+
+	@After
+	public void after() {
+		proofProvider_.dispose();
+		dispose();
+	}
+
+}
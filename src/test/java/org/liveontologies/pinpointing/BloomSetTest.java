@@ -0,0 +1,142 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Compares the inclusion tests of {@link BloomSet}s with those of hash sets
+ * for sets that are large enough to have filters wider than 64 bits.
+ */
+@RunWith(Parameterized.class)
+public class BloomSetTest {
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		final List<Object[]> result = new ArrayList<Object[]>();
+		result.add(new Object[] { BloomFilterParameters.DEFAULT });
+		result.add(new Object[] { BloomFilterParameters.create(1, 64) });
+		result.add(new Object[] { BloomFilterParameters.create(3, 64) });
+		result.add(new Object[] { BloomFilterParameters.create(2, 128) });
+		result.add(new Object[] { BloomFilterParameters.create(3) });
+		return result;
+	}
+
+	private final BloomFilterParameters params_;
+
+	public BloomSetTest(final BloomFilterParameters params) {
+		this.params_ = params;
+	}
+
+	private static Set<Integer> randomSet(final Random random,
+			final int maxSize, final int range) {
+		final Set<Integer> result = new HashSet<Integer>();
+		final int size = random.nextInt(maxSize + 1);
+		while (result.size() < size) {
+			result.add(random.nextInt(range));
+		}
+		return result;
+	}
+
+	@Test
+	public void testContainsAll() {
+		final Random random = new Random(21);
+		final InclusionStatistics stats = InclusionStatistics.create();
+		for (int i = 0; i < 1000; i++) {
+			final int range = 50 + random.nextInt(300);
+			final Set<Integer> first = randomSet(random, range, range);
+			// a subset of the first set or a random set
+			final Set<Integer> second = new HashSet<Integer>();
+			if (random.nextBoolean()) {
+				for (final Integer element : first) {
+					if (random.nextInt(4) > 0) {
+						second.add(element);
+					}
+				}
+			} else {
+				second.addAll(randomSet(random, range, range));
+			}
+			if (random.nextBoolean()) {
+				second.add(random.nextInt(range));
+			}
+			final BloomSet<String, Integer> firstBloom = new BloomSet<String, Integer>(
+					stats, params_, "first", first);
+			final BloomSet<String, Integer> secondBloom = new BloomSet<String, Integer>(
+					stats, params_, "second", second);
+			Assert.assertEquals(first.containsAll(second),
+					firstBloom.containsAll(secondBloom));
+			Assert.assertEquals(second.containsAll(first),
+					secondBloom.containsAll(firstBloom));
+			Assert.assertEquals(first.containsAll(second),
+					firstBloom.containsAll(second));
+			Assert.assertEquals(first.equals(second),
+					firstBloom.equals(secondBloom));
+			for (int j = 0; j < 10; j++) {
+				final Integer element = random.nextInt(range);
+				Assert.assertEquals(first.contains(element),
+						firstBloom.contains(element));
+			}
+		}
+		if (params_.getMaxWidth() > 64) {
+			// the sets were distinguished by the wide filters
+			Assert.assertTrue(stats.containsAllFilteredWide() > 0);
+		} else {
+			Assert.assertEquals(0, stats.containsAllFilteredWide());
+		}
+	}
+
+	@Test
+	public void testDerivedSets() {
+		final Random random = new Random(22);
+		for (int i = 0; i < 1000; i++) {
+			final Set<Integer> elements = randomSet(random, 200, 400);
+			final Set<Integer> added = randomSet(random, 100, 400);
+			final BloomSet<String, Integer> set = new BloomSet<String, Integer>(
+					InclusionStatistics.DISABLED, params_, "set", elements);
+			final Justification<String, Integer> union = set.copyTo("union")
+					.addElements(added);
+			final Set<Integer> expected = new HashSet<Integer>(elements);
+			expected.addAll(added);
+			Assert.assertEquals(expected, union);
+			Assert.assertTrue(union.containsAll(set));
+			Assert.assertEquals(set.containsAll(union),
+					elements.containsAll(added));
+			final Justification<String, Integer> difference = union
+					.removeElements(added);
+			Assert.assertTrue(set.containsAll(difference));
+			Assert.assertTrue(union.containsAll(difference));
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BottomUpJustificationComputationTest {
+
+	/**
+	 * Queries all conclusions of random proofs several times using one
+	 * computation with a small bound on the resident size, so that the
+	 * justifications computed for other queries are evicted.
+	 */
+	@Test
+	public void testEvictionWithSmallBudget() {
+		final int maxResidentSize = 10;
+		final Random random = new Random(7);
+		int countEvicted = 0;
+		for (int i = 0; i < 100; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 10, 8,
+					30);
+			final BottomUpJustificationComputation<Integer, RandomProof.Inf, String> computation = (BottomUpJustificationComputation<Integer, RandomProof.Inf, String>) BottomUpJustificationComputation
+					.<Integer, RandomProof.Inf, String> getFactory(
+							maxResidentSize)
+					.create(randomProof.getProof(), RandomProof.JUSTIFIER,
+							RandomProof.NO_INTERRUPT);
+			for (int round = 0; round < 3; round++) {
+				for (int j = 0; j < randomProof.getConclusionCount(); j++) {
+					final Integer goal = random
+							.nextInt(randomProof.getConclusionCount());
+					Assert.assertEquals(randomProof.toString(),
+							randomProof.getJustifications(goal),
+							RandomProof.collect(computation, goal).getSet());
+				}
+			}
+			countEvicted += computation.nEvictedConclusions();
+		}
+		Assert.assertTrue(countEvicted > 0);
+	}
+
+	/**
+	 * Checks that the justifications computed for one query are reused for
+	 * the following queries of the same computation.
+	 */
+	@Test
+	public void testStateKeptAcrossQueries() {
+		final Random random = new Random(8);
+		for (int i = 0; i < 100; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 10, 8,
+					30);
+			final BottomUpJustificationComputation<Integer, RandomProof.Inf, String> computation = (BottomUpJustificationComputation<Integer, RandomProof.Inf, String>) BottomUpJustificationComputation
+					.<Integer, RandomProof.Inf, String> getFactory()
+					.create(randomProof.getProof(), RandomProof.JUSTIFIER,
+							RandomProof.NO_INTERRUPT);
+			randomProof.checkJustifications(computation);
+			final int countJusts = computation
+					.nJustificationsOfAllConclusions();
+			for (int goal = randomProof.getConclusionCount()
+					- 1; goal >= 0; goal--) {
+				Assert.assertEquals(randomProof.toString(),
+						randomProof.getJustifications(goal),
+						RandomProof.collect(computation, goal).getSet());
+			}
+			Assert.assertEquals(countJusts,
+					computation.nJustificationsOfAllConclusions());
+		}
+	}
+
+}
@@ -0,0 +1,253 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+import org.liveontologies.puli.pinpointing.PriorityComparators;
+
+/**
+ * Compares the subsets enumerated with size, count, and weight limits with the
+ * filtered results of the unbounded enumeration, and checks that the
+ * enumeration without limits that follows a bounded one is complete. For the
+ * computations that respect the priorities, it is also checked that both
+ * enumerations are ordered and that the count limit keeps the smallest
+ * subsets.
+ */
+@RunWith(Parameterized.class)
+public class BoundedMinimalSubsetEnumeratorTest {
+
+	private static final int N_PROOFS_ = 100;
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		final List<Object[]> result = new ArrayList<Object[]>();
+		result.add(new Object[] {
+				BottomUpJustificationComputation.getFactory(), true });
+		result.add(new Object[] {
+				BottomUpJustificationComputation.getBitSetFactory(), true });
+		// evict often
+		result.add(new Object[] {
+				BottomUpJustificationComputation.getFactory(10), true });
+		result.add(new Object[] { MinPremisesBottomUp.getFactory(), true });
+		// enumerates in a random order with and without limits
+		result.add(new Object[] {
+				RandomSamplingJustificationComputation.getFactory(), false });
+		return result;
+	}
+
+	private final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory_;
+
+	/**
+	 * whether the enumeration respects the priorities
+	 */
+	private final boolean ordered_;
+
+	public BoundedMinimalSubsetEnumeratorTest(
+			final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory,
+			final boolean ordered) {
+		this.factory_ = factory;
+		this.ordered_ = ordered;
+	}
+
+	private MinimalSubsetEnumerator.Factory<Integer, String> create(
+			final RandomProof randomProof) {
+		return factory_.create(randomProof.getProof(), RandomProof.JUSTIFIER,
+				RandomProof.NO_INTERRUPT);
+	}
+
+	private static BoundedMinimalSubsetEnumerator<String> newEnumerator(
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation,
+			final Integer goal) {
+		return (BoundedMinimalSubsetEnumerator<String>) computation
+				.newEnumerator(goal);
+	}
+
+	private static Set<Set<String>> filterBySize(
+			final Set<Set<String>> subsets, final int sizeLimit) {
+		final Set<Set<String>> result = new HashSet<Set<String>>();
+		for (final Set<String> subset : subsets) {
+			if (subset.size() <= sizeLimit) {
+				result.add(subset);
+			}
+		}
+		return result;
+	}
+
+	private static Set<Set<String>> filterByWeight(
+			final Set<Set<String>> subsets, final AxiomWeights weights,
+			final long weightLimit) {
+		final Set<Set<String>> result = new HashSet<Set<String>>();
+		for (final Set<String> subset : subsets) {
+			if (weights.getWeight(subset) <= weightLimit) {
+				result.add(subset);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testSizeLimit() {
+		final Random random = new Random(11);
+		for (int i = 0; i < N_PROOFS_; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 10, 8,
+					30);
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation = create(
+					randomProof);
+			for (int j = 0; j < randomProof.getConclusionCount(); j++) {
+				final Integer goal = random
+						.nextInt(randomProof.getConclusionCount());
+				final Set<Set<String>> expected = randomProof
+						.getJustifications(goal);
+				final int sizeLimit = random.nextInt(4);
+				final BoundedMinimalSubsetEnumerator<String> enumerator = newEnumerator(
+						computation, goal);
+				final RandomProof.Collector bounded = new RandomProof.Collector();
+				enumerator.enumerate(bounded,
+						PriorityComparators.<String> cardinality(), sizeLimit,
+						Integer.MAX_VALUE);
+				Assert.assertEquals(randomProof.toString(),
+						filterBySize(expected, sizeLimit), bounded.getSet());
+				if (ordered_) {
+					bounded.checkIncreasingSize();
+				}
+				final RandomProof.Collector all = new RandomProof.Collector();
+				enumerator.enumerate(all);
+				Assert.assertEquals(randomProof.toString(), expected,
+						all.getSet());
+				if (ordered_) {
+					all.checkIncreasingSize();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCountLimit() {
+		final Random random = new Random(12);
+		for (int i = 0; i < N_PROOFS_; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 10, 8,
+					30);
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation = create(
+					randomProof);
+			for (int j = 0; j < randomProof.getConclusionCount(); j++) {
+				final Integer goal = random
+						.nextInt(randomProof.getConclusionCount());
+				final Set<Set<String>> expected = randomProof
+						.getJustifications(goal);
+				final int countLimit = 1 + random.nextInt(3);
+				final BoundedMinimalSubsetEnumerator<String> enumerator = newEnumerator(
+						computation, goal);
+				final RandomProof.Collector bounded = new RandomProof.Collector();
+				enumerator.enumerate(bounded,
+						PriorityComparators.<String> cardinality(),
+						Integer.MAX_VALUE, countLimit);
+				Assert.assertEquals(randomProof.toString(),
+						Math.min(countLimit, expected.size()),
+						bounded.getSet().size());
+				Assert.assertTrue(randomProof.toString(),
+						expected.containsAll(bounded.getSet()));
+				if (ordered_) {
+					bounded.checkIncreasingSize();
+					// the reported subsets are the smallest
+					for (final Set<String> subset : expected) {
+						if (!bounded.getSet().contains(subset)) {
+							Assert.assertTrue(randomProof.toString(),
+									bounded.getMaxSize() <= subset.size());
+						}
+					}
+				}
+				final RandomProof.Collector all = new RandomProof.Collector();
+				enumerator.enumerate(all);
+				Assert.assertEquals(randomProof.toString(), expected,
+						all.getSet());
+				if (ordered_) {
+					all.checkIncreasingSize();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testWeightLimit() {
+		final Random random = new Random(13);
+		for (int i = 0; i < N_PROOFS_; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 10, 8,
+					30);
+			final Map<String, Long> weightMap = new HashMap<String, Long>();
+			for (int k = 0; k < 8; k++) {
+				if (random.nextBoolean()) {
+					weightMap.put("a" + k, (long) random.nextInt(6));
+				}
+			}
+			final AxiomWeights weights = new AxiomWeights(weightMap, 2);
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation = create(
+					randomProof);
+			for (int j = 0; j < randomProof.getConclusionCount(); j++) {
+				final Integer goal = random
+						.nextInt(randomProof.getConclusionCount());
+				final Set<Set<String>> expected = randomProof
+						.getJustifications(goal);
+				final long weightLimit = random.nextInt(8);
+				final BoundedMinimalSubsetEnumerator<String> enumerator = newEnumerator(
+						computation, goal);
+				final RandomProof.Collector bounded = new RandomProof.Collector();
+				enumerator.enumerate(bounded, weights, weightLimit,
+						Integer.MAX_VALUE);
+				Assert.assertEquals(randomProof.toString(),
+						filterByWeight(expected, weights, weightLimit),
+						bounded.getSet());
+				if (ordered_) {
+					long lastWeight = 0;
+					for (final Set<String> subset : bounded.getList()) {
+						final long weight = weights.getWeight(subset);
+						Assert.assertTrue(lastWeight <= weight);
+						lastWeight = weight;
+					}
+				}
+				final RandomProof.Collector all = new RandomProof.Collector();
+				enumerator.enumerate(all);
+				Assert.assertEquals(randomProof.toString(), expected,
+						all.getSet());
+				if (ordered_) {
+					all.checkIncreasingSize();
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+
+public class ComponentJustificationComputationTest {
+
+	/**
+	 * Checks that the enumeration that follows an interrupted one is
+	 * complete, for the interrupts at different points of the computation.
+	 */
+	@Test
+	public void testEnumerateAfterInterrupt() {
+		// process the components by the calling thread and in parallel
+		testEnumerateAfterInterrupt(
+				ComponentJustificationComputation.getFactory(1));
+		testEnumerateAfterInterrupt(
+				ComponentJustificationComputation.getFactory(4));
+	}
+
+	private static void testEnumerateAfterInterrupt(
+			final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory) {
+		final Random random = new Random(17);
+		final CountingMonitor monitor = new CountingMonitor();
+		for (int i = 0; i < 200; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation = factory
+					.create(randomProof.getProof(), RandomProof.JUSTIFIER,
+							monitor);
+			for (int goal = 0; goal < randomProof
+					.getConclusionCount(); goal++) {
+				final MinimalSubsetEnumerator<String> enumerator = computation
+						.newEnumerator(goal);
+				monitor.interruptAfter(random.nextInt(20));
+				enumerator.enumerate(new RandomProof.Collector());
+				monitor.interruptAfter(Integer.MAX_VALUE);
+				final RandomProof.Collector collector = new RandomProof.Collector();
+				enumerator.enumerate(collector);
+				Assert.assertEquals(randomProof.toString(),
+						randomProof.getJustifications(goal),
+						collector.getSet());
+			}
+		}
+	}
+
+	@Test
+	public void testProofAccessedByCallingThread() {
+		final Thread caller = Thread.currentThread();
+		final Set<Thread> accessing = new HashSet<Thread>();
+		final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory = ComponentJustificationComputation
+				.getFactory(4);
+		final Random random = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			randomProof.checkJustifications(factory.create(
+					randomProof.getRecordingProof(accessing),
+					RandomProof.getRecordingJustifier(accessing),
+					RandomProof.NO_INTERRUPT));
+		}
+		Assert.assertEquals(Collections.singleton(caller), accessing);
+	}
+
+	/**
+	 * Interrupts the computation after the given number of checks.
+	 */
+	private static class CountingMonitor implements InterruptMonitor {
+
+		private int remainingChecks_;
+
+		synchronized void interruptAfter(final int nChecks) {
+			remainingChecks_ = nChecks;
+		}
+
+		@Override
+		public synchronized boolean isInterrupted() {
+			if (remainingChecks_ <= 0) {
+				return true;
+			}
+			// else
+			remainingChecks_--;
+			return false;
+		}
+
+	}
+
+}
@@ -0,0 +1,203 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+
+public class JustificationCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Set<String> set(final String... elements) {
+		return new HashSet<String>(Arrays.asList(elements));
+	}
+
+	/**
+	 * @return the axioms of the justifications of the given conclusion stored
+	 *         in the given cache, where the axioms are identified among the
+	 *         given ones
+	 */
+	private static Set<Set<String>> get(final JustificationCache cache,
+			final Object conclusion, final Set<String> axioms) {
+		final int[][] justs = cache.get(conclusion);
+		if (justs == null) {
+			return null;
+		}
+		// else
+		final Map<Integer, String> axiomsById = new HashMap<Integer, String>();
+		for (final String axiom : axioms) {
+			axiomsById.put(cache.findAxiomId(axiom), axiom);
+		}
+		final Set<Set<String>> result = new HashSet<Set<String>>();
+		for (final int[] ids : justs) {
+			final Set<String> just = new HashSet<String>();
+			for (final int id : ids) {
+				Assert.assertTrue(axiomsById.containsKey(id));
+				just.add(axiomsById.get(id));
+			}
+			result.add(just);
+		}
+		return result;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final File dir = folder.newFolder();
+		// the separators of the format occur in the representations
+		final Set<String> axioms = set("a b", "a\nb", "a\\nb", "a\\sb", "-",
+				"1,2");
+		final Map<String, List<Set<String>>> justs = new HashMap<String, List<Set<String>>>();
+		justs.put("C D", Arrays.asList(set("a b", "a\nb"), set("-")));
+		justs.put("C\r\nD", Arrays.asList(set("a\\nb", "1,2"), set("a\\sb")));
+		justs.put("C\\sD", Collections.singletonList(set()));
+		new JustificationCache(dir, "test").putAll(justs);
+
+		final JustificationCache cache = new JustificationCache(dir, "test");
+		Assert.assertEquals(justs.size(), cache.nStoredConclusions());
+		for (final Map.Entry<String, List<Set<String>>> entry : justs
+				.entrySet()) {
+			Assert.assertEquals(new HashSet<Set<String>>(entry.getValue()),
+					get(cache, entry.getKey(), axioms));
+		}
+		Assert.assertNull(cache.get("C"));
+		Assert.assertNull(cache.get("C\\ D"));
+	}
+
+	@Test
+	public void testClassIsPartOfIdentity() throws IOException {
+		final JustificationCache cache = new JustificationCache(
+				folder.newFolder(), "test");
+		cache.putAll(Collections.singletonMap("1",
+				Collections.singletonList(set("a"))));
+		Assert.assertNotNull(cache.get("1"));
+		Assert.assertNull(cache.get(1));
+	}
+
+	@Test
+	public void testDifferentObjectsWithSameRepresentation()
+			throws IOException {
+		final JustificationCache cache = new JustificationCache(
+				folder.newFolder(), "test");
+		final Object first = new Named("C");
+		final Object second = new Named("C");
+		cache.putAll(Collections.singletonMap(first,
+				Collections.singletonList(set("a"))));
+		Assert.assertNotNull(cache.get(first));
+		Assert.assertNull(cache.get(second));
+		Assert.assertNull(cache.get(first));
+	}
+
+	@Test
+	public void testChangedPipelineMisses() throws IOException {
+		final File dir = folder.newFolder();
+		final File ontology = new File(folder.newFolder(), "ontology");
+		final FileWriter writer = new FileWriter(ontology);
+		try {
+			writer.write("ontology");
+		} finally {
+			writer.close();
+		}
+		JustificationCache.open(dir, ontology, Arrays.asList("proof", "freeze"))
+				.putAll(Collections.singletonMap("C",
+						Collections.singletonList(set("a"))));
+
+		Assert.assertNotNull(JustificationCache
+				.open(dir, ontology, Arrays.asList("proof", "freeze"))
+				.get("C"));
+		Assert.assertNull(JustificationCache
+				.open(dir, ontology,
+						Arrays.asList("proof", "prune-dominated", "freeze"))
+				.get("C"));
+		Assert.assertNull(JustificationCache
+				.open(dir, ontology, Arrays.asList("other proof", "freeze"))
+				.get("C"));
+		Assert.assertNull(JustificationCache
+				.open(dir, ontology, Arrays.asList("prooffreeze")).get("C"));
+	}
+
+	@Test
+	public void testComputationReusesCache() throws IOException {
+		final Random random = new Random(5);
+		for (int i = 0; i < 50; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			final File dir = folder.newFolder();
+			for (int run = 0; run < 2; run++) {
+				final JustificationCache cache = new JustificationCache(dir,
+						"test");
+				final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory = BottomUpJustificationComputation
+						.getFactory(cache);
+				for (int goal = 0; goal < randomProof
+						.getConclusionCount(); goal++) {
+					final MinimalSubsetCollector<Integer, RandomProof.Inf, String> collector = new MinimalSubsetCollector<>(
+							factory, randomProof.getProof(),
+							RandomProof.JUSTIFIER);
+					Assert.assertEquals(randomProof.toString(),
+							randomProof.getJustifications(goal),
+							new HashSet<>(collector.collect(goal)));
+				}
+				if (run > 0) {
+					Assert.assertEquals(0, cache.nNewlyStoredConclusions());
+					Assert.assertEquals(0, cache.nMisses());
+				}
+			}
+		}
+	}
+
+	/**
+	 * An object that is equal only to itself but whose string representation
+	 * can be shared by other objects.
+	 */
+	private static class Named {
+
+		private final String name_;
+
+		Named(final String name) {
+			this.name_ = name;
+		}
+
+		@Override
+		public String toString() {
+			return name_;
+		}
+
+	}
+
+}
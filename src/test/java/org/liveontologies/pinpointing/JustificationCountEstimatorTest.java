@@ -0,0 +1,132 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.liveontologies.puli.BaseProof;
+
+public class JustificationCountEstimatorTest {
+
+	private static final long BUDGET_MILLIS = 10000;
+
+	@Test
+	public void testRandomProofs() {
+		final Random random = new Random(11);
+		for (int i = 0; i < 200; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			final JustificationCountEstimator<Integer, RandomProof.Inf, String> estimator = new JustificationCountEstimator<>(
+					randomProof.getProof(), RandomProof.JUSTIFIER,
+					new Random(i));
+			for (int goal = 0; goal < randomProof
+					.getConclusionCount(); goal++) {
+				final long count = randomProof.getJustifications(goal).size();
+				final JustificationCountEstimator.Estimate estimate = estimator
+						.estimate(goal, 1000, BUDGET_MILLIS);
+				final String message = estimate + " for " + count
+						+ " justifications of " + goal + " in " + randomProof;
+				Assert.assertTrue(message, estimate.getLowerBound() <= count);
+				Assert.assertTrue(message, count <= estimate.getUpperBound());
+				Assert.assertTrue(message,
+						estimate.getLowerBound() <= estimate.getValue());
+				Assert.assertTrue(message,
+						estimate.getValue() <= estimate.getUpperBound());
+				// the proofs are small enough to sample all justifications
+				Assert.assertEquals(message, count, estimate.getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testNotDerivable() {
+		final BaseProof<RandomProof.Inf> proof = new BaseProof<>();
+		proof.produce(new RandomProof.Inf(0, Collections.singletonList(1),
+				Collections.singleton("a")));
+		final JustificationCountEstimator.Estimate estimate = new JustificationCountEstimator<>(
+				proof, RandomProof.JUSTIFIER, new Random(1)).estimate(0, 100,
+						BUDGET_MILLIS);
+		Assert.assertEquals(0, estimate.getLowerBound());
+		Assert.assertEquals(0, estimate.getValue());
+		Assert.assertEquals(0, estimate.getUpperBound());
+	}
+
+	@Test
+	public void testNoBudget() {
+		final RandomProof randomProof = RandomProof.generate(new Random(3), 8,
+				8, 25);
+		final JustificationCountEstimator<Integer, RandomProof.Inf, String> estimator = new JustificationCountEstimator<>(
+				randomProof.getProof(), RandomProof.JUSTIFIER, new Random(1));
+		for (int goal = 0; goal < randomProof.getConclusionCount(); goal++) {
+			final long count = randomProof.getJustifications(goal).size();
+			final JustificationCountEstimator.Estimate estimate = estimator
+					.estimate(goal, 100, 0);
+			final String message = estimate + " for " + count
+					+ " justifications of " + goal + " in " + randomProof;
+			if (count > 0 && !randomProof.getJustifications(goal)
+					.contains(Collections.<String> emptySet())) {
+				// the first sample is stopped
+				Assert.assertEquals(message, 0, estimate.getSampleCount());
+			}
+			Assert.assertTrue(message, estimate.getLowerBound() <= count);
+			Assert.assertTrue(message, count <= estimate.getUpperBound());
+		}
+	}
+
+	/**
+	 * Checks a proof in which every conclusion has two inferences with
+	 * different axioms from the next conclusion; every derivation of the
+	 * first conclusion has a different justification, so the number of
+	 * derivations is the exact upper bound.
+	 */
+	@Test
+	public void testAcyclicUpperBound() {
+		final int length = 12;
+		final BaseProof<RandomProof.Inf> proof = new BaseProof<>();
+		final List<RandomProof.Inf> inferences = new ArrayList<>();
+		for (int i = 0; i < length; i++) {
+			final List<Integer> premises = i + 1 < length
+					? Collections.singletonList(i + 1)
+					: Collections.<Integer> emptyList();
+			inferences.add(new RandomProof.Inf(i, premises,
+					Collections.singleton("l" + i)));
+			inferences.add(new RandomProof.Inf(i, premises,
+					Collections.singleton("r" + i)));
+		}
+		for (final RandomProof.Inf inference : inferences) {
+			proof.produce(inference);
+		}
+		final JustificationCountEstimator.Estimate estimate = new JustificationCountEstimator<>(
+				proof, RandomProof.JUSTIFIER, new Random(1)).estimate(0, 100,
+						BUDGET_MILLIS);
+		Assert.assertEquals(1 << length, estimate.getUpperBound());
+		Assert.assertEquals(100, estimate.getSampleCount());
+		Assert.assertTrue(estimate.getLowerBound() <= 100);
+	}
+
+}
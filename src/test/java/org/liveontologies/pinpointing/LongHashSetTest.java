@@ -0,0 +1,69 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongHashSetTest {
+
+	@Test
+	public void testAgainstHashSet() {
+		final Random random = new Random(31);
+		final LongHashSet set = new LongHashSet();
+		final Set<Long> expected = new HashSet<Long>();
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 10000; i++) {
+				// few distinct values, including zero and negative ones
+				final long value = random.nextInt(4000) - 1000;
+				Assert.assertEquals(expected.add(value), set.add(value));
+				Assert.assertEquals(expected.size(), set.size());
+			}
+			for (long value = -1100; value < 3100; value++) {
+				Assert.assertEquals(expected.contains(value),
+						set.contains(value));
+			}
+			set.clear();
+			expected.clear();
+			Assert.assertEquals(0, set.size());
+			Assert.assertFalse(set.contains(0));
+		}
+	}
+
+	@Test
+	public void testJobKeys() {
+		final LongHashSet set = new LongHashSet();
+		for (int premises = 0; premises < 100; premises++) {
+			for (int just = 0; just < 100; just++) {
+				Assert.assertTrue(set.add(((long) premises << 32) | just));
+			}
+		}
+		Assert.assertEquals(10000, set.size());
+		Assert.assertFalse(set.add((5L << 32) | 7));
+	}
+
+}
@@ -49,12 +49,22 @@ public abstract class OwlJustificationComputationTest extends
 			final MinimalSubsetsFromProofs.Factory<OWLAxiom, Inference<OWLAxiom>, OWLAxiom> factory,
 			final File ontoFile, final Map<File, File[]> entailFilesPerJustFile)
 			throws ExperimentException {
-		super(new OwlProofProvider(ontoFile, OWL_MANAGER_), factory, ontoFile,
+		super(createProofProvider(ontoFile), factory, ontoFile,
 				entailFilesPerJustFile);
 	}
 
+	static OwlProofProvider createProofProvider(final File ontoFile)
+			throws ExperimentException {
+		return new OwlProofProvider(ontoFile, OWL_MANAGER_);
+	}
+
 	@Override
 	protected OWLAxiom getQuery(final File entailFile) throws Exception {
+		return loadQuery(entailFile);
+	}
+
+	static OWLAxiom loadQuery(final File entailFile)
+			throws OWLOntologyCreationException {
 		return OWL_MANAGER_.loadOntologyFromOntologyDocument(entailFile)
 				.getLogicalAxioms().iterator().next();
 	}
@@ -62,6 +72,11 @@ public abstract class OwlJustificationComputationTest extends
 	@Override
 	public Set<? extends Set<? extends OWLAxiom>> getExpectedJustifications(
 			final File[] justFiles) throws OWLOntologyCreationException {
+		return loadJustifications(justFiles);
+	}
+
+	static Set<? extends Set<? extends OWLAxiom>> loadJustifications(
+			final File[] justFiles) throws OWLOntologyCreationException {
 		final Set<Set<? extends OWLAxiom>> expectedJusts = new HashSet<>();
 		for (final File justFile : justFiles) {
 			final OWLOntology just = OWL_MANAGER_
@@ -74,6 +89,10 @@ public abstract class OwlJustificationComputationTest extends
 	@Override
 	public void dispose() {
 		super.dispose();
+		removeOntologies();
+	}
+
+	static void removeOntologies() {
 		final Collection<OWLOntology> ontologies = new ArrayList<>(
 				OWL_MANAGER_.getOntologies());
 		for (final OWLOntology ontology : ontologies) {
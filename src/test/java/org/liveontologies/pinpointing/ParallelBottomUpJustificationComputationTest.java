@@ -0,0 +1,58 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+
+public class ParallelBottomUpJustificationComputationTest {
+
+	/**
+	 * Checks that the proof and the justifier are accessed only by the
+	 * calling thread even if every round is processed in parallel.
+	 */
+	@Test
+	public void testProofAccessedByCallingThread() {
+		final Thread caller = Thread.currentThread();
+		final Set<Thread> accessing = new HashSet<Thread>();
+		final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory = ParallelBottomUpJustificationComputation
+				.getFactory(4, 1);
+		final Random random = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			randomProof.checkJustifications(factory.create(
+					randomProof.getRecordingProof(accessing),
+					RandomProof.getRecordingJustifier(accessing),
+					RandomProof.NO_INTERRUPT));
+		}
+		Assert.assertEquals(Collections.singleton(caller), accessing);
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.liveontologies.puli.BaseProof;
+import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
+
+public class ParallelTopDownJustificationComputationTest {
+
+	private static final int N_THREADS = 4;
+
+	private final MinimalSubsetsFromProofs.Factory<Integer, RandomProof.Inf, String> factory_ = ParallelTopDownJustificationComputation
+			.getFactory(N_THREADS);
+
+	/**
+	 * Checks a proof in which every conclusion has two inferences with
+	 * different axioms from the next conclusion, so that all jobs produced
+	 * from the jobs of the same priority have the same priority and every
+	 * justification is reported only after the workers process all jobs.
+	 */
+	@Test
+	public void testEqualPriorities() {
+		final int length = 10;
+		final BaseProof<RandomProof.Inf> proof = new BaseProof<>();
+		final List<RandomProof.Inf> inferences = new ArrayList<>();
+		for (int i = 0; i < length; i++) {
+			final List<Integer> premises = i + 1 < length
+					? Collections.singletonList(i + 1)
+					: Collections.<Integer> emptyList();
+			inferences.add(new RandomProof.Inf(i, premises,
+					Collections.singleton("l" + i)));
+			inferences.add(new RandomProof.Inf(i, premises,
+					Collections.singleton("r" + i)));
+		}
+		for (final RandomProof.Inf inference : inferences) {
+			proof.produce(inference);
+		}
+		for (int i = 0; i < 20; i++) {
+			final Set<Set<String>> justifications = RandomProof
+					.collect(factory_.create(proof, RandomProof.JUSTIFIER,
+							RandomProof.NO_INTERRUPT), 0)
+					.getSet();
+			Assert.assertEquals(1 << length, justifications.size());
+			for (final Set<String> justification : justifications) {
+				Assert.assertEquals(length, justification.size());
+			}
+		}
+	}
+
+	@Test
+	public void testRandomProofs() {
+		final Random random = new Random(5);
+		for (int i = 0; i < 300; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			randomProof.checkJustifications(factory_.create(
+					randomProof.getProof(), RandomProof.JUSTIFIER,
+					RandomProof.NO_INTERRUPT));
+		}
+	}
+
+	@Test
+	public void testProofAccessedByCallingThread() {
+		final Thread caller = Thread.currentThread();
+		final Set<Thread> accessing = new HashSet<Thread>();
+		final Random random = new Random(7);
+		for (int i = 0; i < 200; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			randomProof.checkJustifications(factory_.create(
+					randomProof.getRecordingProof(accessing),
+					RandomProof.getRecordingJustifier(accessing),
+					RandomProof.NO_INTERRUPT));
+		}
+		Assert.assertEquals(Collections.singleton(caller), accessing);
+	}
+
+}
@@ -0,0 +1,365 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.liveontologies.puli.BaseProof;
+import org.liveontologies.puli.Inference;
+import org.liveontologies.puli.InferenceJustifier;
+import org.liveontologies.puli.Inferences;
+import org.liveontologies.puli.Proof;
+import org.liveontologies.puli.pinpointing.InterruptMonitor;
+import org.liveontologies.puli.pinpointing.MinimalSubsetEnumerator;
+import org.liveontologies.puli.pinpointing.PriorityComparators;
+
+/**
+ * A randomly generated proof over integer conclusions and string axioms that
+ * is small enough to compute its justifications by checking all sets of
+ * axioms. The proofs may contain cycles, inferences without premises, and
+ * inferences with empty justifications. Also provides the utilities for
+ * comparing the justifications enumerated by computations with the ones
+ * computed by checking all sets of axioms.
+ */
+public class RandomProof {
+
+	public static final InferenceJustifier<Inf, Set<String>> JUSTIFIER = new InferenceJustifier<Inf, Set<String>>() {
+
+		@Override
+		public Set<String> getJustification(final Inf inference) {
+			return inference.justification_;
+		}
+
+	};
+
+	public static final InterruptMonitor NO_INTERRUPT = new InterruptMonitor() {
+
+		@Override
+		public boolean isInterrupted() {
+			return false;
+		}
+
+	};
+
+	private final int conclusionCount_;
+
+	private final List<String> axioms_;
+
+	private final List<Inf> inferences_;
+
+	private final BaseProof<Inf> proof_ = new BaseProof<Inf>();
+
+	private RandomProof(final int conclusionCount, final List<String> axioms,
+			final List<Inf> inferences) {
+		this.conclusionCount_ = conclusionCount;
+		this.axioms_ = axioms;
+		this.inferences_ = inferences;
+		for (final Inf inf : inferences) {
+			proof_.produce(inf);
+		}
+	}
+
+	/**
+	 * @param random
+	 * @param conclusionCount
+	 *            the conclusions are the numbers from 0 to this number
+	 *            (exclusive)
+	 * @param axiomCount
+	 *            the number of different axioms that can be used in the
+	 *            justifications of inferences
+	 * @param inferenceCount
+	 * @return a new random proof with the given parameters
+	 */
+	public static RandomProof generate(final Random random,
+			final int conclusionCount, final int axiomCount,
+			final int inferenceCount) {
+		final List<String> axioms = new ArrayList<String>(axiomCount);
+		for (int i = 0; i < axiomCount; i++) {
+			axioms.add("a" + i);
+		}
+		final List<Inf> inferences = new ArrayList<Inf>(inferenceCount);
+		for (int i = 0; i < inferenceCount; i++) {
+			final int conclusion = random.nextInt(conclusionCount);
+			final List<Integer> premises = new ArrayList<Integer>();
+			final int premiseCount = random.nextInt(2) == 0 ? 0
+					: random.nextInt(3);
+			for (int j = 0; j < premiseCount; j++) {
+				final int premise = random.nextInt(conclusionCount);
+				if (!premises.contains(premise)) {
+					premises.add(premise);
+				}
+			}
+			final Set<String> justification = new HashSet<String>();
+			final int justificationSize = random.nextInt(3);
+			for (int j = 0; j < justificationSize; j++) {
+				justification.add(axioms.get(random.nextInt(axiomCount)));
+			}
+			inferences.add(new Inf(conclusion, premises, justification));
+		}
+		return new RandomProof(conclusionCount, axioms, inferences);
+	}
+
+	public int getConclusionCount() {
+		return conclusionCount_;
+	}
+
+	public Proof<Inf> getProof() {
+		return proof_;
+	}
+
+	/**
+	 * @param threads
+	 *            is extended by the threads that access the returned proof
+	 * @return the proof with the inferences of {@link #getProof()} that
+	 *         records the threads accessing it
+	 */
+	public Proof<Inf> getRecordingProof(final Set<Thread> threads) {
+		return new Proof<Inf>() {
+
+			@Override
+			public Collection<? extends Inf> getInferences(
+					final Object conclusion) {
+				synchronized (threads) {
+					threads.add(Thread.currentThread());
+				}
+				return proof_.getInferences(conclusion);
+			}
+
+		};
+	}
+
+	/**
+	 * @param threads
+	 *            is extended by the threads that access the returned
+	 *            justifier
+	 * @return the justifier that returns the justifications of
+	 *         {@link #JUSTIFIER} and records the threads accessing it
+	 */
+	public static InferenceJustifier<Inf, Set<String>> getRecordingJustifier(
+			final Set<Thread> threads) {
+		return new InferenceJustifier<Inf, Set<String>>() {
+
+			@Override
+			public Set<String> getJustification(final Inf inference) {
+				synchronized (threads) {
+					threads.add(Thread.currentThread());
+				}
+				return JUSTIFIER.getJustification(inference);
+			}
+
+		};
+	}
+
+	public List<Inf> getInferences() {
+		return Collections.unmodifiableList(inferences_);
+	}
+
+	/**
+	 * @param goal
+	 * @param axioms
+	 * @return {@code true} if the goal is derivable by the inferences whose
+	 *         justifications are subsets of the given axioms
+	 */
+	public boolean isDerivable(final Integer goal, final Set<String> axioms) {
+		final Set<Integer> derived = new HashSet<Integer>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (final Inf inf : inferences_) {
+				if (!derived.contains(inf.conclusion_)
+						&& axioms.containsAll(inf.justification_)
+						&& derived.containsAll(inf.premises_)) {
+					derived.add(inf.conclusion_);
+					changed = true;
+				}
+			}
+		}
+		return derived.contains(goal);
+	}
+
+	/**
+	 * @param goal
+	 * @return the justifications of the goal computed by checking all sets
+	 *         of axioms
+	 */
+	public Set<Set<String>> getJustifications(final Integer goal) {
+		final List<Set<String>> subsets = new ArrayList<Set<String>>();
+		for (int mask = 0; mask < 1 << axioms_.size(); mask++) {
+			final Set<String> subset = new HashSet<String>();
+			for (int i = 0; i < axioms_.size(); i++) {
+				if ((mask >> i & 1) == 1) {
+					subset.add(axioms_.get(i));
+				}
+			}
+			subsets.add(subset);
+		}
+		Collections.sort(subsets, new Comparator<Set<String>>() {
+
+			@Override
+			public int compare(final Set<String> first,
+					final Set<String> second) {
+				return Integer.compare(first.size(), second.size());
+			}
+
+		});
+		final Set<Set<String>> result = new HashSet<Set<String>>();
+		candidates: for (final Set<String> subset : subsets) {
+			for (final Set<String> just : result) {
+				if (subset.containsAll(just)) {
+					continue candidates;
+				}
+			}
+			if (isDerivable(goal, subset)) {
+				result.add(subset);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks that the computation enumerates the justifications of every
+	 * conclusion computed by {@link #getJustifications(Integer)} in the order
+	 * of their sizes.
+	 * 
+	 * @param computation
+	 */
+	public void checkJustifications(
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation) {
+		for (int goal = 0; goal < conclusionCount_; goal++) {
+			final Collector collector = collect(computation, goal);
+			Assert.assertEquals(toString(), getJustifications(goal),
+					collector.getSet());
+			collector.checkIncreasingSize();
+		}
+	}
+
+	/**
+	 * @param computation
+	 * @param goal
+	 * @return the collector of the justifications of the goal enumerated by
+	 *         the computation in the order of their sizes
+	 */
+	public static Collector collect(
+			final MinimalSubsetEnumerator.Factory<Integer, String> computation,
+			final Integer goal) {
+		final Collector result = new Collector();
+		computation.newEnumerator(goal).enumerate(result,
+				PriorityComparators.<String> cardinality());
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return inferences_.toString();
+	}
+
+	/**
+	 * Collects the reported subsets in the order in which they are reported
+	 * and checks that they are different.
+	 */
+	public static class Collector
+			implements MinimalSubsetEnumerator.Listener<String> {
+
+		private final List<Set<String>> list_ = new ArrayList<Set<String>>();
+
+		private final Set<Set<String>> set_ = new HashSet<Set<String>>();
+
+		@Override
+		public void newMinimalSubset(final Set<String> set) {
+			final Set<String> copy = new HashSet<String>(set);
+			Assert.assertTrue(set_.add(copy));
+			list_.add(copy);
+		}
+
+		public List<Set<String>> getList() {
+			return list_;
+		}
+
+		public Set<Set<String>> getSet() {
+			return set_;
+		}
+
+		public int getMaxSize() {
+			int result = 0;
+			for (final Set<String> subset : list_) {
+				result = Math.max(result, subset.size());
+			}
+			return result;
+		}
+
+		public void checkIncreasingSize() {
+			int lastSize = 0;
+			for (final Set<String> subset : list_) {
+				Assert.assertTrue(lastSize <= subset.size());
+				lastSize = subset.size();
+			}
+		}
+
+	}
+
+	public static class Inf implements Inference<Integer> {
+
+		private final Integer conclusion_;
+
+		private final List<Integer> premises_;
+
+		private final Set<String> justification_;
+
+		Inf(final Integer conclusion, final List<Integer> premises,
+				final Set<String> justification) {
+			this.conclusion_ = conclusion;
+			this.premises_ = premises;
+			this.justification_ = justification;
+		}
+
+		@Override
+		public String getName() {
+			return "random";
+		}
+
+		@Override
+		public Integer getConclusion() {
+			return conclusion_;
+		}
+
+		@Override
+		public List<Integer> getPremises() {
+			return premises_;
+		}
+
+		@Override
+		public String toString() {
+			return Inferences.toString(this) + " " + justification_;
+		}
+
+	}
+
+}
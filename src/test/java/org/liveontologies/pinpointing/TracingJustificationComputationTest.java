@@ -30,6 +30,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
+import org.liveontologies.pinpointing.experiments.ExperimentException;
 import org.liveontologies.proofs.ElkProofProvider;
 import org.liveontologies.puli.Inference;
 import org.liveontologies.puli.pinpointing.MinimalSubsetsFromProofs;
@@ -51,12 +52,21 @@ public abstract class TracingJustificationComputationTest extends
 			final MinimalSubsetsFromProofs.Factory<Object, Inference<Object>, ElkAxiom> factory,
 			final File ontoFile, final Map<File, File[]> entailFilesPerJustFile)
 			throws Exception {
-		super(new ElkProofProvider(ontoFile, OWL_MANAGER_), factory, ontoFile,
+		super(createProofProvider(ontoFile), factory, ontoFile,
 				entailFilesPerJustFile);
 	}
 
+	static ElkProofProvider createProofProvider(final File ontoFile)
+			throws ExperimentException {
+		return new ElkProofProvider(ontoFile, OWL_MANAGER_);
+	}
+
 	@Override
 	protected ElkAxiom getQuery(final File entailFile) throws Exception {
+		return loadQuery(entailFile);
+	}
+
+	static ElkAxiom loadQuery(final File entailFile) throws Exception {
 		return filterLogical(TestReasonerUtils.loadAxioms(entailFile))
 				.iterator().next();
 	}
@@ -64,6 +74,11 @@ public abstract class TracingJustificationComputationTest extends
 	@Override
 	public Set<? extends Set<? extends ElkAxiom>> getExpectedJustifications(
 			final File[] justFiles) throws Exception {
+		return loadJustifications(justFiles);
+	}
+
+	static Set<? extends Set<? extends ElkAxiom>> loadJustifications(
+			final File[] justFiles) throws Exception {
 		final Set<Set<? extends ElkAxiom>> expectedJusts = new HashSet<>();
 		for (final File justFile : justFiles) {
 			final Set<? extends ElkAxiom> just = filterLogical(
@@ -100,6 +115,10 @@ public abstract class TracingJustificationComputationTest extends
 	@Override
 	public void dispose() {
 		super.dispose();
+		removeOntologies();
+	}
+
+	static void removeOntologies() {
 		final Collection<OWLOntology> ontologies = new ArrayList<>(
 				OWL_MANAGER_.getOntologies());
 		for (final OWLOntology ontology : ontologies) {
@@ -0,0 +1,79 @@
+package org.liveontologies.pinpointing;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.runners.Parameterized.Parameters;
+import org.liveontologies.pinpointing.experiments.ExperimentException;
+import org.liveontologies.puli.Inference;
+import org.semanticweb.elk.owl.interfaces.ElkAxiom;
+
+public class TracingJustificationProofTest extends
+		BaseJustificationProofTest<ElkAxiom, Object, Inference<Object>, ElkAxiom> {
+
+	@Parameters
+	public static Collection<Object[]> parameters() throws URISyntaxException {
+		final List<Object[]> result = new ArrayList<>();
+		for (final String testInputDir : new String[] { "test_input/simple",
+				"test_input/full-galen_cel", "test_input/go_cel" }) {
+			result.addAll(BaseJustificationComputationTest
+					.collectJustificationTestInputFiles(testInputDir,
+							BaseJustificationComputationTest.class,
+							BaseJustificationComputationTest.JUSTIFICATION_DIR_NAME));
+		}
+		return result;
+	}
+
+	public TracingJustificationProofTest(final File ontoFile,
+			final Map<File, File[]> entailFilesPerJustFile)
+			throws ExperimentException {
+		super(TracingJustificationComputationTest.createProofProvider(ontoFile),
+				ontoFile, entailFilesPerJustFile);
+	}
+
+	@Override
+	protected ElkAxiom getQuery(final File entailFile) throws Exception {
+		return TracingJustificationComputationTest.loadQuery(entailFile);
+	}
+
+	@Override
+	protected Set<? extends Set<? extends ElkAxiom>> getExpectedJustifications(
+			final File[] justFiles) throws Exception {
+		return TracingJustificationComputationTest
+				.loadJustifications(justFiles);
+	}
+
+	@Override
+	protected void dispose() {
+		super.dispose();
+		TracingJustificationComputationTest.removeOntologies();
+	}
+
+}
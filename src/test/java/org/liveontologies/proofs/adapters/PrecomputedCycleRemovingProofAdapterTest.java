@@ -0,0 +1,109 @@
+package org.liveontologies.proofs.adapters;
+
+/*-
+ * #%L
+ * Axiom Pinpointing Experiments
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2017 - 2018 Live Ontologies Project
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.liveontologies.pinpointing.RandomProof;
+import org.liveontologies.puli.Proof;
+
+public class PrecomputedCycleRemovingProofAdapterTest {
+
+	/**
+	 * Compares the inferences of every conclusion reachable from the query
+	 * with the inferences of {@link CycleRemovingProofAdapter}, requesting the
+	 * conclusions in the order of their distance from the query and in the
+	 * reverse order, since the latter adapter processes the conclusions
+	 * lazily.
+	 */
+	@Test
+	public void testSameInferences() {
+		final Random random = new Random(23);
+		for (int i = 0; i < 300; i++) {
+			final RandomProof randomProof = RandomProof.generate(random, 8, 8,
+					25);
+			final Proof<RandomProof.Inf> proof = randomProof.getProof();
+			for (int goal = 0; goal < randomProof
+					.getConclusionCount(); goal++) {
+				final Object[] reachable = getReachable(proof, goal);
+				final Proof<RandomProof.Inf> precomputed = Proofs
+						.<RandomProof.Inf> eliminateCycles(proof, goal);
+				checkSameInferences(randomProof, reachable,
+						Proofs.eliminateCycles(proof), precomputed, false);
+				checkSameInferences(randomProof, reachable,
+						Proofs.eliminateCycles(proof), precomputed, true);
+			}
+		}
+	}
+
+	private static void checkSameInferences(final RandomProof randomProof,
+			final Object[] conclusions, final Proof<RandomProof.Inf> expected,
+			final Proof<RandomProof.Inf> actual, final boolean reverse) {
+		for (int i = 0; i < conclusions.length; i++) {
+			final Object conclusion = conclusions[reverse
+					? conclusions.length - 1 - i
+					: i];
+			Assert.assertEquals(conclusion + " in " + randomProof,
+					new HashSet<>(expected.getInferences(conclusion)),
+					new HashSet<>(actual.getInferences(conclusion)));
+		}
+	}
+
+	/**
+	 * @param proof
+	 * @param query
+	 * @return the conclusions reachable from the query by the inferences of
+	 *         the proof in the order of their distance from the query
+	 */
+	private static Object[] getReachable(final Proof<RandomProof.Inf> proof,
+			final Object query) {
+		final Set<Object> result = new HashSet<>();
+		final Queue<Object> toDo = new ArrayDeque<>();
+		final Queue<Object> ordered = new ArrayDeque<>();
+		result.add(query);
+		toDo.add(query);
+		for (;;) {
+			final Object conclusion = toDo.poll();
+			if (conclusion == null) {
+				return ordered.toArray();
+			}
+			// else
+			ordered.add(conclusion);
+			for (final RandomProof.Inf inf : proof
+					.getInferences(conclusion)) {
+				for (final Object premise : inf.getPremises()) {
+					if (result.add(premise)) {
+						toDo.add(premise);
+					}
+				}
+			}
+		}
+	}
+
+}